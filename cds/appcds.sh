@@ -0,0 +1,18 @@
+#!/bin/sh
+# Gera um arquivo de AppCDS (class data sharing dinâmico, JDK 13+) para a GUI.
+#
+# A execução de treino abre a janela e sai sozinha quando os sprites das peças ficam prontos
+# (-Dxadrez.exitAfterStartup=true); as classes carregadas até ali (Swing, Nimbus, ImageIO,
+# motor) são gravadas no arquivo e, nas próximas execuções, mapeadas já verificadas.
+#
+# Uso: cds/appcds.sh [classpath=out] [arquivo=xadrez-gui.jsa]
+# Depois: java -XX:SharedArchiveFile=xadrez-gui.jsa -cp out view.ChessGUI
+# Para comparar: acrescente -Dxadrez.startupTiming=true com e sem o arquivo.
+set -e
+CP=${1:-out}
+ARCHIVE=${2:-xadrez-gui.jsa}
+
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dxadrez.exitAfterStartup=true \
+     -Dxadrez.startupTiming=true -cp "$CP" view.ChessGUI
+echo "Arquivo gerado: $ARCHIVE"
+echo "Execute com: java -XX:SharedArchiveFile=$ARCHIVE -cp $CP view.ChessGUI"
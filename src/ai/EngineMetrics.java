@@ -0,0 +1,164 @@
+package ai;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Totais de todas as buscas do processo (GUI, UCI, servidor, torneios), expostos por JMX
+ * (jconsole/VisualVM: "xadrez:type=EngineMetrics") e, opcionalmente, numa linha periódica
+ * em System.err com as taxas do intervalo.
+ *
+ * Cada SearchEngine conta em campos próprios (SearchStats) e publica aqui uma vez por busca;
+ * os totais são LongAdder (contadores distribuídos), então várias threads de busca não
+ * disputam a mesma linha de cache. Pode ficar ligado em produção.
+ *
+ * Linha periódica: -Dxadrez.statsLogSeconds=N (0 = desligada, padrão).
+ */
+public final class EngineMetrics implements EngineMetricsMBean {
+
+    public static final String OBJECT_NAME = "xadrez:type=EngineMetrics";
+    private static final EngineMetrics GLOBAL = new EngineMetrics();
+
+    static {
+        GLOBAL.register();
+        long period = Long.getLong("xadrez.statsLogSeconds", 0);
+        if (period > 0) GLOBAL.startLogging(period);
+    }
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder qnodes = new LongAdder();
+    private final LongAdder ttProbes = new LongAdder();
+    private final LongAdder ttHits = new LongAdder();
+    private final LongAdder ttCutoffs = new LongAdder();
+    private final LongAdder betaCutoffs = new LongAdder();
+    private final LongAdder firstMoveCutoffs = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final DoubleAdder ebfSum = new DoubleAdder();
+    private final LongAdder ebfCount = new LongAdder();
+    private volatile SearchStats lastSearch;   // formatada só quando lida (getLastSearch)
+
+    private EngineMetrics() { }
+
+    public static EngineMetrics global() {
+        return GLOBAL;
+    }
+
+    /** Soma os contadores de uma busca terminada. */
+    void publish(SearchStats s) {
+        searches.increment();
+        nodes.add(s.nodes);
+        qnodes.add(s.qnodes);
+        ttProbes.add(s.ttProbes);
+        ttHits.add(s.ttHits);
+        ttCutoffs.add(s.ttCutoffs);
+        betaCutoffs.add(s.betaCutoffs);
+        firstMoveCutoffs.add(s.firstMoveCutoffs);
+        searchNanos.add(s.elapsedNanos);
+        double ebf = s.effectiveBranchingFactor();
+        if (ebf > 0) {
+            ebfSum.add(ebf);
+            ebfCount.increment();
+        }
+        lastSearch = s.copy();
+    }
+
+    @Override public long getSearches() { return searches.sum(); }
+    @Override public long getNodes() { return nodes.sum(); }
+    @Override public long getQuiescenceNodes() { return qnodes.sum(); }
+    @Override public long getTtProbes() { return ttProbes.sum(); }
+    @Override public long getTtHits() { return ttHits.sum(); }
+    @Override public long getTtCutoffs() { return ttCutoffs.sum(); }
+    @Override public long getSearchMillis() { return searchNanos.sum() / 1_000_000; }
+    @Override
+    public String getLastSearch() {
+        SearchStats s = lastSearch;
+        return s != null ? s.toString() : "";
+    }
+
+    @Override
+    public double getTtHitRate() {
+        long p = ttProbes.sum();
+        return p > 0 ? (double) ttHits.sum() / p : 0;
+    }
+
+    @Override
+    public double getFirstMoveCutoffRate() {
+        long c = betaCutoffs.sum();
+        return c > 0 ? (double) firstMoveCutoffs.sum() / c : 0;
+    }
+
+    @Override
+    public double getAverageBranchingFactor() {
+        long n = ebfCount.sum();
+        return n > 0 ? ebfSum.sum() / n : 0;
+    }
+
+    /** Nós por segundo de busca (soma das threads). */
+    @Override
+    public long getNodesPerSecond() {
+        long t = searchNanos.sum();
+        return t > 0 ? (long) (nodes.sum() * 1e9 / t) : 0;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder a : new LongAdder[] { searches, nodes, qnodes, ttProbes, ttHits, ttCutoffs,
+                betaCutoffs, firstMoveCutoffs, searchNanos, ebfCount }) {
+            a.reset();
+        }
+        ebfSum.reset();
+        lastSearch = null;
+    }
+
+    // --------- JMX e log ----------
+
+    private void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(this, name);
+        } catch (JMException | SecurityException e) {
+            System.err.println("EngineMetrics: JMX indisponível: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imprime a cada "seconds" uma linha com as taxas do intervalo (só se houve busca); todos os
+     * campos, inclusive o ebf (média das buscas do intervalo), são do intervalo. Chamado uma
+     * única vez, na inicialização com -Dxadrez.statsLogSeconds.
+     */
+    private void startLogging(long seconds) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "engine-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        long[] prev = new long[8];
+        double[] prevEbfSum = new double[1];
+        timer.scheduleAtFixedRate(() -> {
+            long[] now = { searches.sum(), nodes.sum(), qnodes.sum(), ttProbes.sum(), ttHits.sum(),
+                    betaCutoffs.sum(), firstMoveCutoffs.sum(), ebfCount.sum() };
+            double ebfNow = ebfSum.sum();
+            long s = now[0] - prev[0], n = now[1] - prev[1], q = now[2] - prev[2];
+            long p = now[3] - prev[3], h = now[4] - prev[4], c = now[5] - prev[5], f = now[6] - prev[6];
+            long ebfN = now[7] - prev[7];
+            double ebf = ebfN > 0 ? (ebfNow - prevEbfSum[0]) / ebfN : 0;
+            System.arraycopy(now, 0, prev, 0, now.length);
+            prevEbfSum[0] = ebfNow;
+            if (s == 0) return;
+            System.err.println(String.format(Locale.ROOT,
+                    "[engine] %ds: searches %d nodes %d (q %.0f%%) nodes/s %d tt hit %.1f%% first-move cut %.1f%% ebf %.2f",
+                    seconds, s, n, n > 0 ? 100.0 * q / n : 0, n / seconds, p > 0 ? 100.0 * h / p : 0,
+                    c > 0 ? 100.0 * f / c : 0, ebf));
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,20 @@
+package ai;
+
+/** Interface JMX (MBean padrão) de EngineMetrics, registrada como "xadrez:type=EngineMetrics". */
+public interface EngineMetricsMBean {
+
+    long getSearches();
+    long getNodes();
+    long getQuiescenceNodes();
+    long getTtProbes();
+    long getTtHits();
+    long getTtCutoffs();
+    double getTtHitRate();
+    double getFirstMoveCutoffRate();
+    double getAverageBranchingFactor();
+    long getNodesPerSecond();
+    long getSearchMillis();
+    String getLastSearch();
+
+    void reset();
+}
@@ -0,0 +1,181 @@
+package ai;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parâmetros da avaliação estática (IAUtils.evaluate): valor de cada tipo de peça e uma tabela
+ * peça-casa por tipo, em centipawns, do ponto de vista das brancas (a casa das pretas é
+ * espelhada na vertical). O rei vale KING_VALUE fixo e só a sua tabela é ajustável.
+ *
+ * Os valores padrão reproduzem exatamente a avaliação escrita à mão (peão 100, cavalo 320...,
+ * centro +10/+4, peão +5 por fileira avançada). tools.Tuner ajusta os parâmetros com partidas
+ * locais e grava um arquivo que o motor carrega ao iniciar com -Dxadrez.evalParams=arquivo.
+ *
+ * Formato do arquivo (texto): "material" seguido de 5 números (P N B R Q) e "pst X", para cada
+ * X em PNBRQK, seguido de 64 números (a8..h8, a7..h7, ..., a1..h1). Linhas com # são
+ * comentários; tabelas ausentes ficam com o padrão. Arquivo inválido no início: aviso em stderr
+ * e valores padrão.
+ *
+ * Para a busca, os parâmetros viram uma tabela única [índice Zobrist][casa] com material,
+ * posição e sinal já somados: avaliar é uma soma por peça, sem instanceof.
+ */
+public final class EvalParams {
+
+    public static final String PIECES = "PNBRQK";
+    public static final int KING_VALUE = 20_000;
+    public static final int PAWN = 0, KNIGHT = 1, BISHOP = 2, ROOK = 3, QUEEN = 4, KING = 5;
+
+    /** Layout do vetor de parâmetros: 5 materiais (P..Q) e depois 6 tabelas de 64 casas. */
+    public static final int MATERIAL = 0, PST = 5, COUNT = PST + 6 * 64;
+
+    private static volatile EvalParams active = loadStartup();
+
+    private final int[] values;
+    private final int[][] squareValue = new int[12][64];   // [índice Zobrist][row*8+col], com sinal
+
+    private EvalParams(int[] values) {
+        if (values.length != COUNT) throw new IllegalArgumentException("Esperados " + COUNT + " parâmetros");
+        this.values = values.clone();
+        for (int type = 0; type < 6; type++) {
+            int material = type == KING ? KING_VALUE : values[MATERIAL + type];
+            for (int sq = 0; sq < 64; sq++) {
+                int mirrored = (7 - (sq >>> 3)) * 8 + (sq & 7);
+                squareValue[type][sq] = material + values[PST + type * 64 + sq];
+                squareValue[type + 6][sq] = -(material + values[PST + type * 64 + mirrored]);
+            }
+        }
+    }
+
+    /** Os valores escritos à mão. */
+    public static EvalParams defaults() {
+        int[] v = new int[COUNT];
+        int[] material = { 100, 320, 330, 500, 900 };
+        System.arraycopy(material, 0, v, MATERIAL, material.length);
+        for (int type = 0; type < 6; type++) {
+            for (int r = 0; r < 8; r++) {
+                for (int c = 0; c < 8; c++) {
+                    int bonus = 0;
+                    if ((r == 3 || r == 4) && (c == 3 || c == 4)) bonus += 10;
+                    else if (r >= 2 && r <= 5 && c >= 2 && c <= 5) bonus += 4;
+                    if (type == PAWN) bonus += (7 - r) * 5;
+                    v[PST + type * 64 + r * 8 + c] = bonus;
+                }
+            }
+        }
+        return new EvalParams(v);
+    }
+
+    public static EvalParams of(int[] values) {
+        return new EvalParams(values);
+    }
+
+    // --------- Parâmetros ativos ----------
+
+    /** Parâmetros usados pela avaliação. */
+    public static EvalParams active() { return active; }
+
+    /** Troca os parâmetros da avaliação (ex.: testes de tuning); buscas em curso podem ver os dois. */
+    public static void setActive(EvalParams params) { active = params; }
+
+    /** Arquivo de -Dxadrez.evalParams; se não puder ser lido, avisa em stderr e usa o padrão. */
+    private static EvalParams loadStartup() {
+        String file = System.getProperty("xadrez.evalParams");
+        if (file == null || file.isEmpty()) return defaults();
+        try {
+            return load(Paths.get(file));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Parâmetros de avaliação " + file + " ignorados (" + e.getMessage()
+                    + "); usando os valores padrão");
+            return defaults();
+        }
+    }
+
+    // --------- Consulta ----------
+
+    /** Material do tipo (PAWN..KING). */
+    public int material(int type) {
+        return type == KING ? KING_VALUE : values[MATERIAL + type];
+    }
+
+    /** Bônus da tabela peça-casa, com a casa vista pelo lado da peça. */
+    public int pst(int type, boolean white, int row, int col) {
+        return values[PST + type * 64 + (white ? row : 7 - row) * 8 + col];
+    }
+
+    /** Material + posição com sinal (brancas positivo) da peça de índice Zobrist "piece" na casa. */
+    public int squareValue(int piece, int sq) {
+        return squareValue[piece][sq];
+    }
+
+    /** Cópia do vetor de parâmetros (layout MATERIAL/PST). */
+    public int[] toArray() {
+        return values.clone();
+    }
+
+    // --------- Arquivo ----------
+
+    /** @throws IllegalArgumentException se o arquivo tiver chaves ou quantidades inválidas */
+    public static EvalParams load(Path file) throws IOException {
+        int[] v = defaults().values.clone();
+        String key = null;
+        List<Integer> numbers = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            for (String tok : line.trim().split("\\s+")) {
+                if (tok.isEmpty()) continue;
+                if (Character.isLetter(tok.charAt(0))) {
+                    if (key != null && !key.equals("pst")) store(v, key, numbers);
+                    key = key != null && key.equals("pst") ? "pst " + tok : tok;
+                    numbers.clear();
+                } else {
+                    if (key == null) throw new IllegalArgumentException("Número antes de qualquer chave: " + tok);
+                    numbers.add(Integer.parseInt(tok));
+                }
+            }
+        }
+        if (key != null) store(v, key, numbers);
+        return new EvalParams(v);
+    }
+
+    private static void store(int[] v, String key, List<Integer> numbers) {
+        int offset, count;
+        if (key.equals("material")) {
+            offset = MATERIAL;
+            count = 5;
+        } else if (key.startsWith("pst ") && key.length() == 5 && PIECES.indexOf(key.charAt(4)) >= 0) {
+            offset = PST + PIECES.indexOf(key.charAt(4)) * 64;
+            count = 64;
+        } else {
+            throw new IllegalArgumentException("Chave inválida nos parâmetros: " + key);
+        }
+        if (numbers.size() != count) {
+            throw new IllegalArgumentException(key + ": esperados " + count + " números, lidos " + numbers.size());
+        }
+        for (int i = 0; i < count; i++) v[offset + i] = numbers.get(i);
+    }
+
+    public void save(Path file, String comment) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        if (comment != null) {
+            for (String line : comment.split("\n")) sb.append("# ").append(line).append('\n');
+        }
+        sb.append("material");
+        for (int t = 0; t < 5; t++) sb.append(' ').append(values[MATERIAL + t]);
+        sb.append('\n');
+        for (int type = 0; type < 6; type++) {
+            sb.append("\npst ").append(PIECES.charAt(type)).append('\n');
+            for (int r = 0; r < 8; r++) {
+                for (int c = 0; c < 8; c++) sb.append(String.format("%5d", values[PST + type * 64 + r * 8 + c]));
+                sb.append('\n');
+            }
+        }
+        Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -11,4 +11,17 @@ public interface IA {
      * @return O movimento escolhido pela IA.
      */
     Move makeMove(Game game);
-}
\ No newline at end of file
+
+    /**
+     * Igual a makeMove(game), mas cancelável: a IA deve consultar
+     * control.shouldStop() periodicamente e informar o progresso ao listener.
+     * Implementações simples podem ignorar o controle.
+     *
+     * @param game O estado atual do jogo.
+     * @param control Pedido de parada, prazo e listener de progresso.
+     * @return O melhor movimento encontrado até a parada (ou null sem lances).
+     */
+    default Move makeMove(Game game, SearchControl control) {
+        return makeMove(game);
+    }
+}
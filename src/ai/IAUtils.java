@@ -1,43 +1,139 @@
 package ai;
 
+import controller.Game;
+import controller.GameCodec;
+import controller.Zobrist;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import model.board.Board;
+import model.board.Move;
 import model.board.Position;
 import model.pieces.*;
 
 public class IAUtils {
 
-    // Valores das peças
+    private static final char[] PROMOTIONS = { 'Q', 'R', 'B', 'N' };
+
+    // Valores das peças (EvalParams.active(); o padrão é P 100, N 320, B 330, R 500, Q 900, K 20000)
     public static int getPieceValue(Piece p) {
-        if (p instanceof Pawn) return 100;
-        if (p instanceof Knight) return 320;
-        if (p instanceof Bishop) return 330;
-        if (p instanceof Rook) return 500;
-        if (p instanceof Queen) return 900;
-        if (p instanceof King) return 20000;
-        return 0;
+        int type = type(p);
+        return type < 0 ? 0 : EvalParams.active().material(type);
     }
 
-    // Bônus de posição
+    // Bônus de posição (padrão: controle do centro e peões avançados)
     public static int getPositionBonus(Piece p, Position pos) {
-        int bonus = 0;
-        int r = pos.getRow();
-        int c = pos.getColumn();
-
-        // Bônus para controle do centro
-        if ((r == 3 || r == 4) && (c == 3 || c == 4)) {
-            bonus += 10;
-        } else if ((r >= 2 && r <= 5) && (c >= 2 && c <= 5)) {
-            bonus += 4;
+        int type = type(p);
+        return type < 0 ? 0 : EvalParams.active().pst(type, p.isWhite(), pos.getRow(), pos.getColumn());
+    }
+
+    /** Avaliação estática (material + posição) do ponto de vista das brancas. */
+    public static int evaluate(Game game) {
+        EvalParams params = EvalParams.active();
+        Board board = game.board();
+        int score = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = board.get(Position.of(sq >>> 3, sq & 7));
+            if (p != null) score += params.squareValue(Zobrist.pieceIndex(p), sq);
         }
+        return score;
+    }
+
+    private static int type(Piece p) {
+        if (p instanceof Pawn) return EvalParams.PAWN;
+        if (p instanceof Knight) return EvalParams.KNIGHT;
+        if (p instanceof Bishop) return EvalParams.BISHOP;
+        if (p instanceof Rook) return EvalParams.ROOK;
+        if (p instanceof Queen) return EvalParams.QUEEN;
+        if (p instanceof King) return EvalParams.KING;
+        return -1;
+    }
 
-        // Bônus para peões avançados
-        if (p instanceof Pawn) {
-            if (p.isWhite()) {
-                bonus += (7 - r) * 5; // Mais pontos quanto mais perto do final
-            } else {
-                bonus += r * 5; // Mais pontos quanto mais perto do final
+    /**
+     * Todos os lances legais do lado a jogar, já classificados
+     * (roque, en passant e as quatro promoções possíveis).
+     */
+    public static List<Move> legalMoves(Game game) {
+        List<Move> moves = new ArrayList<>();
+        boolean white = game.whiteToMove();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Position from = new Position(r, c);
+                Piece piece = game.board().get(from);
+                if (piece == null || piece.isWhite() != white) continue;
+                for (Position to : game.legalMovesFrom(from)) {
+                    addMove(game, moves, piece, from, to);
+                }
             }
         }
+        return moves;
+    }
+
+    /** Lances legais da peça na casa dada (mesma classificação de legalMoves). */
+    public static List<Move> legalMovesFrom(Game game, Position from) {
+        List<Move> moves = new ArrayList<>();
+        Piece piece = game.board().get(from);
+        if (piece == null || piece.isWhite() != game.whiteToMove()) return moves;
+        for (Position to : game.legalMovesFrom(from)) {
+            addMove(game, moves, piece, from, to);
+        }
+        return moves;
+    }
+
+    private static void addMove(Game game, List<Move> out, Piece piece, Position from, Position to) {
+        Piece captured = game.board().get(to);
+        if (piece instanceof King && Math.abs(to.getColumn() - from.getColumn()) == 2) {
+            out.add(Move.castle(from, to, piece, to.getColumn() == 6));
+        } else if (piece instanceof Pawn && captured == null && from.getColumn() != to.getColumn()) {
+            Piece victim = game.board().get(new Position(from.getRow(), to.getColumn()));
+            out.add(Move.enPassant(from, to, piece, victim));
+        } else if (piece instanceof Pawn && game.isPromotion(from, to)) {
+            for (char promo : PROMOTIONS) out.add(Move.promotion(from, to, piece, captured, promo));
+        } else {
+            out.add(Move.normal(from, to, piece, captured));
+        }
+    }
+
+    /**
+     * Lance legal da posição com o código compacto dado (GameCodec.encodeMove), ou null se não
+     * houver: livro de aberturas e tabela de transposição guardam só o código.
+     */
+    public static Move moveFromCode(Game game, int code) {
+        for (Move m : legalMovesFrom(game, GameCodec.moveFrom(code))) {
+            if (GameCodec.encodeMove(m) == code) return m;
+        }
+        return null;
+    }
+
+    /** Aplica o lance numa cópia do jogo e retorna a cópia. */
+    public static Game play(Game game, Move move) {
+        Game copy = game.snapshotShallow();
+        copy.move(move.getFrom(), move.getTo(), move.getPromotion());
+        return copy;
+    }
+
+    /** Pontuação MVV-LVA (vítima mais valiosa, atacante menos valioso). */
+    public static int mvvLva(Move move) {
+        int score = 0;
+        if (move.getCaptured() != null) {
+            score += getPieceValue(move.getCaptured()) * 10 - getPieceValue(move.getMoved()) / 10;
+        }
+        if (move.getPromotion() != null && move.getPromotion() == 'Q') score += 8000;
+        return score;
+    }
+
+    /** True se o lance captura ou promove (usado na busca de quiescência). */
+    public static boolean isTactical(Move move) {
+        return move.getCaptured() != null || move.getPromotion() != null;
+    }
 
-        return bonus;
+    /**
+     * Compara dois lances apenas por casas e promoção. Necessário porque lances
+     * vindos de cópias diferentes do jogo referenciam objetos Piece diferentes.
+     */
+    public static boolean sameMove(Move a, Move b) {
+        if (a == null || b == null) return false;
+        return a.getFrom().equals(b.getFrom()) && a.getTo().equals(b.getTo())
+                && Objects.equals(a.getPromotion(), b.getPromotion());
     }
-}
\ No newline at end of file
+}
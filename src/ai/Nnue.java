@@ -0,0 +1,248 @@
+package ai;
+
+import controller.Game;
+import controller.Zobrist;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import model.board.Board;
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Avaliação por rede neural com acumulador atualizável (estilo NNUE), alternativa opcional a
+ * IAUtils.evaluate.
+ *
+ * Rede 768 -> 2 x H -> 1: as entradas são (peça, casa) vistas por cada lado; a primeira camada
+ * produz dois acumuladores de H valores int16, um do ponto de vista das brancas e outro das
+ * pretas (cores trocadas e tabuleiro espelhado). A saída concatena o acumulador de quem joga e
+ * o do adversário, com ReLU limitada a [0, QA], e multiplica pelos pesos de saída:
+ *   nota = (soma + bias) * SCALE / (QA * QB)   (centipawns, do ponto de vista de quem joga)
+ *
+ * Como a primeira camada é linear, o acumulador de um filho sai do acumulador do pai somando e
+ * subtraindo as colunas das (peça, casa) que o lance mudou (2 a 4 casas): Accumulator.update.
+ * A busca (SearchEngine) mantém um acumulador por ply e só reconstrói o da raiz.
+ *
+ * Os laços internos são contados sobre short[]/int[] sem desvios para o compilador JIT
+ * (superword do C2) vetorizar. A Vector API (jdk.incubator.vector) ainda é incubadora no JDK 17
+ * e exigiria --add-modules em toda compilação e execução, então não é usada.
+ *
+ * Pesos: arquivo gerado por tools.NnueTrainer (load/save). Para ligar em todos os motores do
+ * processo: -Dxadrez.nnue=arquivo; ou SearchEngine.setNnue / "nnue=arquivo" nas configurações
+ * de tools.Match e tools.EpdSuite.
+ */
+public final class Nnue {
+
+    public static final int INPUTS = 12 * 64;
+    public static final int QA = 255, QB = 64, SCALE = 400;
+    private static final int MAGIC = 0x584E4E31; // "XNN1"
+
+    private static final Nnue STARTUP = loadStartup();
+
+    final int hidden;
+    final short[] inputWeights;   // [feature * hidden + h]: coluna de cada feature contígua
+    final short[] inputBias;      // [h]
+    final short[] outputWeights;  // [0, H): quem joga; [H, 2H): adversário
+    final int outputBias;
+
+    Nnue(int hidden, short[] inputWeights, short[] inputBias, short[] outputWeights, int outputBias) {
+        if (hidden <= 0 || inputWeights.length != INPUTS * hidden || inputBias.length != hidden
+                || outputWeights.length != 2 * hidden) {
+            throw new IllegalArgumentException("Dimensões inválidas da rede");
+        }
+        this.hidden = hidden;
+        this.inputWeights = inputWeights;
+        this.inputBias = inputBias;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /** Rede já quantizada (ex.: tools.NnueTrainer). Os vetores são copiados. */
+    public static Nnue of(int hidden, short[] inputWeights, short[] inputBias, short[] outputWeights, int outputBias) {
+        return new Nnue(hidden, inputWeights.clone(), inputBias.clone(), outputWeights.clone(), outputBias);
+    }
+
+    /** Pesos aleatórios pequenos: só para medir velocidade (tools.EvalBench). */
+    public static Nnue random(int hidden, long seed) {
+        Random rnd = new Random(seed);
+        short[] w = new short[INPUTS * hidden], b = new short[hidden], o = new short[2 * hidden];
+        for (int i = 0; i < w.length; i++) w[i] = (short) (rnd.nextInt(61) - 30);
+        for (int i = 0; i < b.length; i++) b[i] = (short) rnd.nextInt(64);
+        for (int i = 0; i < o.length; i++) o[i] = (short) (rnd.nextInt(33) - 16);
+        return new Nnue(hidden, w, b, o, 0);
+    }
+
+    /** Rede de -Dxadrez.nnue, ou null (avaliação escrita à mão). */
+    public static Nnue startup() { return STARTUP; }
+
+    private static Nnue loadStartup() {
+        String file = System.getProperty("xadrez.nnue");
+        if (file == null || file.isEmpty()) return null;
+        try {
+            return load(Paths.get(file));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Rede " + file + " ignorada (" + e.getMessage() + "); usando a avaliação padrão");
+            return null;
+        }
+    }
+
+    public int hidden() { return hidden; }
+
+    // --------- Features ----------
+
+    /** Feature (peça, casa) vista pelas brancas; casa = row*8+col (a8 = 0). */
+    public static int whiteFeature(int piece, int sq) {
+        return piece * 64 + sq;
+    }
+
+    /** A mesma casa vista pelas pretas: cores trocadas e fileiras espelhadas. */
+    public static int blackFeature(int piece, int sq) {
+        return (piece < 6 ? piece + 6 : piece - 6) * 64 + (sq ^ 56);
+    }
+
+    // --------- Avaliação ----------
+
+    /** Nota em centipawns do ponto de vista de quem joga. */
+    public int evaluate(Accumulator acc, boolean whiteToMove) {
+        short[] us = whiteToMove ? acc.white : acc.black;
+        short[] them = whiteToMove ? acc.black : acc.white;
+        int sum = dot(us, outputWeights, 0) + dot(them, outputWeights, hidden);
+        return (int) ((long) (sum + outputBias) * SCALE / (QA * QB));
+    }
+
+    /** Avaliação sem acumulador prévio (reconstrói do zero). */
+    public int evaluate(Game game) {
+        Accumulator acc = newAccumulator();
+        acc.refresh(game);
+        return evaluate(acc, game.whiteToMove());
+    }
+
+    private int dot(short[] acc, short[] weights, int offset) {
+        int sum = 0;
+        for (int h = 0; h < hidden; h++) {
+            int x = Math.min(Math.max(acc[h], 0), QA);
+            sum += x * weights[offset + h];
+        }
+        return sum;
+    }
+
+    public Accumulator newAccumulator() {
+        return new Accumulator();
+    }
+
+    /** Saída da primeira camada para os dois lados. Não é thread-safe (um por busca/ply). */
+    public final class Accumulator {
+        final short[] white = new short[hidden];
+        final short[] black = new short[hidden];
+
+        /** Recalcula a partir de todas as peças do tabuleiro. */
+        public void refresh(Game game) {
+            System.arraycopy(inputBias, 0, white, 0, hidden);
+            System.arraycopy(inputBias, 0, black, 0, hidden);
+            Board board = game.board();
+            for (int sq = 0; sq < 64; sq++) {
+                Piece p = board.get(Position.of(sq >>> 3, sq & 7));
+                if (p != null) add(Zobrist.pieceIndex(p), sq);
+            }
+        }
+
+        /**
+         * Este = pai + as mudanças do lance que levou de "before" a "after". Só as casas que o
+         * lance pode mudar são comparadas: origem, destino, a vítima do en passant e as casas da
+         * torre no roque.
+         */
+        public void update(Accumulator parent, Game before, Game after, Position from, Position to) {
+            System.arraycopy(parent.white, 0, white, 0, hidden);
+            System.arraycopy(parent.black, 0, black, 0, hidden);
+            Board b0 = before.board(), b1 = after.board();
+            diff(b0, b1, from.getRow(), from.getColumn());
+            diff(b0, b1, to.getRow(), to.getColumn());
+            Piece moved = b0.get(from);
+            int code = moved == null ? -1 : Zobrist.pieceIndex(moved) % 6;
+            if (code == Zobrist.WHITE_PAWN && from.getColumn() != to.getColumn()) {
+                diff(b0, b1, from.getRow(), to.getColumn());
+            } else if (code == Zobrist.WHITE_KING && Math.abs(to.getColumn() - from.getColumn()) == 2) {
+                int row = from.getRow();
+                diff(b0, b1, row, 0);
+                diff(b0, b1, row, 3);
+                diff(b0, b1, row, 5);
+                diff(b0, b1, row, 7);
+            }
+        }
+
+        private void diff(Board b0, Board b1, int row, int col) {
+            Position p = Position.of(row, col);
+            Piece old = b0.get(p), now = b1.get(p);
+            int a = old == null ? -1 : Zobrist.pieceIndex(old);
+            int b = now == null ? -1 : Zobrist.pieceIndex(now);
+            if (a == b) return;
+            int sq = row * 8 + col;
+            if (a >= 0) sub(a, sq);
+            if (b >= 0) add(b, sq);
+        }
+
+        private void add(int piece, int sq) {
+            column(white, whiteFeature(piece, sq), 1);
+            column(black, blackFeature(piece, sq), 1);
+        }
+
+        private void sub(int piece, int sq) {
+            column(white, whiteFeature(piece, sq), -1);
+            column(black, blackFeature(piece, sq), -1);
+        }
+
+        private void column(short[] acc, int feature, int sign) {
+            int base = feature * hidden;
+            if (sign > 0) {
+                for (int h = 0; h < hidden; h++) acc[h] += inputWeights[base + h];
+            } else {
+                for (int h = 0; h < hidden; h++) acc[h] -= inputWeights[base + h];
+            }
+        }
+
+        /** Cópia exata de outro acumulador da mesma rede. */
+        public void copyFrom(Accumulator other) {
+            System.arraycopy(other.white, 0, white, 0, hidden);
+            System.arraycopy(other.black, 0, black, 0, hidden);
+        }
+    }
+
+    // --------- Arquivo ----------
+
+    /**
+     * Formato: "XNN1", H, os 768*H pesos de entrada (feature a feature), os H bias, os 2H pesos
+     * de saída (int16) e o bias de saída (int32), tudo big-endian.
+     */
+    public static Nnue load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IllegalArgumentException("Não é um arquivo de rede: " + file);
+            int hidden = in.readInt();
+            if (hidden <= 0 || hidden > 4096) throw new IllegalArgumentException("Tamanho de camada inválido: " + hidden);
+            short[] w = readShorts(in, INPUTS * hidden), b = readShorts(in, hidden), o = readShorts(in, 2 * hidden);
+            return new Nnue(hidden, w, b, o, in.readInt());
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(hidden);
+            for (short s : inputWeights) out.writeShort(s);
+            for (short s : inputBias) out.writeShort(s);
+            for (short s : outputWeights) out.writeShort(s);
+            out.writeInt(outputBias);
+        }
+    }
+
+    private static short[] readShorts(DataInputStream in, int n) throws IOException {
+        short[] a = new short[n];
+        for (int i = 0; i < n; i++) a[i] = in.readShort();
+        return a;
+    }
+}
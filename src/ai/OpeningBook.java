@@ -0,0 +1,149 @@
+package ai;
+
+import controller.Game;
+import controller.Zobrist;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import model.board.Move;
+
+/**
+ * Livro de aberturas em arquivo binário mapeado em memória (NIO).
+ *
+ * Formato (big-endian):
+ *   cabeçalho de 16 bytes: magic "RCBK", versão (int), número de registros (long)
+ *   registros de 12 bytes ordenados por chave: chave Zobrist (long), lance (short), peso (short)
+ *
+ * Lance: o código compacto de GameCodec.encodeMove (origem, destino e promoção em 15 bits).
+ *
+ * O arquivo nunca é copiado para o heap: a consulta é uma busca binária direto no
+ * mapeamento, sem alocação, e abrir um livro de centenas de MB é instantâneo.
+ * Arquivos maiores que 1 GB são mapeados em segmentos.
+ */
+public final class OpeningBook implements AutoCloseable {
+
+    public static final int MAGIC = 0x5243424B; // "RCBK"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 12;
+
+    // Registros por segmento mapeado (cada segmento < 1 GB)
+    private static final long SEGMENT_RECORDS = (1L << 30) / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long count;
+
+    private OpeningBook(FileChannel channel, MappedByteBuffer[] segments, long count) {
+        this.channel = channel;
+        this.segments = segments;
+        this.count = count;
+    }
+
+    /** Abre (mapeia) o livro. Não lê os registros. */
+    public static OpeningBook open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && ch.read(header) >= 0) { /* lê cabeçalho */ }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Arquivo não é um livro de aberturas: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Versão de livro não suportada: " + version);
+            long count = header.getLong();
+            if (HEADER_SIZE + count * RECORD_SIZE > ch.size()) throw new IOException("Livro truncado: " + file);
+
+            int nSeg = (int) ((count + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS);
+            MappedByteBuffer[] segs = new MappedByteBuffer[nSeg];
+            for (int s = 0; s < nSeg; s++) {
+                long first = s * SEGMENT_RECORDS;
+                long n = Math.min(SEGMENT_RECORDS, count - first);
+                segs[s] = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, n * RECORD_SIZE);
+            }
+            return new OpeningBook(ch, segs, count);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** Número de registros no livro. */
+    public long size() { return count; }
+
+    /** Índice do primeiro registro com a chave, ou -1 (busca binária, sem alocação). */
+    public long firstIndex(long key) {
+        long lo = 0, hi = count - 1, found = -1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            long k = keyAt(mid);
+            if (k < key) {
+                lo = mid + 1;
+            } else {
+                if (k == key) found = mid;
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    public long keyAt(long index) { return buffer(index).getLong(offset(index)); }
+    public int moveAt(long index) { return buffer(index).getShort(offset(index) + 8) & 0xFFFF; }
+    public int weightAt(long index) { return buffer(index).getShort(offset(index) + 10) & 0xFFFF; }
+
+    /** True se a posição atual tem lances no livro. */
+    public boolean contains(Game game) {
+        return firstIndex(Zobrist.hash(game)) >= 0;
+    }
+
+    /**
+     * Escolhe um lance do livro para a posição, com probabilidade proporcional ao peso.
+     * Retorna null se a posição não estiver no livro ou se nenhum lance for legal
+     * (proteção contra colisões de chave).
+     */
+    public Move pick(Game game, Random random) {
+        long key = Zobrist.hash(game);
+        long first = firstIndex(key);
+        if (first < 0) return null;
+
+        long total = 0;
+        long end = first;
+        while (end < count && keyAt(end) == key) total += weightAt(end++);
+        if (total <= 0) return null;
+
+        long r = (long) (random.nextDouble() * total);
+        for (long i = first; i < end; i++) {
+            r -= weightAt(i);
+            if (r < 0) {
+                Move m = IAUtils.moveFromCode(game, moveAt(i));
+                if (m != null) return m;
+            }
+        }
+        // Lance sorteado era ilegal: tenta qualquer outro válido
+        for (long i = first; i < end; i++) {
+            Move m = IAUtils.moveFromCode(game, moveAt(i));
+            if (m != null) return m;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --------- Endereçamento ----------
+
+    private ByteBuffer buffer(long index) {
+        return segments[(int) (index / SEGMENT_RECORDS)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % SEGMENT_RECORDS) * RECORD_SIZE;
+    }
+}
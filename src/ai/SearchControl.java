@@ -0,0 +1,48 @@
+package ai;
+
+/**
+ * Controle de uma busca em andamento, compartilhado entre quem pede o lance
+ * (GUI, servidor...) e a thread que busca.
+ *
+ * - stop(): pedido de parada cooperativo; a busca verifica a cada POLL_INTERVAL nós
+ *   e devolve o melhor lance já encontrado
+ * - deadline: instante limite (System.currentTimeMillis()); Long.MAX_VALUE = sem prazo
+ * - listener: recebe o progresso ao fim de cada iteração (pode ser null)
+ *
+ * Uma instância serve a uma única busca; para a próxima crie outra.
+ */
+public final class SearchControl {
+
+    /** Nós visitados entre duas verificações de parada/prazo. */
+    public static final int POLL_INTERVAL = 256;
+
+    private volatile boolean stopped = false;
+    private volatile long deadline = Long.MAX_VALUE;
+    private final SearchListener listener;
+
+    public SearchControl() {
+        this(null);
+    }
+
+    public SearchControl(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /** Pede a parada da busca (pode ser chamado de qualquer thread). */
+    public void stop() { stopped = true; }
+    public boolean isStopped() { return stopped; }
+
+    public long getDeadline() { return deadline; }
+    public void setDeadline(long deadline) { this.deadline = deadline; }
+
+    public SearchListener getListener() { return listener; }
+
+    /** True se a busca deve terminar agora. */
+    public boolean shouldStop() {
+        return stopped || System.currentTimeMillis() >= deadline;
+    }
+
+    void report(SearchInfo info) {
+        if (listener != null) listener.onProgress(info);
+    }
+}
@@ -0,0 +1,526 @@
+package ai;
+
+import controller.Game;
+import controller.TableEntry;
+import controller.TranspositionTable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import model.board.Move;
+
+/**
+ * Motor de busca único da IA (substitui ChessAI, IANivel3 e a lógica inline da GUI).
+ *
+ * Negamax com poda alfa-beta, aprofundamento iterativo, tabela de transposição,
+ * busca de quiescência e ordenação MVV-LVA. A força é controlada por SearchLimits.
+ * Uma instância não deve ser usada por duas buscas ao mesmo tempo.
+ *
+ * A avaliação é IAUtils.evaluate ou, com setNnue, a rede Nnue, cujo acumulador é atualizado
+ * de pai para filho em cada lance (um por ply) em vez de recalculado.
+ *
+ * Cada busca conta nós, nós de quiescência, sondagens/acertos/cortes da tabela e podas no
+ * primeiro lance em SearchStats (campos da instância, sem custo de sincronização) e publica
+ * os totais em EngineMetrics ao terminar.
+ */
+public class SearchEngine implements IA {
+
+    public static final int MATE = 100_000;
+    private static final int INF = 1_000_000;
+    private static final int MATE_BOUND = MATE - 1_000;
+
+    private SearchLimits limits;
+    private final TranspositionTable tt;
+    private final Random random = new Random();
+    private OpeningBook book;
+    private Tablebase tablebase;
+    private Nnue nnue = Nnue.startup();
+    private Nnue.Accumulator[] accumulators = new Nnue.Accumulator[0];  // um por ply, com a rede
+    private int helperIndex;   // 0 = thread principal
+
+    // Estado da busca corrente
+    private SearchControl control;
+    private final SearchStats stats = new SearchStats();
+    private long startMillis;
+    private boolean aborted;
+    private int lastScore;
+    private int lastDepth;
+
+    public SearchEngine() {
+        this(SearchLimits.dificil());
+    }
+
+    public SearchEngine(SearchLimits limits) {
+        this(limits, new TranspositionTable());
+    }
+
+    /** Motor que usa uma tabela compartilhada (ex.: várias threads de busca). */
+    public SearchEngine(SearchLimits limits, TranspositionTable tt) {
+        this.limits = limits;
+        this.tt = tt;
+    }
+
+    public SearchLimits getLimits() { return limits; }
+    public void setLimits(SearchLimits limits) { this.limits = limits; }
+
+    /** Nós visitados na última busca. */
+    public long getNodes() { return stats.nodes; }
+    /** Contadores da última busca (reutilizado pela próxima; não guardar referência). */
+    public SearchStats getStats() { return stats; }
+    /** Nota da última busca (centipawns, ponto de vista de quem joga). */
+    public int getLastScore() { return lastScore; }
+    /** Última profundidade completada. */
+    public int getLastDepth() { return lastDepth; }
+
+    public TranspositionTable getTable() { return tt; }
+
+    /** Livro de aberturas consultado antes da busca (null desliga). */
+    public OpeningBook getBook() { return book; }
+    public void setBook(OpeningBook book) { this.book = book; }
+
+    /** Tablebases de finais consultadas na busca com poucas peças (null desliga). */
+    public Tablebase getTablebase() { return tablebase; }
+    public void setTablebase(Tablebase tablebase) { this.tablebase = tablebase; }
+
+    /** Rede da avaliação (null = IAUtils.evaluate). Padrão: a de -Dxadrez.nnue, se houver. */
+    public Nnue getNnue() { return nnue; }
+    public void setNnue(Nnue nnue) {
+        this.nnue = nnue;
+        accumulators = new Nnue.Accumulator[0];
+    }
+
+    /**
+     * Índice da thread auxiliar no Lazy SMP (0 = principal, padrão). Auxiliares ímpares começam
+     * o aprofundamento uma profundidade acima e cada auxiliar gira a ordem dos lances da raiz
+     * (exceto o primeiro) pelo seu índice, para explorarem subárvores diferentes da principal.
+     */
+    public void setHelperIndex(int index) { this.helperIndex = Math.max(0, index); }
+
+    /** Esvazia a tabela de transposição (ex.: ao iniciar novo jogo). */
+    public void clearHash() { tt.clear(); }
+
+    @Override
+    public Move makeMove(Game game) {
+        return makeMove(game, new SearchControl());
+    }
+
+    /**
+     * Busca o melhor lance respeitando os limites e o controle. O prazo do
+     * controle é reduzido ao tempo dos limites, se este for menor.
+     * Se a posição estiver no livro de aberturas, o lance do livro é usado sem busca.
+     */
+    @Override
+    public Move makeMove(Game game, SearchControl control) {
+        if (book != null) {
+            Move m = book.pick(game, random);
+            if (m != null) {
+                stats.reset();
+                lastDepth = 0;
+                lastScore = 0;
+                return m;
+            }
+        }
+        long budget = timeBudgetFromNow();
+        if (budget < control.getDeadline()) control.setDeadline(budget);
+        return search(game, control);
+    }
+
+    // --------- Ponder (busca no tempo do adversário) ----------
+
+    /**
+     * Busca a posição prevista (após o lance esperado do adversário) sem prazo.
+     * O controle deve ser criado pelo chamador; ponderHit() ou control.stop()
+     * encerram a espera.
+     */
+    public Move ponder(Game predicted, SearchControl control) {
+        return search(predicted, control);
+    }
+
+    /** O adversário jogou o lance previsto: a busca em curso passa a ter o prazo normal. */
+    public void ponderHit(SearchControl control) {
+        control.setDeadline(timeBudgetFromNow());
+    }
+
+    /** Resposta esperada do adversário na posição dada (lance guardado na tabela). */
+    public Move predictReply(Game game) {
+        return probeMove(game);
+    }
+
+    private long timeBudgetFromNow() {
+        return limits.timeMillis > 0 ? System.currentTimeMillis() + limits.timeMillis : Long.MAX_VALUE;
+    }
+
+    private Move search(Game game, SearchControl control) {
+        try {
+            return iterate(game, control);
+        } finally {
+            stats.finish();
+            EngineMetrics.global().publish(stats);
+        }
+    }
+
+    private Move iterate(Game game, SearchControl control) {
+        this.control = control;
+        stats.reset();
+        aborted = false;
+        lastScore = 0;
+        lastDepth = 0;
+        startMillis = System.currentTimeMillis();
+        tt.newSearch();
+
+        List<Move> rootMoves = IAUtils.legalMoves(game);
+        if (rootMoves.isEmpty()) return null;
+        if (rootMoves.size() == 1) return rootMoves.get(0);
+
+        // Ruído fixo por lance durante toda a busca, para as iterações serem coerentes
+        int[] noise = new int[rootMoves.size()];
+        if (limits.evalNoise > 0) {
+            for (int i = 0; i < noise.length; i++) {
+                noise[i] = random.nextInt(2 * limits.evalNoise + 1) - limits.evalNoise;
+            }
+        }
+        orderMoves(rootMoves, probeCode(game));
+        if (helperIndex > 0) Collections.rotate(rootMoves.subList(1, rootMoves.size()), helperIndex);
+
+        Move best = rootMoves.get(0);
+        long rootKey = game.positionKey();
+        if (nnue != null) accumulator(0).refresh(game);
+        int firstDepth = 1 + (helperIndex & 1);
+        for (int depth = firstDepth; depth <= limits.depth; depth++) {
+            SearchIterationEvent event = new SearchIterationEvent();
+            event.begin();
+            long iterStart = System.nanoTime(), iterNodes = stats.nodes;
+            int alpha = -INF;          // melhor nota com ruído
+            int iterScore = 0;         // nota sem ruído do melhor lance
+            Move iterBest = null;
+            int iterBestIdx = -1;
+            for (int i = 0; i < rootMoves.size(); i++) {
+                Move m = rootMoves.get(i);
+                Game child = child(game, m, 0);
+                // Janela deslocada pelo ruído do lance: só um valor exato pode superar alfa,
+                // nunca um limite superior somado ao ruído
+                int bound = alpha == -INF ? -INF : alpha - noise[i];
+                int raw = -negamax(child, depth - 1, -INF, -bound, 1);
+                if (aborted) break;
+                if (raw > bound) {
+                    alpha = raw + noise[i];
+                    iterScore = raw;
+                    iterBest = m;
+                    iterBestIdx = i;
+                }
+            }
+            // Iteração interrompida: o resultado parcial vale se ao menos o primeiro
+            // lance (o melhor anterior) foi completado, pois qualquer troca foi provada melhor
+            if (iterBest != null) {
+                best = iterBest;
+                lastScore = iterScore;
+                // Melhor lance primeiro na próxima iteração (ruído acompanha o lance)
+                rootMoves.remove(iterBestIdx);
+                rootMoves.add(0, iterBest);
+                int n = noise[iterBestIdx];
+                System.arraycopy(noise, 0, noise, 1, iterBestIdx);
+                noise[0] = n;
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.depth = depth;
+                event.score = lastScore;
+                event.nodes = stats.nodes - iterNodes;
+                event.totalNodes = stats.nodes;
+                event.aborted = aborted;
+                event.positionHash = rootKey;
+                event.commit();
+            }
+            if (aborted) break;
+            lastDepth = depth;
+            stats.completeDepth(depth, System.nanoTime() - iterStart, stats.nodes - iterNodes);
+            // Com ruído o lance escolhido pode não ser o melhor: a nota dele é só um limite inferior
+            TableEntry.NodeType rootType = limits.evalNoise > 0 ? TableEntry.NodeType.LOWERBOUND
+                    : TableEntry.NodeType.EXACT;
+            tt.store(rootKey, new TableEntry(lastScore, depth, rootType, best));
+            control.report(new SearchInfo(depth, lastScore, stats.nodes,
+                    System.currentTimeMillis() - startMillis, principalVariation(game, depth)));
+            if (Math.abs(lastScore) >= MATE_BOUND) break; // mate encontrado
+        }
+        return best;
+    }
+
+    // --------- Análise (multi-PV) ----------
+
+    /**
+     * Analisa a posição mantendo as "lines" melhores variantes (multi-PV), por aprofundamento
+     * iterativo até limits.depth ou control.stop(). Sem livro e sem ruído.
+     *
+     * Na raiz cada lance é buscado com alfa = nota da lines-ésima melhor variante até ali; os
+     * que não a superam saem com limite superior e ficam fora do topo. Ao fim de cada
+     * profundidade os lances são reordenados pela nota e o listener recebe uma SearchInfo por
+     * variante (multiPv 1..lines, da melhor para a pior). A tabela não é limpa: chamadas
+     * seguintes (ex.: posição seguinte da partida) reaproveitam o que já foi buscado.
+     *
+     * @return as variantes da última profundidade completada (vazia sem lances legais)
+     */
+    public List<SearchInfo> analyze(Game game, int lines, SearchControl control) {
+        try {
+            return analyzeIterate(game, lines, control);
+        } finally {
+            stats.finish();
+            EngineMetrics.global().publish(stats);
+        }
+    }
+
+    private List<SearchInfo> analyzeIterate(Game game, int lines, SearchControl control) {
+        this.control = control;
+        stats.reset();
+        aborted = false;
+        lastScore = 0;
+        lastDepth = 0;
+        startMillis = System.currentTimeMillis();
+        tt.newSearch();
+
+        List<SearchInfo> result = new ArrayList<>();
+        List<Move> rootMoves = IAUtils.legalMoves(game);
+        if (rootMoves.isEmpty()) return result;
+        lines = Math.max(1, Math.min(lines, rootMoves.size()));
+        orderMoves(rootMoves, probeCode(game));
+
+        int n = rootMoves.size();
+        int[] scores = new int[n];
+        int[] top = new int[lines];          // melhores notas da iteração, em ordem decrescente
+        Integer[] order = new Integer[n];
+        long rootKey = game.positionKey();
+        if (nnue != null) accumulator(0).refresh(game);
+        for (int depth = 1; depth <= limits.depth; depth++) {
+            long iterStart = System.nanoTime(), iterNodes = stats.nodes;
+            Arrays.fill(top, -INF);
+            for (int i = 0; i < n; i++) {
+                int bound = top[lines - 1];
+                int score = -negamax(child(game, rootMoves.get(i), 0), depth - 1, -INF, -bound, 1);
+                if (aborted) break;
+                scores[i] = score;
+                if (score > bound) {
+                    int k = lines - 1;
+                    while (k > 0 && top[k - 1] < score) {
+                        top[k] = top[k - 1];
+                        k--;
+                    }
+                    top[k] = score;
+                }
+            }
+            if (aborted) break;
+
+            // Melhores primeiro na próxima iteração (ordenação estável)
+            for (int i = 0; i < n; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Integer.compare(scores[b], scores[a]));
+            List<Move> sortedMoves = new ArrayList<>(n);
+            int[] sortedScores = new int[n];
+            for (int i = 0; i < n; i++) {
+                sortedMoves.add(rootMoves.get(order[i]));
+                sortedScores[i] = scores[order[i]];
+            }
+            rootMoves = sortedMoves;
+            System.arraycopy(sortedScores, 0, scores, 0, n);
+
+            lastDepth = depth;
+            lastScore = scores[0];
+            stats.completeDepth(depth, System.nanoTime() - iterStart, stats.nodes - iterNodes);
+            tt.store(rootKey, new TableEntry(scores[0], depth, TableEntry.NodeType.EXACT, rootMoves.get(0)));
+
+            long elapsed = System.currentTimeMillis() - startMillis;
+            result = new ArrayList<>(lines);
+            boolean allMates = true;
+            for (int k = 0; k < lines; k++) {
+                Move m = rootMoves.get(k);
+                List<Move> pv = new ArrayList<>();
+                pv.add(m);
+                pv.addAll(principalVariation(IAUtils.play(game, m), depth - 1));
+                SearchInfo info = new SearchInfo(depth, scores[k], stats.nodes, elapsed, pv, k + 1);
+                result.add(info);
+                control.report(info);
+                allMates &= Math.abs(scores[k]) >= MATE_BOUND;
+            }
+            if (allMates) break; // mais profundidade não muda as variantes
+        }
+        return result;
+    }
+
+    /** Segue os melhores lances da tabela a partir da raiz (até maxLen lances). */
+    private List<Move> principalVariation(Game game, int maxLen) {
+        List<Move> pv = new ArrayList<>();
+        Game g = game;
+        for (int i = 0; i < maxLen; i++) {
+            Move m = probeMove(g);
+            if (m == null) break;
+            pv.add(m);
+            g = IAUtils.play(g, m);
+        }
+        return pv;
+    }
+
+    private int negamax(Game game, int depth, int alpha, int beta, int ply) {
+        if (shouldStop()) return 0;
+        stats.nodes++;
+
+        // Final coberto pelas tablebases: resultado exato, sem buscar
+        if (tablebase != null) {
+            int v = tablebase.probe(game);
+            if (v != Tablebase.NONE) return tablebaseScore(v, ply);
+        }
+
+        if (depth <= 0) {
+            return limits.quiescence ? quiescence(game, alpha, beta, ply) : relativeEval(game, ply);
+        }
+
+        long key = game.positionKey();
+        TableEntry entry = tt.probe(key);
+        stats.ttProbes++;
+        int ttMove = TableEntry.NO_MOVE;
+        if (entry != null) {
+            stats.ttHits++;
+            ttMove = entry.move;
+            if (entry.depth >= depth) {
+                int s = fromTT((int) entry.score, ply);
+                boolean cutoff = entry.type == TableEntry.NodeType.EXACT
+                        || (entry.type == TableEntry.NodeType.LOWERBOUND && s >= beta)
+                        || (entry.type == TableEntry.NodeType.UPPERBOUND && s <= alpha);
+                if (cutoff) {
+                    stats.ttCutoffs++;
+                    return s;
+                }
+            }
+        }
+
+        List<Move> moves = IAUtils.legalMoves(game);
+        if (moves.isEmpty()) {
+            return game.inCheck(game.whiteToMove()) ? -MATE + ply : 0;
+        }
+        orderMoves(moves, ttMove);
+
+        int alphaOrig = alpha;
+        int best = -INF;
+        Move bestMove = null;
+        for (int i = 0; i < moves.size(); i++) {
+            Move m = moves.get(i);
+            int score = -negamax(child(game, m, ply), depth - 1, -beta, -alpha, ply + 1);
+            if (aborted) return 0;
+            if (score > best) {
+                best = score;
+                bestMove = m;
+            }
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) { // Poda
+                stats.betaCutoffs++;
+                if (i == 0) stats.firstMoveCutoffs++;
+                break;
+            }
+        }
+
+        TableEntry.NodeType type = best <= alphaOrig ? TableEntry.NodeType.UPPERBOUND
+                : best >= beta ? TableEntry.NodeType.LOWERBOUND
+                : TableEntry.NodeType.EXACT;
+        tt.store(key, new TableEntry(toTT(best, ply), depth, type, bestMove));
+        return best;
+    }
+
+    private int quiescence(Game game, int alpha, int beta, int ply) {
+        if (shouldStop()) return 0;
+        stats.nodes++;
+        stats.qnodes++;
+
+        int standPat = relativeEval(game, ply);
+        if (standPat >= beta) return standPat;
+        if (standPat > alpha) alpha = standPat;
+
+        List<Move> captures = new ArrayList<>();
+        for (Move m : IAUtils.legalMoves(game)) {
+            if (IAUtils.isTactical(m)) captures.add(m);
+        }
+        orderMoves(captures, TableEntry.NO_MOVE);
+
+        int best = standPat;
+        for (Move m : captures) {
+            int score = -quiescence(child(game, m, ply), -beta, -alpha, ply + 1);
+            if (aborted) return 0;
+            if (score > best) best = score;
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) break;
+        }
+        return best;
+    }
+
+    // --------- Helpers ----------
+
+    private boolean shouldStop() {
+        if (aborted) return true;
+        if (limits.nodes > 0 && stats.nodes >= limits.nodes) {
+            aborted = true;
+        } else if (stats.nodes % SearchControl.POLL_INTERVAL == 0 && control.shouldStop()) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private int relativeEval(Game game, int ply) {
+        if (nnue != null) return nnue.evaluate(accumulator(ply), game.whiteToMove());
+        int e = IAUtils.evaluate(game);
+        return game.whiteToMove() ? e : -e;
+    }
+
+    /** Filho do nó em "ply"; com a rede, o acumulador de ply + 1 sai do de ply pelo lance. */
+    private Game child(Game game, Move m, int ply) {
+        Game c = IAUtils.play(game, m);
+        if (nnue != null) accumulator(ply + 1).update(accumulator(ply), game, c, m.getFrom(), m.getTo());
+        return c;
+    }
+
+    private Nnue.Accumulator accumulator(int ply) {
+        if (ply >= accumulators.length) {
+            int old = accumulators.length;
+            accumulators = Arrays.copyOf(accumulators, Math.max(64, 2 * ply));
+            for (int i = old; i < accumulators.length; i++) accumulators[i] = nnue.newAccumulator();
+        }
+        return accumulators[ply];
+    }
+
+    private int probeCode(Game game) {
+        TableEntry e = tt.probe(game.positionKey());
+        return e != null ? e.move : TableEntry.NO_MOVE;
+    }
+
+    /** Lance da tabela reconstruído entre os lances legais da posição (null se não houver). */
+    private Move probeMove(Game game) {
+        int code = probeCode(game);
+        if (code == TableEntry.NO_MOVE) return null;
+        return IAUtils.moveFromCode(game, code);
+    }
+
+    /** Lance da tabela primeiro, depois capturas/promoções por MVV-LVA. */
+    private static void orderMoves(List<Move> moves, int ttMove) {
+        moves.sort((a, b) -> Integer.compare(orderScore(b, ttMove), orderScore(a, ttMove)));
+    }
+
+    private static int orderScore(Move m, int ttMove) {
+        if (ttMove != TableEntry.NO_MOVE && TableEntry.encode(m) == ttMove) return Integer.MAX_VALUE;
+        return IAUtils.mvvLva(m);
+    }
+
+    /** Converte o valor da tablebase em nota de mate relativa à raiz. */
+    private static int tablebaseScore(int v, int ply) {
+        if (Tablebase.isWin(v)) return MATE - ply - Tablebase.plies(v);
+        if (Tablebase.isLoss(v)) return -MATE + ply + Tablebase.plies(v);
+        return 0;
+    }
+
+    // Notas de mate são guardadas relativas ao nó, não à raiz
+    private static int toTT(int score, int ply) {
+        if (score >= MATE_BOUND) return score + ply;
+        if (score <= -MATE_BOUND) return score - ply;
+        return score;
+    }
+
+    private static int fromTT(int score, int ply) {
+        if (score >= MATE_BOUND) return score - ply;
+        if (score <= -MATE_BOUND) return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,63 @@
+package ai;
+
+import java.util.Collections;
+import java.util.List;
+import model.board.Move;
+
+/** Fotografia do progresso da busca ao fim de uma iteração. */
+public final class SearchInfo {
+
+    public final int depth;
+    public final int score;       // centipawns, ponto de vista de quem joga
+    public final long nodes;
+    public final long timeMillis;
+    public final List<Move> pv;   // variante principal, a partir da raiz
+    public final int multiPv;     // posição da variante na análise multi-PV (1 = melhor)
+
+    public SearchInfo(int depth, int score, long nodes, long timeMillis, List<Move> pv) {
+        this(depth, score, nodes, timeMillis, pv, 1);
+    }
+
+    public SearchInfo(int depth, int score, long nodes, long timeMillis, List<Move> pv, int multiPv) {
+        this.multiPv = multiPv;
+        this.depth = depth;
+        this.score = score;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.pv = Collections.unmodifiableList(pv);
+    }
+
+    /** Nós por segundo. */
+    public long nps() {
+        return timeMillis > 0 ? nodes * 1000 / timeMillis : nodes * 1000;
+    }
+
+    /** True se a nota indica mate (para qualquer lado). */
+    public boolean isMate() {
+        return Math.abs(score) >= SearchEngine.MATE - 1_000;
+    }
+
+    /** Lances até o mate (positivo = quem joga dá mate), 0 se não for mate. */
+    public int mateIn() {
+        if (!isMate()) return 0;
+        int plies = SearchEngine.MATE - Math.abs(score);
+        int moves = (plies + 1) / 2;
+        return score > 0 ? moves : -moves;
+    }
+
+    /** Variante principal em coordenadas (ex.: "e2e4 e7e5 g1f3"). */
+    public String pvString() {
+        StringBuilder sb = new StringBuilder();
+        for (Move m : pv) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(m.getFrom()).append(m.getTo());
+            if (m.getPromotion() != null) sb.append(Character.toLowerCase(m.getPromotion()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + (multiPv > 1 ? " multipv " + multiPv : "") + " score " + score + " nodes " + nodes + " nps " + nps() + " pv " + pvString();
+    }
+}
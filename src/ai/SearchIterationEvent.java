@@ -0,0 +1,35 @@
+package ai;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Evento JFR de uma iteração do aprofundamento iterativo do SearchEngine. */
+@Name("xadrez.SearchIteration")
+@Label("Iteração da busca")
+@Category({ "Xadrez", "Busca" })
+@Description("Uma profundidade do aprofundamento iterativo, da raiz até o fim ou a interrupção")
+@StackTrace(false)
+final class SearchIterationEvent extends jdk.jfr.Event {
+
+    @Label("Profundidade")
+    int depth;
+
+    @Label("Nota")
+    @Description("Centipawns, ponto de vista de quem joga")
+    int score;
+
+    @Label("Nós da iteração")
+    long nodes;
+
+    @Label("Nós acumulados")
+    long totalNodes;
+
+    @Label("Interrompida")
+    boolean aborted;
+
+    @Label("Hash da raiz")
+    long positionHash;
+}
@@ -0,0 +1,68 @@
+package ai;
+
+/**
+ * Limites de busca do motor. A dificuldade da IA é expressa apenas por estes
+ * valores — o algoritmo é o mesmo em todos os níveis.
+ *
+ * - depth: profundidade máxima do aprofundamento iterativo (em meios-lances)
+ * - nodes: máximo de nós visitados (0 = sem limite)
+ * - timeMillis: tempo máximo de busca em ms (0 = sem limite)
+ * - evalNoise: ruído aleatório (centipawns) somado à nota de cada lance da raiz
+ * - quiescence: estende as folhas com capturas para evitar o efeito horizonte
+ */
+public final class SearchLimits {
+
+    public final int depth;
+    public final long nodes;
+    public final long timeMillis;
+    public final int evalNoise;
+    public final boolean quiescence;
+
+    public SearchLimits(int depth, long nodes, long timeMillis, int evalNoise, boolean quiescence) {
+        this.depth = Math.max(1, depth);
+        this.nodes = Math.max(0, nodes);
+        this.timeMillis = Math.max(0, timeMillis);
+        this.evalNoise = Math.max(0, evalNoise);
+        this.quiescence = quiescence;
+    }
+
+    // --- Níveis da interface (0 = Fácil, 1 = Médio, 2 = Difícil) ---
+
+    /**
+     * Fácil: ruído muito maior que qualquer avaliação a 1 lance, ou seja, lance
+     * legal praticamente aleatório (mas abaixo das notas de mate).
+     */
+    public static SearchLimits facil() {
+        return new SearchLimits(1, 0, 0, 10_000, false);
+    }
+
+    /** Médio: busca rasa com ruído moderado (prioriza capturas e centro). */
+    public static SearchLimits medio() {
+        return new SearchLimits(2, 0, 0, 30, true);
+    }
+
+    /** Difícil: busca completa com quiescência, limitada por tempo. */
+    public static SearchLimits dificil() {
+        return new SearchLimits(4, 0, 8_000, 0, true);
+    }
+
+    public static SearchLimits forLevel(int level) {
+        return switch (level) {
+            case 0 -> facil();
+            case 1 -> medio();
+            default -> dificil();
+        };
+    }
+
+    // --- Cópias com um campo alterado ---
+    public SearchLimits withDepth(int d) { return new SearchLimits(d, nodes, timeMillis, evalNoise, quiescence); }
+    public SearchLimits withNodes(long n) { return new SearchLimits(depth, n, timeMillis, evalNoise, quiescence); }
+    public SearchLimits withTime(long ms) { return new SearchLimits(depth, nodes, ms, evalNoise, quiescence); }
+    public SearchLimits withNoise(int cp) { return new SearchLimits(depth, nodes, timeMillis, cp, quiescence); }
+
+    @Override
+    public String toString() {
+        return "depth=" + depth + " nodes=" + nodes + " time=" + timeMillis + "ms noise=" + evalNoise
+                + (quiescence ? " qs" : "");
+    }
+}
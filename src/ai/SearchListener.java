@@ -0,0 +1,10 @@
+package ai;
+
+/**
+ * Recebe o progresso de uma busca. Chamado na thread da busca:
+ * implementações de interface gráfica devem repassar ao EDT.
+ */
+@FunctionalInterface
+public interface SearchListener {
+    void onProgress(SearchInfo info);
+}
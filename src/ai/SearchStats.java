@@ -0,0 +1,113 @@
+package ai;
+
+import java.util.Locale;
+
+/**
+ * Contadores de uma busca. Pertencem a um único SearchEngine (uma thread), por isso são
+ * campos simples, sem sincronização: o custo por nó é um incremento. Ao fim da busca os
+ * totais são somados uma vez em EngineMetrics.
+ */
+public final class SearchStats {
+
+    public static final int MAX_DEPTH = 64;
+
+    long nodes;             // todos os nós (inclui quiescência)
+    long qnodes;            // nós de quiescência
+    long ttProbes;
+    long ttHits;
+    long ttCutoffs;         // retornos direto da tabela
+    long betaCutoffs;       // podas alfa-beta na busca principal
+    long firstMoveCutoffs;  // ... das quais no primeiro lance (qualidade da ordenação)
+    long startNanos;
+    long elapsedNanos;
+    int depth;              // última profundidade completada
+    final long[] depthNanos = new long[MAX_DEPTH + 1];  // tempo de cada iteração
+    final long[] depthNodes = new long[MAX_DEPTH + 1];  // nós de cada iteração
+
+    void reset() {
+        nodes = qnodes = ttProbes = ttHits = ttCutoffs = betaCutoffs = firstMoveCutoffs = 0;
+        depth = 0;
+        elapsedNanos = 0;
+        startNanos = System.nanoTime();
+    }
+
+    /** Fecha uma iteração do aprofundamento: guarda tempo e nós gastos nela. */
+    void completeDepth(int d, long iterationNanos, long iterationNodes) {
+        depth = d;
+        if (d <= MAX_DEPTH) {
+            depthNanos[d] = iterationNanos;
+            depthNodes[d] = iterationNodes;
+        }
+    }
+
+    void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    /** Cópia dos contadores (para guardar a última busca sem formatar o texto na hora). */
+    SearchStats copy() {
+        SearchStats c = new SearchStats();
+        c.nodes = nodes;
+        c.qnodes = qnodes;
+        c.ttProbes = ttProbes;
+        c.ttHits = ttHits;
+        c.ttCutoffs = ttCutoffs;
+        c.betaCutoffs = betaCutoffs;
+        c.firstMoveCutoffs = firstMoveCutoffs;
+        c.startNanos = startNanos;
+        c.elapsedNanos = elapsedNanos;
+        c.depth = depth;
+        int n = Math.min(depth, MAX_DEPTH) + 1;
+        System.arraycopy(depthNanos, 0, c.depthNanos, 0, n);
+        System.arraycopy(depthNodes, 0, c.depthNodes, 0, n);
+        return c;
+    }
+
+    public long nodes() { return nodes; }
+    public long quiescenceNodes() { return qnodes; }
+    public long ttProbes() { return ttProbes; }
+    public long ttHits() { return ttHits; }
+    public long ttCutoffs() { return ttCutoffs; }
+    public long betaCutoffs() { return betaCutoffs; }
+    public long firstMoveCutoffs() { return firstMoveCutoffs; }
+    public int depth() { return depth; }
+    public long elapsedMillis() { return elapsedNanos / 1_000_000; }
+
+    /** Tempo da iteração de profundidade d (ms), 0 se não completada. */
+    public double depthMillis(int d) {
+        return d >= 1 && d <= Math.min(depth, MAX_DEPTH) ? depthNanos[d] / 1e6 : 0;
+    }
+
+    /** Fração das podas que ocorreram no primeiro lance (0..1). */
+    public double firstMoveCutoffRate() {
+        return betaCutoffs > 0 ? (double) firstMoveCutoffs / betaCutoffs : 0;
+    }
+
+    public double ttHitRate() {
+        return ttProbes > 0 ? (double) ttHits / ttProbes : 0;
+    }
+
+    /** Fator de ramificação efetivo: nós da última iteração / nós da anterior (0 se < 2 iterações). */
+    public double effectiveBranchingFactor() {
+        int d = Math.min(depth, MAX_DEPTH);
+        if (d < 2 || depthNodes[d - 1] == 0) return 0;
+        return (double) depthNodes[d] / depthNodes[d - 1];
+    }
+
+    public long nps() {
+        return elapsedNanos > 0 ? (long) (nodes * 1e9 / elapsedNanos) : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append(String.format(Locale.ROOT,
+                "depth %d nodes %d (q %d) nps %d tt %d/%d hit %.1f%% cut %d first-move cut %.1f%% ebf %.2f time",
+                depth, nodes, qnodes, nps(), ttHits, ttProbes, 100 * ttHitRate(), ttCutoffs,
+                100 * firstMoveCutoffRate(), effectiveBranchingFactor()));
+        for (int d = 1; d <= Math.min(depth, MAX_DEPTH); d++) {
+            sb.append(d == 1 ? " " : "/").append(String.format(Locale.ROOT, "%.1f", depthMillis(d)));
+        }
+        return sb.append(" ms").toString();
+    }
+}
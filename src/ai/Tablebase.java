@@ -0,0 +1,308 @@
+package ai;
+
+import controller.Game;
+import controller.Zobrist;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import model.board.Board;
+import model.board.Position;
+import model.pieces.Pawn;
+import model.pieces.Piece;
+
+/**
+ * Tablebases de finais com até 4 peças (reis incluídos), geradas localmente por
+ * tools.TablebaseGenerator. Cada tabela é um arquivo ".rtb" mapeado em memória com um
+ * byte por posição: vitória/derrota do lado a jogar e a distância até o mate em meios-lances.
+ *
+ * Formato (big-endian): cabeçalho de 16 bytes com magic "RCTB", versão (int), as peças
+ * além dos reis (4 bytes, índice Zobrist ou 0xFF) e o número de posições (int); em seguida
+ * os valores, indexados por [lado a jogar][rei branco][rei preto][peças extras...]. O rei
+ * branco é levado por simetria ao triângulo a1-d1-d4 (sem peões) ou às colunas a-d (com peões).
+ *
+ * Cada tabela guarda a material com o lado "mais forte" de brancas; a posição com as cores
+ * trocadas é consultada espelhando o tabuleiro. Roque, en passant e a regra dos 50 lances
+ * não são considerados. A consulta não aloca memória e pode ser feita por várias threads.
+ */
+public final class Tablebase implements AutoCloseable {
+
+    public static final int MAGIC = 0x52435442; // "RCTB"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int MAX_PIECES = 4;
+    public static final String EXTENSION = ".rtb";
+
+    // Valores (ponto de vista de quem joga): 0 empate, 1..127 vitória em n meios-lances,
+    // 128 + n derrota em n meios-lances (128 = levou mate), 255 posição impossível
+    public static final int NONE = -1;
+    public static final int DRAW = 0;
+    public static final int INVALID = 255;
+    private static final int LOSS_BASE = 128;
+    public static final int MAX_PLIES = 126;
+
+    private static final int KEYS = 13;
+    private static final int[] TRIANGLE = new int[64]; // casa -> índice no triângulo, ou -1
+    private static final int[] TRIANGLE_SQUARES = new int[10];
+
+    static {
+        int n = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int rank = 7 - (sq >> 3), file = sq & 7;
+            if (file <= 3 && rank <= file) {
+                TRIANGLE_SQUARES[n] = sq;
+                TRIANGLE[sq] = n++;
+            } else {
+                TRIANGLE[sq] = -1;
+            }
+        }
+    }
+
+    private final Table[] tables = new Table[KEYS * KEYS];
+    private final boolean[] flipped = new boolean[KEYS * KEYS];
+    private final List<FileChannel> channels = new ArrayList<>();
+    private int count;
+
+    private Tablebase() { }
+
+    /** Mapeia todas as tabelas (*.rtb) do diretório. Nada é lido para o heap. */
+    public static Tablebase open(Path dir) throws IOException {
+        Tablebase tb = new Tablebase();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+            for (Path file : files) tb.load(file);
+        } catch (IOException | RuntimeException e) {
+            tb.close();
+            throw e;
+        }
+        return tb;
+    }
+
+    /** Número de tabelas carregadas. */
+    public int size() { return count; }
+
+    public static int win(int plies) { return plies; }
+    public static int loss(int plies) { return LOSS_BASE + plies; }
+    public static boolean isWin(int v) { return v > 0 && v < LOSS_BASE; }
+    public static boolean isLoss(int v) { return v >= LOSS_BASE && v < INVALID; }
+    /** Distância até o mate em meios-lances (0 para empate). */
+    public static int plies(int v) { return isLoss(v) ? v - LOSS_BASE : isWin(v) ? v : 0; }
+
+    /**
+     * Valor da posição do jogo para o lado a jogar, ou NONE se não houver tabela
+     * (mais de 4 peças, roque ainda possível, captura en passant disponível).
+     */
+    public int probe(Game game) {
+        if (game.castlingRights() != 0) return NONE;
+        Board b = game.board();
+        Position ep = game.enPassantTarget();
+        if (ep != null && canCaptureEnPassant(b, ep, game.whiteToMove())) return NONE;
+        long packed = 0;
+        int n = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = b.get(Position.of(sq >> 3, sq & 7));
+            if (p == null) continue;
+            if (n == MAX_PIECES) return NONE;
+            packed |= (long) ((Zobrist.pieceIndex(p) << 6) | sq) << (10 * n++);
+        }
+        return probe(packed, n, game.whiteToMove());
+    }
+
+    // Casa de en passant só importa se houver peão do lado a jogar ao lado do peão que avançou
+    private static boolean canCaptureEnPassant(Board b, Position ep, boolean whiteToMove) {
+        int row = ep.getRow() + (whiteToMove ? 1 : -1);
+        for (int col = ep.getColumn() - 1; col <= ep.getColumn() + 1; col += 2) {
+            if (col < 0 || col > 7) continue;
+            Piece p = b.get(Position.of(row, col));
+            if (p instanceof Pawn && p.isWhite() == whiteToMove) return true;
+        }
+        return false;
+    }
+
+    /** Consulta por listas de peças (índices Zobrist) e casas (row * 8 + column). */
+    public int probe(int[] codes, int[] squares, int n, boolean whiteToMove) {
+        if (n > MAX_PIECES) return NONE;
+        long packed = 0;
+        for (int i = 0; i < n; i++) packed |= (long) ((codes[i] << 6) | squares[i]) << (10 * i);
+        return probe(packed, n, whiteToMove);
+    }
+
+    private int probe(long packed, int n, boolean whiteToMove) {
+        int wk = -1, bk = -1, e0 = -1, e1 = -1; // e = (peça << 6) | casa
+        for (int i = 0; i < n; i++) {
+            int e = (int) (packed >>> (10 * i)) & 0x3FF;
+            int code = e >>> 6;
+            if (code == Zobrist.WHITE_KING) {
+                if (wk >= 0) return NONE;
+                wk = e & 63;
+            } else if (code == Zobrist.BLACK_KING) {
+                if (bk >= 0) return NONE;
+                bk = e & 63;
+            } else if (e0 < 0) {
+                e0 = e;
+            } else if (e1 < 0) {
+                e1 = e;
+            } else {
+                return NONE;
+            }
+        }
+        if (wk < 0 || bk < 0) return NONE;
+        if (e0 < 0) return DRAW; // só os reis
+
+        int key = materialKey(e0 >>> 6, e1 < 0 ? -1 : e1 >>> 6);
+        Table t = tables[key];
+        if (t == null) return NONE;
+        if (flipped[key]) {
+            int k = wk;
+            wk = bk ^ 56;
+            bk = k ^ 56;
+            e0 = flipEntry(e0);
+            if (e1 >= 0) e1 = flipEntry(e1);
+            whiteToMove = !whiteToMove;
+        }
+        // Peças extras na ordem da tabela
+        if (e1 >= 0 && (e0 >>> 6) != t.extras[0]) {
+            int e = e0;
+            e0 = e1;
+            e1 = e;
+        }
+        int v = t.read(wk, bk, e0 & 63, e1 < 0 ? -1 : e1 & 63, whiteToMove);
+        return v == INVALID ? NONE : v;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FileChannel ch : channels) ch.close();
+        channels.clear();
+    }
+
+    // --------- Layout (compartilhado com o gerador) ----------
+
+    /** Casas possíveis do rei branco no arquivo, na ordem do índice. */
+    public static int[] kingSquares(boolean pawns) {
+        if (!pawns) return TRIANGLE_SQUARES.clone();
+        int[] squares = new int[32];
+        for (int i = 0; i < 32; i++) squares[i] = (i >> 2) * 8 + (i & 3);
+        return squares;
+    }
+
+    /** Número de posições no arquivo de uma tabela com as peças extras dadas. */
+    public static int entries(int[] extras) {
+        return 2 * (hasPawns(extras) ? 32 : 10) * (1 << (6 * (extras.length + 1)));
+    }
+
+    public static boolean hasPawns(int[] extras) {
+        for (int e : extras) if (e == Zobrist.WHITE_PAWN || e == Zobrist.BLACK_PAWN) return true;
+        return false;
+    }
+
+    // --------- Carga ----------
+
+    private void load(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        channels.add(ch);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && ch.read(header) >= 0) { /* lê cabeçalho */ }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException("Arquivo não é uma tablebase: " + file);
+        }
+        int version = header.getInt();
+        if (version != VERSION) throw new IOException("Versão de tablebase não suportada: " + version);
+        int n = 0;
+        int[] raw = new int[4];
+        for (int i = 0; i < 4; i++) {
+            raw[i] = header.get() & 0xFF;
+            if (raw[i] != 0xFF) n++;
+        }
+        if (n < 1 || n > MAX_PIECES - 2) throw new IOException("Tablebase inválida: " + file);
+        int[] extras = new int[n];
+        System.arraycopy(raw, 0, extras, 0, n);
+        for (int e : extras) {
+            if (e > Zobrist.BLACK_KING || e == Zobrist.WHITE_KING) throw new IOException("Tablebase inválida: " + file);
+        }
+        int entries = header.getInt();
+        if (entries != entries(extras) || HEADER_SIZE + (long) entries > ch.size()) {
+            throw new IOException("Tablebase truncada: " + file);
+        }
+
+        Table t = new Table(extras, ch.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, entries));
+        int key = materialKey(extras[0], n > 1 ? extras[1] : -1);
+        tables[key] = t;
+        flipped[key] = false;
+        int swapped = materialKey(flipCode(extras[0]), n > 1 ? flipCode(extras[1]) : -1);
+        if (tables[swapped] == null) {
+            tables[swapped] = t;
+            flipped[swapped] = true;
+        }
+        count++;
+    }
+
+    private static int materialKey(int a, int b) {
+        a++;
+        b++;
+        return a < b ? a * KEYS + b : b * KEYS + a;
+    }
+
+    private static int flipCode(int code) {
+        return code < 6 ? code + 6 : code - 6;
+    }
+
+    private static int flipEntry(int e) {
+        return (flipCode(e >>> 6) << 6) | ((e & 63) ^ 56);
+    }
+
+    private static final class Table {
+        final int[] extras;
+        final boolean pawns;
+        final int kingSquares;
+        final MappedByteBuffer data;
+
+        Table(int[] extras, MappedByteBuffer data) {
+            this.extras = extras;
+            this.pawns = hasPawns(extras);
+            this.kingSquares = pawns ? 32 : 10;
+            this.data = data;
+        }
+
+        int read(int wk, int bk, int s2, int s3, boolean whiteToMove) {
+            // Simetrias: espelho lateral sempre; vertical e diagonal só sem peões
+            if ((wk & 7) > 3) {
+                wk ^= 7; bk ^= 7;
+                if (s2 >= 0) s2 ^= 7;
+                if (s3 >= 0) s3 ^= 7;
+            }
+            int region;
+            if (pawns) {
+                region = (wk >> 3) * 4 + (wk & 7);
+            } else {
+                if ((wk >> 3) < 4) {
+                    wk ^= 56; bk ^= 56;
+                    if (s2 >= 0) s2 ^= 56;
+                    if (s3 >= 0) s3 ^= 56;
+                }
+                if (7 - (wk >> 3) > (wk & 7)) {
+                    wk = diagonal(wk); bk = diagonal(bk);
+                    if (s2 >= 0) s2 = diagonal(s2);
+                    if (s3 >= 0) s3 = diagonal(s3);
+                }
+                region = TRIANGLE[wk];
+            }
+            int idx = (whiteToMove ? 0 : kingSquares) + region;
+            idx = idx * 64 + bk;
+            if (s2 >= 0) idx = idx * 64 + s2;
+            if (s3 >= 0) idx = idx * 64 + s3;
+            return data.get(idx) & 0xFF;
+        }
+
+        // Reflexão na diagonal a1-h8
+        private static int diagonal(int sq) {
+            return (7 - (sq & 7)) * 8 + (7 - (sq >> 3));
+        }
+    }
+}
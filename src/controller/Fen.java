@@ -0,0 +1,228 @@
+package controller;
+
+import model.board.Board;
+import model.board.Position;
+import model.pieces.*;
+
+/**
+ * Leitura e escrita de posições em FEN (Forsyth-Edwards Notation).
+ *
+ * Os direitos de roque são traduzidos para as flags "moved" das peças, que é como
+ * o Game decide se o roque é possível: rei/torre com direito ficam com moved=false,
+ * os demais com moved=true. Peões fora da linha inicial ficam com moved=true.
+ *
+ * O parser percorre os caracteres uma única vez (sem split/regex) e aceita qualquer
+ * CharSequence, para ler milhões de posições de um arquivo sem criar Strings
+ * intermediárias. Por posição são alocados as peças, o Board e o FEN normalizado guardado
+ * como posição inicial do jogo. Conteúdo depois dos seis campos é rejeitado.
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() { }
+
+    /** Cria um jogo a partir do FEN. */
+    public static Game load(CharSequence fen) {
+        Game g = new Game(true);
+        apply(g, fen);
+        return g;
+    }
+
+    /**
+     * Substitui a posição do jogo pela do FEN. Roque, en passant e contadores são
+     * opcionais (padrão: "-", "-", 0 e 1); nada além deles é aceito.
+     * @throws IllegalArgumentException se o FEN for inválido
+     */
+    public static void apply(Game game, CharSequence fen) {
+        if (fen == null) throw new IllegalArgumentException("FEN nulo");
+        final int n = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        // 1) Peças
+        Board board = new Board();
+        int row = 0, col = 0;
+        for (; i < n; i++) {
+            char ch = fen.charAt(i);
+            if (ch == ' ' || ch == '\t') break;
+            if (ch == '/') {
+                if (col != 8) throw invalid(fen);
+                row++;
+                col = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                col += ch - '0';
+                if (col > 8) throw invalid(fen);
+            } else {
+                if (row > 7 || col > 7) throw invalid(fen);
+                if (place(board, ch, row, col) == null) throw invalid(fen);
+                col++;
+            }
+        }
+        if (row != 7 || col != 8) throw invalid(fen);
+
+        // 2) Lado a jogar
+        i = skipSpaces(fen, i);
+        if (i >= n) throw invalid(fen);
+        char side = fen.charAt(i++);
+        if (side != 'w' && side != 'b') throw invalid(fen);
+
+        // 3) Roque
+        i = skipSpaces(fen, i);
+        for (; i < n && fen.charAt(i) != ' ' && fen.charAt(i) != '\t'; i++) {
+            switch (fen.charAt(i)) {
+                case 'K': unmoveIf(board, 7, 7); break;
+                case 'Q': unmoveIf(board, 7, 0); break;
+                case 'k': unmoveIf(board, 0, 7); break;
+                case 'q': unmoveIf(board, 0, 0); break;
+                case '-': break;
+                default: throw invalid(fen);
+            }
+        }
+
+        // 4) En passant
+        Position ep = null;
+        i = skipSpaces(fen, i);
+        if (i < n && fen.charAt(i) != '-') {
+            if (i + 1 >= n) throw invalid(fen);
+            int c = fen.charAt(i) - 'a';
+            int r = 8 - (fen.charAt(i + 1) - '0');
+            if (c < 0 || c > 7 || r < 0 || r > 7) throw invalid(fen);
+            ep = Position.of(r, c);
+            i += 2;
+        } else if (i < n) {
+            i++;
+        }
+
+        // 5) Contadores (cada um só com dígitos); depois deles, só espaços
+        int halfmove = 0, fullmove = 1;
+        i = skipSpaces(fen, i);
+        if (i < n) {
+            int start = i;
+            for (halfmove = 0; i < n && isDigit(fen.charAt(i)); i++) halfmove = halfmove * 10 + (fen.charAt(i) - '0');
+            if (i == start || (i < n && fen.charAt(i) != ' ' && fen.charAt(i) != '\t')) throw invalid(fen);
+            i = skipSpaces(fen, i);
+            if (i < n) {
+                start = i;
+                for (fullmove = 0; i < n && isDigit(fen.charAt(i)); i++) fullmove = fullmove * 10 + (fen.charAt(i) - '0');
+                if (i == start) throw invalid(fen);
+                i = skipSpaces(fen, i);
+            }
+        }
+        if (i < n) throw invalid(fen); // ex.: opcodes de EPD: use tools.Epd
+
+        // startFen normalizado a partir dos campos lidos (nunca o texto de entrada)
+        game.setPosition(board, side == 'w', ep, halfmove, fullmove);
+    }
+
+    /** Serializa a posição atual do jogo em FEN. */
+    public static String toFen(Game game) {
+        StringBuilder sb = new StringBuilder(90);
+        Board b = game.board();
+        for (int r = 0; r < 8; r++) {
+            int empty = 0;
+            for (int c = 0; c < 8; c++) {
+                Piece p = b.get(Position.of(r, c));
+                if (p == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char ch = p.getSymbol().charAt(0);
+                sb.append(p.isWhite() ? ch : Character.toLowerCase(ch));
+            }
+            if (empty > 0) sb.append((char) ('0' + empty));
+            if (r < 7) sb.append('/');
+        }
+
+        sb.append(' ').append(game.whiteToMove() ? 'w' : 'b').append(' ');
+
+        int rights = game.castlingRights();
+        if (rights == 0) sb.append('-');
+        if ((rights & Game.CASTLE_WK) != 0) sb.append('K');
+        if ((rights & Game.CASTLE_WQ) != 0) sb.append('Q');
+        if ((rights & Game.CASTLE_BK) != 0) sb.append('k');
+        if ((rights & Game.CASTLE_BQ) != 0) sb.append('q');
+
+        Position ep = game.enPassantTarget();
+        sb.append(' ').append(ep != null ? ep.toString() : "-");
+        sb.append(' ').append(game.halfmoveClock()).append(' ').append(game.fullmoveNumber());
+        return sb.toString();
+    }
+
+    /** Casa em notação algébrica ("e3") para Position. */
+    public static Position square(String s) {
+        if (s.length() != 2) throw new IllegalArgumentException("Casa inválida: " + s);
+        int c = s.charAt(0) - 'a';
+        int r = 8 - (s.charAt(1) - '0');
+        if (c < 0 || c > 7 || r < 0 || r > 7) throw new IllegalArgumentException("Casa inválida: " + s);
+        return Position.of(r, c);
+    }
+
+    // --------- Helpers ----------
+
+    /**
+     * Cria a peça do símbolo FEN na casa. Peão fora da linha inicial já "andou" (sem passo
+     * duplo); as demais peças também, até grantCastling devolver o direito de roque.
+     * Retorna null se o símbolo for inválido.
+     */
+    static Piece place(Board board, char symbol, int row, int col) {
+        Piece p = newPiece(board, symbol);
+        if (p == null) return null;
+        p.setMoved(!(p instanceof Pawn) || row != (p.isWhite() ? 6 : 1));
+        board.set(Position.of(row, col), p);
+        return p;
+    }
+
+    /** Aplica a máscara de direitos de roque (Game.CASTLE_*) às flags "moved". */
+    static void grantCastling(Board board, int rights) {
+        if ((rights & Game.CASTLE_WK) != 0) unmoveIf(board, 7, 7);
+        if ((rights & Game.CASTLE_WQ) != 0) unmoveIf(board, 7, 0);
+        if ((rights & Game.CASTLE_BK) != 0) unmoveIf(board, 0, 7);
+        if ((rights & Game.CASTLE_BQ) != 0) unmoveIf(board, 0, 0);
+    }
+
+    private static Piece newPiece(Board b, char ch) {
+        switch (ch) {
+            case 'P': return new Pawn(b, true);
+            case 'N': return new Knight(b, true);
+            case 'B': return new Bishop(b, true);
+            case 'R': return new Rook(b, true);
+            case 'Q': return new Queen(b, true);
+            case 'K': return new King(b, true);
+            case 'p': return new Pawn(b, false);
+            case 'n': return new Knight(b, false);
+            case 'b': return new Bishop(b, false);
+            case 'r': return new Rook(b, false);
+            case 'q': return new Queen(b, false);
+            case 'k': return new King(b, false);
+            default: return null;
+        }
+    }
+
+    /** Concede o direito de roque: rei em e1/e8 e a torre indicada ficam "não movidos". */
+    private static void unmoveIf(Board board, int row, int rookCol) {
+        Piece k = board.get(Position.of(row, 4));
+        Piece r = board.get(Position.of(row, rookCol));
+        boolean white = row == 7;
+        if (k instanceof King && k.isWhite() == white && r instanceof Rook && r.isWhite() == white) {
+            k.setMoved(false);
+            r.setMoved(false);
+        }
+    }
+
+    private static int skipSpaces(CharSequence s, int i) {
+        while (i < s.length() && (s.charAt(i) == ' ' || s.charAt(i) == '\t')) i++;
+        return i;
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static IllegalArgumentException invalid(CharSequence fen) {
+        return new IllegalArgumentException("FEN inválido: " + fen);
+    }
+}
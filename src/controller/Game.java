@@ -15,19 +15,40 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import model.board.Board;
+import model.board.Move;
 import model.board.Position;
 import model.pieces.*;
 
 public class Game {
 
+    // Bits de direito de roque (derivados das flags "moved" de rei e torres)
+    public static final int CASTLE_WK = 1;
+    public static final int CASTLE_WQ = 2;
+    public static final int CASTLE_BK = 4;
+    public static final int CASTLE_BQ = 8;
+
     private Board board;
     private boolean whiteToMove = true;
     private boolean gameOver = false;
+    // Após setPosition o fim de jogo só é calculado quando consultado (carga rápida de FEN)
+    private boolean gameOverKnown = true;
+
+    // Contadores do FEN: meios-lances desde a última captura/lance de peão e número do lance
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
 
     // Square where an en-passant capture may land (the empty square)
     private Position enPassantTarget = null;
 
     private final List<String> history = new ArrayList<>();
+    // Lances efetivamente jogados (para exportação PGN/SAN) e FEN inicial (null = posição padrão)
+    private final List<Move> moveLog = new ArrayList<>();
+    private String startFen = null;
+
+    // Cache da posição atual: chave Zobrist e lances legais do lado a jogar (ver positionChanged)
+    private long positionKey;
+    private boolean positionKeyKnown = false;
+    private LegalMoves legal;
 
     // Public ctor (starts a fresh game)
     public Game() {
@@ -35,29 +56,182 @@ public class Game {
         setupPieces();
     }
 
-    // Private ctor used for snapshots (no setup)
-    private Game(boolean empty) { /* intentionally empty */ }
+    // Ctor used for snapshots and FEN loading (no setup); package-private for Fen
+    Game(boolean empty) { /* intentionally empty */ }
 
     // --------- Public getters ----------
     public Board board() { return board; }
     public boolean whiteToMove() { return whiteToMove; }
-    public boolean isGameOver() { return gameOver; }
+    public boolean isGameOver() {
+        if (!gameOverKnown) {
+            gameOver = !hasAnyLegalMove();
+            gameOverKnown = true;
+        }
+        return gameOver;
+    }
+    public int halfmoveClock() { return halfmoveClock; }
+    public int fullmoveNumber() { return fullmoveNumber; }
     public List<String> history() { return Collections.unmodifiableList(history); }
+    public List<Move> moveLog() { return Collections.unmodifiableList(moveLog); }
+    /** FEN da posição inicial, ou null se o jogo começou da posição padrão. */
+    public String startFen() { return startFen; }
+    public Position enPassantTarget() { return enPassantTarget; }
+
+    /**
+     * Direitos de roque atuais como máscara de bits (CASTLE_*).
+     * Um direito existe enquanto o rei e a torre correspondente estão nas casas
+     * iniciais e nenhum dos dois se moveu.
+     */
+    public int castlingRights() {
+        int rights = 0;
+        if (castleRightFor(7, 7)) rights |= CASTLE_WK;
+        if (castleRightFor(7, 0)) rights |= CASTLE_WQ;
+        if (castleRightFor(0, 7)) rights |= CASTLE_BK;
+        if (castleRightFor(0, 0)) rights |= CASTLE_BQ;
+        return rights;
+    }
+
+    private boolean castleRightFor(int row, int rookCol) {
+        Piece k = board.get(new Position(row, 4));
+        Piece r = board.get(new Position(row, rookCol));
+        boolean white = row == 7;
+        return k instanceof King && k.isWhite() == white && !k.hasMoved()
+                && r instanceof Rook && r.isWhite() == white && !r.hasMoved();
+    }
 
     // --------- New game ----------
     public void newGame() {
+        positionChanged();
         this.board = new Board();
         this.whiteToMove = true;
         this.gameOver = false;
+        this.gameOverKnown = true;
         this.enPassantTarget = null;
+        this.halfmoveClock = 0;
+        this.fullmoveNumber = 1;
         this.history.clear();
+        this.moveLog.clear();
+        this.startFen = null;
         setupPieces();
     }
 
+    /**
+     * Carrega uma posição arbitrária (ex.: vinda de FEN). O Board já deve conter as
+     * peças com as flags "moved" coerentes com os direitos de roque. O histórico é zerado.
+     */
+    public void setPosition(Board board, boolean whiteToMove, Position enPassantTarget) {
+        setPosition(board, whiteToMove, enPassantTarget, 0, 1);
+    }
+
+    public void setPosition(Board board, boolean whiteToMove, Position enPassantTarget,
+                            int halfmoveClock, int fullmoveNumber) {
+        setPosition(board, whiteToMove, enPassantTarget, halfmoveClock, fullmoveNumber, null);
+        this.startFen = Fen.toFen(this);
+    }
+
+    // Usado por Fen, que já tem o texto da posição inicial
+    void setPosition(Board board, boolean whiteToMove, Position enPassantTarget,
+                     int halfmoveClock, int fullmoveNumber, String startFen) {
+        positionChanged();
+        this.startFen = startFen;
+        this.board = board;
+        this.whiteToMove = whiteToMove;
+        this.enPassantTarget = enPassantTarget;
+        this.halfmoveClock = Math.max(0, halfmoveClock);
+        this.fullmoveNumber = Math.max(1, fullmoveNumber);
+        this.history.clear();
+        this.moveLog.clear();
+        this.gameOver = false;
+        this.gameOverKnown = false;
+    }
+
     // --------- Query legal moves ----------
     // Full legality including specials and "king safety"
+
+    /**
+     * Destinos legais da peça em "from" (lista imutável; vazia se a casa não tiver peça do
+     * lado a jogar). Todos os lances da posição são calculados na primeira consulta e
+     * reaproveitados até o próximo lance.
+     */
     public List<Position> legalMovesFrom(Position from) {
-        return legalMovesFromWithSpecials(from);
+        return legal().lists.get(from.getRow() * 8 + from.getColumn());
+    }
+
+    /** Destinos legais da peça em "from" como bitmask (bit row*8+col), em O(1) após o cálculo. */
+    public long legalTargets(Position from) {
+        return legal().targets[from.getRow() * 8 + from.getColumn()];
+    }
+
+    /** True se from→to é lance legal do lado a jogar. */
+    public boolean isLegal(Position from, Position to) {
+        return (legalTargets(from) >>> (to.getRow() * 8 + to.getColumn()) & 1L) != 0;
+    }
+
+    /** Número de lances legais do lado a jogar (promoções contam uma vez por casa). */
+    public int legalMoveCount() {
+        return legal().count;
+    }
+
+    /**
+     * Chave Zobrist da posição (igual a Zobrist.hash), calculada uma vez por posição.
+     * Alterações feitas direto no Board de board() não são percebidas: use setPosition.
+     */
+    public long positionKey() {
+        if (!positionKeyKnown) {
+            positionKey = Zobrist.hash(this);
+            positionKeyKnown = true;
+        }
+        return positionKey;
+    }
+
+    /** Lances legais da posição atual, do cache se a chave conferir. */
+    private LegalMoves legal() {
+        long key = positionKey();
+        LegalMoves l = legal;
+        if (l == null || l.key != key) {
+            l = new LegalMoves(this, key);
+            legal = l;
+        }
+        return l;
+    }
+
+    /** Toda mudança de posição passa por aqui: descarta a chave e os lances em cache. */
+    private void positionChanged() {
+        positionKeyKnown = false;
+        legal = null;
+    }
+
+    /**
+     * Todos os lances legais do lado a jogar numa posição, calculados de uma vez: destinos
+     * por casa de origem em bitmask e em lista. Imutável depois de construído, por isso as
+     * cópias de snapshotShallow (mesma posição) o compartilham, inclusive entre threads:
+     * validar o lance numa cópia (IAUtils.play) não refaz a filtragem de legalidade.
+     */
+    private static final class LegalMoves {
+        final long key;
+        final long[] targets = new long[64];
+        final List<List<Position>> lists;
+        final int count;
+
+        LegalMoves(Game game, long key) {
+            this.key = key;
+            List<List<Position>> lists = new ArrayList<>(64);
+            int n = 0;
+            for (int i = 0; i < 64; i++) {
+                Position from = Position.of(i >>> 3, i & 7);
+                Piece p = game.board.get(from);
+                if (p == null || p.isWhite() != game.whiteToMove) {
+                    lists.add(List.of());
+                    continue;
+                }
+                List<Position> moves = List.copyOf(game.legalMovesFromWithSpecials(from));
+                for (Position to : moves) targets[i] |= 1L << (to.getRow() * 8 + to.getColumn());
+                lists.add(moves);
+                n += moves.size();
+            }
+            this.lists = List.copyOf(lists);
+            this.count = n;
+        }
     }
 
     public boolean isPromotion(Position from, Position to) {
@@ -68,21 +242,91 @@ public class Game {
 
     // --------- Make a move (only if legal) ----------
     public void move(Position from, Position to, Character promotion) {
-        if (gameOver) return;
+        GameMoveEvent event = new GameMoveEvent();
+        event.begin();
+        int before = moveLog.size();
+        applyMove(from, to, promotion);
+        event.end();
+        if (event.shouldCommit()) {
+            event.move = coord(from) + coord(to) + (promotion != null ? Character.toLowerCase(promotion) : "");
+            event.applied = moveLog.size() > before;
+            event.positionHash = Zobrist.hash(this);
+            event.commit();
+        }
+    }
+
+    private void applyMove(Position from, Position to, Character promotion) {
+        if (isGameOver()) return;
 
         Piece p = board.get(from);
         if (p == null || p.isWhite() != whiteToMove) return;
 
         // Enforce legality (includes castling & en passant & king-safety)
-        List<Position> legal = legalMovesFromWithSpecials(from);
-        if (!legal.contains(to)) return;
+        if (!isLegal(from, to)) return;
+
+        String moveStr = play(p, from, to, promotion);
+        if (moveStr == null) return; // rei capturado: já registrado
 
+        // annotate + or #
+        if (isCheckmate(whiteToMove)) {
+            moveStr += "#";
+            gameOver = true;
+        } else if (inCheck(whiteToMove)) {
+            moveStr += "+";
+        }
+        addHistory(moveStr);
+
+        if (!gameOver) checkGameEnd();
+    }
+
+    /**
+     * Reaplica um lance já validado (ex.: lido de GameCodec) sem gerar lances legais nem
+     * testar fim de jogo; "check" diz se a anotação leva "+". Ao final chame endReplay().
+     * @throws IllegalArgumentException se não houver peça do lado a jogar na origem
+     */
+    void replay(Position from, Position to, Character promotion, boolean check) {
+        Piece p = board.get(from);
+        if (p == null || p.isWhite() != whiteToMove || !board.isInside(to)) {
+            throw new IllegalArgumentException("Lance inválido na reaplicação: " + from + to);
+        }
+        String moveStr = play(p, from, to, promotion);
+        if (moveStr != null) addHistory(check ? moveStr + "+" : moveStr);
+    }
+
+    /**
+     * Fecha uma sequência de replay(). "over" é o fim de jogo gravado junto com os lances:
+     * partidas em andamento não pagam nenhuma geração de lances; as encerradas recebem a
+     * mesma anotação final de move() ("#" ou "Draw: stalemate").
+     */
+    void endReplay(boolean over) {
+        gameOverKnown = true;
+        gameOver = over;
+        if (!over) return;
+        int last = history.size() - 1;
+        if (inCheck(whiteToMove)) {
+            if (last >= 0 && history.get(last).endsWith("+")) {
+                String h = history.get(last);
+                history.set(last, h.substring(0, h.length() - 1) + "#");
+            }
+        } else {
+            addHistory("Draw: stalemate");
+        }
+    }
+
+    /**
+     * Executa o lance no tabuleiro (roque, en passant, promoção), atualiza contadores e
+     * troca o lado a jogar. Devolve a notação sem "+"/"#", ou null se um rei foi capturado.
+     */
+    private String play(Piece p, Position from, Position to, Character promotion) {
+        positionChanged();
         boolean isKing = p instanceof King;
         boolean isPawn = p instanceof Pawn;
         int dCol = Math.abs(to.getColumn() - from.getColumn());
 
         Piece capturedBefore = board.get(to); // for SAN-ish history
         boolean targetIsKing = (capturedBefore instanceof King);
+        boolean resetsClock = isPawn || capturedBefore != null;
+        moveLog.add(logEntry(p, from, to, capturedBefore, promotion));
 
         // ------- Castling (already validated in legal moves) -------
         if (isKing && dCol == 2) {
@@ -110,20 +354,10 @@ public class Game {
             }
 
             enPassantTarget = null;
+            advanceCounters(false);
             // Switch side
             whiteToMove = !whiteToMove;
-
-            // annotate + or #
-            if (isCheckmate(whiteToMove)) {
-                san += "#";
-                gameOver = true;
-            } else if (inCheck(whiteToMove)) {
-                san += "+";
-            }
-            addHistory(san);
-
-            if (!gameOver) checkGameEnd();
-            return;
+            return san;
         }
 
         // ------- En Passant (already validated in legal moves) -------
@@ -144,21 +378,11 @@ public class Game {
             p.setMoved(true);
             moveStr = coord(from) + "x" + coord(to) + " e.p.";
             enPassantTarget = null;
+            advanceCounters(true);
 
             // Switch side
             whiteToMove = !whiteToMove;
-
-            // annotate + or #
-            if (isCheckmate(whiteToMove)) {
-                moveStr += "#";
-                gameOver = true;
-            } else if (inCheck(whiteToMove)) {
-                moveStr += "+";
-            }
-            addHistory(moveStr);
-
-            if (!gameOver) checkGameEnd();
-            return;
+            return moveStr;
         }
 
         // ------- Promotion (auto-queen if promotion is null) -------
@@ -179,7 +403,7 @@ public class Game {
                 String san = coord(from) + "x" + coord(to) + "=" + np.getSymbol() + "#";
                 addHistory(san);
                 gameOver = true;
-                return;
+                return null;
             }
 
             moveStr = coord(from) + (capturedBefore != null ? "x" : "-") + coord(to) + "=" + np.getSymbol();
@@ -194,7 +418,7 @@ public class Game {
                 String san = coord(from) + "x" + coord(to) + "#";
                 addHistory(san);
                 gameOver = true;
-                return;
+                return null;
             }
 
             moveStr = coord(from) + (capturedBefore != null ? "x" : "-") + coord(to);
@@ -207,20 +431,34 @@ public class Game {
         } else {
             enPassantTarget = null;
         }
+        advanceCounters(resetsClock);
 
         // Switch side
         whiteToMove = !whiteToMove;
+        return moveStr;
+    }
 
-        // annotate + or #
-        if (isCheckmate(whiteToMove)) {
-            moveStr += "#";
-            gameOver = true;
-        } else if (inCheck(whiteToMove)) {
-            moveStr += "+";
+    private Move logEntry(Piece p, Position from, Position to, Piece captured, Character promotion) {
+        int dCol = Math.abs(to.getColumn() - from.getColumn());
+        if (p instanceof King && dCol == 2) return Move.castle(from, to, p, to.getColumn() == 6);
+        if (p instanceof Pawn) {
+            if (captured == null && dCol == 1) {
+                Piece victim = board.get(Position.of(from.getRow(), to.getColumn()));
+                return Move.enPassant(from, to, p, victim);
+            }
+            if (isPromotion(from, to)) {
+                char ch = promotion == null ? 'Q' : Character.toUpperCase(promotion);
+                if ("QRBN".indexOf(ch) < 0) ch = 'Q';
+                return Move.promotion(from, to, p, captured, ch);
+            }
         }
+        return Move.normal(from, to, p, captured);
+    }
 
-        addHistory(moveStr);
-        if (!gameOver) checkGameEnd();
+    // Chamado antes de trocar o lado a jogar
+    private void advanceCounters(boolean resetClock) {
+        halfmoveClock = resetClock ? 0 : halfmoveClock + 1;
+        if (!whiteToMove) fullmoveNumber++;
     }
 
     // --------- Checks / mates ----------
@@ -234,21 +472,29 @@ public class Game {
     public boolean isCheckmate(boolean whiteSide) {
         if (!inCheck(whiteSide)) return false;
 
-        // If the side has any legal move that avoids check, it's not mate
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Position from = new Position(row, col);
+        // Lances legais já evitam o xeque: sem nenhum, é mate. Só o lado a jogar tem
+        // lances legais, então o outro lado em xeque conta como mate (estado inválido).
+        return whiteSide != whiteToMove || legalMoveCount() == 0;
+    }
+
+    /**
+     * Sem o cache, para no primeiro lance encontrado: depois de cada lance isto roda para
+     * detectar afogamento, e muitas posições (cortes da tabela na busca) nunca chegam a
+     * precisar da lista completa.
+     */
+    private boolean hasAnyLegalMove() {
+        if (legal != null && legal.key == positionKey()) return legal.count > 0;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Position from = Position.of(r, c);
                 Piece piece = board.get(from);
-                if (piece != null && piece.isWhite() == whiteSide) {
-                    for (Position to : legalMovesFromWithSpecials(from)) {
-                        Game g = snapshotShallow();
-                        g.forceMoveNoChecks(from, to);
-                        if (!g.inCheck(whiteSide)) return false;
-                    }
+                if (piece != null && piece.isWhite() == whiteToMove
+                        && !legalMovesFromWithSpecials(from).isEmpty()) {
+                    return true;
                 }
             }
         }
-        return true;
+        return false;
     }
 
     private void checkGameEnd() {
@@ -261,19 +507,7 @@ public class Game {
 
         // Stalemate: no legal moves and not in check
         if (!inCheck(whiteToMove)) {
-            boolean hasAny = false;
-            for (int r = 0; r < 8 && !hasAny; r++) {
-                for (int c = 0; c < 8 && !hasAny; c++) {
-                    Position from = new Position(r, c);
-                    Piece piece = board.get(from);
-                    if (piece != null && piece.isWhite() == whiteToMove) {
-                        if (!legalMovesFromWithSpecials(from).isEmpty()) {
-                            hasAny = true;
-                        }
-                    }
-                }
-            }
-            if (!hasAny) {
+            if (!hasAnyLegalMove()) {
                 gameOver = true;
                 addHistory("Draw: stalemate");
             }
@@ -282,6 +516,20 @@ public class Game {
 
     // --------- Helpers: legality & attack maps ----------
     private List<Position> legalMovesFromWithSpecials(Position from) {
+        LegalMovesEvent event = new LegalMovesEvent();
+        event.begin();
+        List<Position> moves = filterLegal(from);
+        event.end();
+        if (event.shouldCommit()) {
+            event.square = coord(from);
+            event.moveCount = moves.size();
+            event.positionHash = Zobrist.hash(this);
+            event.commit();
+        }
+        return moves;
+    }
+
+    private List<Position> filterLegal(Position from) {
         Piece p = board.get(from);
         if (p == null || p.isWhite() != whiteToMove) return List.of();
 
@@ -355,8 +603,8 @@ public class Game {
         int r = sq.getRow(), c = sq.getColumn();
 
         // 1) Ataques de peão (peão inimigo estaria uma linha "atrás" da sq na direção dele)
-        int dir = sideToProtect ? -1 : 1; // protegendo brancas => peões pretos atacam +1 (descendo)
-        int rp = r - dir;
+        int dir = sideToProtect ? -1 : 1; // protegendo brancas => peões pretos (que descem) vêm da linha de cima
+        int rp = r + dir;
         if (rp >= 0 && rp < 8) {
             if (c - 1 >= 0) {
                 Piece p = board.get(new Position(rp, c - 1));
@@ -424,6 +672,7 @@ public class Game {
     private void forceMoveNoChecks(Position from, Position to) {
         Piece p = board.get(from);
         if (p == null) return;
+        positionChanged();
 
         int dCol = Math.abs(to.getColumn() - from.getColumn());
         boolean isPawn = p instanceof Pawn;
@@ -488,16 +737,28 @@ public class Game {
     /**
      * Cria uma cópia rasa do estado atual do jogo.
      * Permite simular movimentos sem alterar o estado original.
+     *
+     * A cópia não leva history() nem moveLog() (começam vazios): ela é feita a cada sondagem de
+     * legalidade e a cada nó da busca, e copiar o registro custaria proporcional ao tamanho da
+     * partida, além de manter vivos os Moves (e, pelas peças, tabuleiros antigos). O registro
+     * fica só no Game real.
      */
     public Game snapshotShallow() {
         Game g = new Game(true);
         g.board = this.board.copy(); // IMPORTANT: Board.copy() must deep-copy pieces and fix their board refs.
         g.whiteToMove = this.whiteToMove;
         g.gameOver = this.gameOver;
+        g.gameOverKnown = this.gameOverKnown;
+        g.halfmoveClock = this.halfmoveClock;
+        g.fullmoveNumber = this.fullmoveNumber;
         g.enPassantTarget = (this.enPassantTarget == null)
                 ? null
                 : new Position(this.enPassantTarget.getRow(), this.enPassantTarget.getColumn());
-        g.history.addAll(this.history);
+        g.startFen = this.startFen;
+        // Mesma posição: chave e lances legais (imutáveis) valem para a cópia
+        g.positionKey = this.positionKey;
+        g.positionKeyKnown = this.positionKeyKnown;
+        g.legal = this.legal;
         return g;
     }
 
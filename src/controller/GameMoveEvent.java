@@ -0,0 +1,32 @@
+package controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de Game.move: duração de um lance (validação, execução e teste de fim de jogo).
+ * A busca também joga lances em cópias do jogo, então é desligado por padrão (jfr/xadrez.jfc).
+ */
+@Name("xadrez.GameMove")
+@Label("Game.move")
+@Category({ "Xadrez", "Regras" })
+@Description("Aplicação de um lance em Game.move")
+@Enabled(false)
+@StackTrace(false)
+final class GameMoveEvent extends jdk.jfr.Event {
+
+    @Label("Lance")
+    String move;
+
+    @Label("Aplicado")
+    @Description("false se o lance foi recusado (ilegal ou jogo encerrado)")
+    boolean applied;
+
+    @Label("Hash da posição")
+    @Description("Chave Zobrist da posição resultante")
+    long positionHash;
+}
@@ -0,0 +1,249 @@
+package controller;
+
+import model.board.Board;
+import model.board.Move;
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Fotografia imutável de uma posição, para ser lida por várias threads sem locks.
+ *
+ * Board e Piece são mutáveis (cada peça guarda o seu Board e a sua casa), então um Game só pode
+ * ser lido pela thread dona dele. GameState guarda as 64 casas empacotadas em 4 longs (um
+ * nibble por casa: 0 = vazia, 1..12 = índice Zobrist + 1), mais lado a jogar, roque, en passant,
+ * contadores e a chave Zobrist. Capturar custa uma varredura do tabuleiro; o sucessor (play)
+ * copia só esses campos e atualiza a chave incrementalmente, sem alocar peças. Em 32 bytes de
+ * tabuleiro a cópia é mais barata do que compartilhar estrutura por ponteiros.
+ *
+ * Uso típico: a thread dona do Game (ex.: EDT) chama GameState.of(game) e entrega o resultado à
+ * busca, que materializa o seu próprio Game com toGame().
+ */
+public final class GameState {
+
+    private static final String PIECES = "PNBRQKpnbrqk";
+    private static final int PAWN = Zobrist.WHITE_PAWN, KING = Zobrist.WHITE_KING;
+
+    private final long b0, b1, b2, b3;
+    private final boolean whiteToMove;
+    private final int castling;    // Game.CASTLE_*
+    private final int epFile;      // coluna do en passant, -1 se não houver
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+    private final long hash;
+
+    private GameState(long[] w, boolean whiteToMove, int castling, int epFile,
+                      int halfmoveClock, int fullmoveNumber, long hash) {
+        this.b0 = w[0];
+        this.b1 = w[1];
+        this.b2 = w[2];
+        this.b3 = w[3];
+        this.whiteToMove = whiteToMove;
+        this.castling = castling;
+        this.epFile = epFile;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        this.hash = hash;
+    }
+
+    /** Captura a posição atual do jogo. Chame na thread que é dona do Game. */
+    public static GameState of(Game game) {
+        long[] w = new long[4];
+        Board b = game.board();
+        for (int i = 0; i < 64; i++) {
+            Piece p = b.get(Position.of(i >>> 3, i & 7));
+            if (p != null) set(w, i, Zobrist.pieceIndex(p));
+        }
+        Position ep = game.enPassantTarget();
+        return new GameState(w, game.whiteToMove(), game.castlingRights(), ep == null ? -1 : ep.getColumn(),
+                game.halfmoveClock(), game.fullmoveNumber(), Zobrist.hash(game));
+    }
+
+    // --------- Consulta ----------
+
+    /** Índice Zobrist da peça na casa (Zobrist.WHITE_PAWN..BLACK_KING) ou -1 se vazia. */
+    public int pieceAt(int row, int col) {
+        int sq = row * 8 + col;
+        long w = sq < 32 ? (sq < 16 ? b0 : b1) : (sq < 48 ? b2 : b3);
+        return (int) (w >>> ((sq & 15) << 2) & 15) - 1;
+    }
+
+    /** Símbolo FEN da peça na casa ('P', 'n'...) ou ' ' se vazia. */
+    public char symbolAt(int row, int col) {
+        int code = pieceAt(row, col);
+        return code < 0 ? ' ' : PIECES.charAt(code);
+    }
+
+    public boolean whiteToMove() { return whiteToMove; }
+    public int castlingRights() { return castling; }
+    public int halfmoveClock() { return halfmoveClock; }
+    public int fullmoveNumber() { return fullmoveNumber; }
+    /** Mesma chave que Zobrist.hash do Game correspondente. */
+    public long hash() { return hash; }
+
+    public Position enPassantTarget() {
+        return epFile < 0 ? null : Position.of(whiteToMove ? 2 : 5, epFile);
+    }
+
+    // --------- Sucessor ----------
+
+    public GameState play(Move move) {
+        return play(move.getFrom(), move.getTo(), move.getPromotion());
+    }
+
+    /**
+     * Posição após o lance (roque, en passant e promoção; promoção nula = dama). O lance não
+     * é validado além de existir peça do lado a jogar na origem: use lances legais.
+     * @throws IllegalArgumentException se a origem não tiver peça do lado a jogar
+     */
+    public GameState play(Position from, Position to, Character promotion) {
+        long[] w = words();
+        int f = from.getRow() * 8 + from.getColumn();
+        int t = to.getRow() * 8 + to.getColumn();
+        int piece = get(w, f);
+        if (piece < 0 || (piece < 6) != whiteToMove) {
+            throw new IllegalArgumentException("Sem peça do lado a jogar em " + from);
+        }
+        boolean white = piece < 6;
+        int type = piece % 6;
+        int base = white ? 0 : 6;
+
+        long h = hash ^ Zobrist.BLACK_TO_MOVE_KEY ^ Zobrist.CASTLING_KEYS[castling];
+        if (epFile >= 0) h ^= Zobrist.EN_PASSANT_KEYS[epFile];
+
+        int captured = get(w, t);
+        if (captured >= 0) h ^= Zobrist.PIECE_KEYS[captured][t];
+        set(w, f, -1);
+        h ^= Zobrist.PIECE_KEYS[piece][f];
+
+        // En passant: peão na diagonal para casa vazia; a vítima está ao lado da origem
+        if (type == PAWN && captured < 0 && from.getColumn() != to.getColumn()) {
+            int victimSq = from.getRow() * 8 + to.getColumn();
+            captured = get(w, victimSq);
+            if (captured >= 0) {
+                set(w, victimSq, -1);
+                h ^= Zobrist.PIECE_KEYS[captured][victimSq];
+            }
+        }
+
+        int placed = piece;
+        if (type == PAWN && to.getRow() == (white ? 0 : 7)) {
+            int promo = "NBRQ".indexOf(promotion == null ? 'Q' : Character.toUpperCase(promotion));
+            placed = base + (promo < 0 ? Zobrist.WHITE_QUEEN : Zobrist.WHITE_KNIGHT + promo);
+        }
+        set(w, t, placed);
+        h ^= Zobrist.PIECE_KEYS[placed][t];
+
+        // Roque: a torre também anda
+        if (type == KING && Math.abs(to.getColumn() - from.getColumn()) == 2) {
+            int row = from.getRow() * 8;
+            int rookFrom = row + (to.getColumn() == 6 ? 7 : 0);
+            int rookTo = row + (to.getColumn() == 6 ? 5 : 3);
+            int rook = get(w, rookFrom);
+            if (rook >= 0) {
+                set(w, rookFrom, -1);
+                set(w, rookTo, rook);
+                h ^= Zobrist.PIECE_KEYS[rook][rookFrom] ^ Zobrist.PIECE_KEYS[rook][rookTo];
+            }
+        }
+
+        int rights = castling & ~cornerRight(f) & ~cornerRight(t);
+        if (type == KING) rights &= white ? ~(Game.CASTLE_WK | Game.CASTLE_WQ) : ~(Game.CASTLE_BK | Game.CASTLE_BQ);
+        int ep = type == PAWN && Math.abs(t - f) == 16 ? to.getColumn() : -1;
+        h ^= Zobrist.CASTLING_KEYS[rights];
+        if (ep >= 0) h ^= Zobrist.EN_PASSANT_KEYS[ep];
+
+        int half = type == PAWN || captured >= 0 ? 0 : halfmoveClock + 1;
+        int full = white ? fullmoveNumber : fullmoveNumber + 1;
+        return new GameState(w, !whiteToMove, rights, ep, half, full, h);
+    }
+
+    // --------- Conversões ----------
+
+    /** Novo Game mutável nesta posição (sem histórico), de uso exclusivo de quem o criou. */
+    public Game toGame() {
+        Board board = new Board();
+        long[] w = words();
+        for (int i = 0; i < 64; i++) {
+            int code = get(w, i);
+            if (code >= 0) Fen.place(board, PIECES.charAt(code), i >>> 3, i & 7);
+        }
+        Fen.grantCastling(board, castling);
+        Game g = new Game(true);
+        g.setPosition(board, whiteToMove, enPassantTarget(), halfmoveClock, fullmoveNumber, toFen());
+        return g;
+    }
+
+    public String toFen() {
+        StringBuilder sb = new StringBuilder(90);
+        for (int r = 0; r < 8; r++) {
+            int empty = 0;
+            for (int c = 0; c < 8; c++) {
+                char ch = symbolAt(r, c);
+                if (ch == ' ') {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) sb.append((char) ('0' + empty));
+                empty = 0;
+                sb.append(ch);
+            }
+            if (empty > 0) sb.append((char) ('0' + empty));
+            if (r < 7) sb.append('/');
+        }
+        sb.append(whiteToMove ? " w " : " b ");
+        if (castling == 0) sb.append('-');
+        if ((castling & Game.CASTLE_WK) != 0) sb.append('K');
+        if ((castling & Game.CASTLE_WQ) != 0) sb.append('Q');
+        if ((castling & Game.CASTLE_BK) != 0) sb.append('k');
+        if ((castling & Game.CASTLE_BQ) != 0) sb.append('q');
+        Position ep = enPassantTarget();
+        sb.append(' ').append(ep != null ? ep.toString() : "-");
+        return sb.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameState)) return false;
+        GameState s = (GameState) o;
+        return b0 == s.b0 && b1 == s.b1 && b2 == s.b2 && b3 == s.b3 && whiteToMove == s.whiteToMove
+                && castling == s.castling && epFile == s.epFile && halfmoveClock == s.halfmoveClock
+                && fullmoveNumber == s.fullmoveNumber;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return toFen();
+    }
+
+    // --------- Nibbles ----------
+
+    private long[] words() {
+        return new long[] { b0, b1, b2, b3 };
+    }
+
+    private static int get(long[] w, int sq) {
+        return (int) (w[sq >>> 4] >>> ((sq & 15) << 2) & 15) - 1;
+    }
+
+    private static void set(long[] w, int sq, int code) {
+        int shift = (sq & 15) << 2;
+        w[sq >>> 4] = w[sq >>> 4] & ~(15L << shift) | (long) (code + 1) << shift;
+    }
+
+    /** Direito de roque perdido quando algo sai de/chega a um canto. */
+    private static int cornerRight(int sq) {
+        switch (sq) {
+            case 63: return Game.CASTLE_WK; // h1
+            case 56: return Game.CASTLE_WQ; // a1
+            case 7: return Game.CASTLE_BK;  // h8
+            case 0: return Game.CASTLE_BQ;  // a8
+            default: return 0;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Armazém append-only de registros binários por chave (ex.: GameCodec de cada sessão do servidor).
+ *
+ * put/remove só acrescentam o registro a um buffer em memória; uma thread grava o buffer
+ * inteiro de uma vez a cada "flushMillis" (um write + um fsync por lote, não por partida).
+ * Na leitura vale o último registro de cada chave. Um registro truncado ou com CRC errado
+ * (queda no meio de um lote) encerra a leitura: perde-se no máximo o último lote.
+ *
+ * Arquivo: "RCGS", versão (int) e registros [tamanho int][crc32 int][corpo], com
+ * corpo = [op byte: 1 grava, 0 remove][tamanho da chave short][chave UTF-8][dados].
+ * Tudo big-endian.
+ */
+public final class GameStore implements AutoCloseable {
+
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = { 'R', 'C', 'G', 'S' };
+    private static final int HEADER = 8;
+    private static final int MAX_RECORD = 1 << 24;
+    private static final int OP_REMOVE = 0, OP_PUT = 1;
+
+    private final Path file;
+    private final ScheduledExecutorService flusher;
+    private final Object ioLock = new Object();
+    private FileChannel channel;
+
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(1 << 16);
+    private long records = 0;
+    private long bytesWritten = 0;
+    private volatile boolean closed = false;
+
+    /**
+     * Abre o armazém já compactado: o arquivo é reescrito só com "live" (tipicamente o que
+     * read() devolveu) e os registros seguintes são acrescentados em lotes.
+     */
+    public GameStore(Path file, Map<String, byte[]> live, long flushMillis) throws IOException {
+        if (flushMillis <= 0) throw new IllegalArgumentException("flushMillis deve ser positivo");
+        this.file = file;
+        rewrite(live);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "game-store-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lê o último registro de cada chave, na ordem de criação. Arquivo inexistente = vazio.
+     * @throws IOException se o arquivo existir mas não for um armazém de partidas
+     */
+    public static Map<String, byte[]> read(Path file) throws IOException {
+        Map<String, byte[]> out = new LinkedHashMap<>();
+        if (!Files.exists(file)) return out;
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        checkHeader(buf, file);
+        CRC32 crc = new CRC32();
+        while (buf.remaining() >= 8) {
+            int len = buf.getInt();
+            int sum = buf.getInt();
+            if (len < 3 || len > MAX_RECORD || len > buf.remaining()) break;
+            crc.reset();
+            crc.update(buf.array(), buf.position(), len);
+            if ((int) crc.getValue() != sum) break;
+
+            int end = buf.position() + len;
+            int op = buf.get();
+            int keyLen = buf.getShort() & 0xFFFF;
+            if (keyLen > end - buf.position()) break;
+            String key = new String(buf.array(), buf.position(), keyLen, StandardCharsets.UTF_8);
+            buf.position(buf.position() + keyLen);
+            if (op == OP_PUT) {
+                byte[] data = new byte[end - buf.position()];
+                buf.get(data);
+                out.remove(key); // reinsere no fim: mantém a ordem da última gravação
+                out.put(key, data);
+            } else {
+                out.remove(key);
+            }
+            buf.position(end);
+        }
+        return out;
+    }
+
+    public void put(String key, byte[] data) {
+        append(OP_PUT, key, data);
+    }
+
+    public void remove(String key) {
+        append(OP_REMOVE, key, new byte[0]);
+    }
+
+    /** Registros acrescentados desde a última compactação (para decidir quando compactar). */
+    public synchronized long records() {
+        return records;
+    }
+
+    public long bytesWritten() {
+        synchronized (ioLock) { return bytesWritten; }
+    }
+
+    /** Grava imediatamente o lote pendente e faz fsync. */
+    public void flush() throws IOException {
+        // Troca e grava o lote sob ioLock: um lote tirado antes de uma compactação não pode
+        // ser gravado depois dela no arquivo novo
+        synchronized (ioLock) {
+            ByteArrayOutputStream batch;
+            synchronized (this) {
+                if (pending.size() == 0) return;
+                batch = pending;
+                pending = new ByteArrayOutputStream(Math.max(1 << 16, batch.size()));
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(batch.toByteArray());
+            while (bytes.hasRemaining()) channel.write(bytes);
+            channel.force(false);
+            bytesWritten += batch.size();
+        }
+    }
+
+    /**
+     * Substitui o arquivo por um só com o estado atual (escrita atômica).
+     *
+     * Com as gravações em lote bloqueadas, descarta os registros pendentes e só então tira o
+     * instantâneo: tudo o que foi enviado antes já está refletido nele, e o que for enviado a
+     * partir daí (inclusive durante o instantâneo) fica pendente e vai para o arquivo novo, onde
+     * o último registro de cada chave continua valendo.
+     */
+    public void compact(Supplier<Map<String, byte[]>> snapshot) throws IOException {
+        synchronized (ioLock) {
+            synchronized (this) {
+                pending = new ByteArrayOutputStream(1 << 16);
+            }
+            Map<String, byte[]> live = snapshot.get();
+            channel.close();
+            rewrite(live);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        synchronized (ioLock) { channel.close(); }
+    }
+
+    // --------- Internos ----------
+
+    private synchronized void append(int op, String key, byte[] data) {
+        if (closed) throw new IllegalStateException("Armazém fechado");
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        if (k.length > 0xFFFF) throw new IllegalArgumentException("Chave longa demais");
+        int len = 3 + k.length + data.length;
+        if (len > MAX_RECORD) throw new IllegalArgumentException("Registro grande demais: " + len);
+
+        ByteBuffer body = ByteBuffer.allocate(8 + len);
+        body.putInt(len).putInt(0).put((byte) op).putShort((short) k.length).put(k).put(data);
+        CRC32 crc = new CRC32();
+        crc.update(body.array(), 8, len);
+        body.putInt(4, (int) crc.getValue());
+        pending.write(body.array(), 0, body.capacity());
+        records++;
+    }
+
+    // Chamado com ioLock (ou no construtor)
+    private void rewrite(Map<String, byte[]> live) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).put(MAGIC).putInt(VERSION);
+            header.flip();
+            out.write(header);
+            CRC32 crc = new CRC32();
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            for (Map.Entry<String, byte[]> e : live.entrySet()) {
+                byte[] k = e.getKey().getBytes(StandardCharsets.UTF_8);
+                byte[] data = e.getValue();
+                int len = 3 + k.length + data.length;
+                if (buf.remaining() < 8 + len) {
+                    buf.flip();
+                    while (buf.hasRemaining()) out.write(buf);
+                    buf = ByteBuffer.allocate(Math.max(buf.capacity(), 8 + len));
+                }
+                int start = buf.position();
+                buf.putInt(len).putInt(0).put((byte) OP_PUT).putShort((short) k.length).put(k).put(data);
+                crc.reset();
+                crc.update(buf.array(), start + 8, len);
+                buf.putInt(start + 4, (int) crc.getValue());
+            }
+            buf.flip();
+            while (buf.hasRemaining()) out.write(buf);
+            out.force(false);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        synchronized (this) { records = 0; }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("GameStore: falha ao gravar lote: " + e.getMessage());
+        }
+    }
+
+    private static void checkHeader(ByteBuffer buf, Path file) throws IOException {
+        if (buf.remaining() < HEADER) throw new IOException("Armazém de partidas inválido: " + file);
+        for (byte m : MAGIC) {
+            if (buf.get() != m) throw new IOException("Armazém de partidas inválido: " + file);
+        }
+        int version = buf.getInt();
+        if (version != VERSION) throw new IOException("Versão de armazém não suportada: " + version);
+    }
+}
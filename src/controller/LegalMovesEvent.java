@@ -0,0 +1,30 @@
+package controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR da filtragem de legalidade de uma casa (Game.legalMovesFromWithSpecials).
+ * Milhares por busca: desligado por padrão (jfr/xadrez.jfc).
+ */
+@Name("xadrez.LegalMoves")
+@Label("Lances legais")
+@Category({ "Xadrez", "Regras" })
+@Description("Geração e filtragem dos lances legais de uma peça")
+@Enabled(false)
+@StackTrace(false)
+final class LegalMovesEvent extends jdk.jfr.Event {
+
+    @Label("Casa")
+    String square;
+
+    @Label("Lances")
+    int moveCount;
+
+    @Label("Hash da posição")
+    long positionHash;
+}
@@ -0,0 +1,50 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import model.board.Move;
+
+/**
+ * Uma partida lida de um arquivo PGN: tags, lances em SAN e resultado.
+ * Comentários, variantes e NAGs são descartados na leitura.
+ */
+public class PgnGame {
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final List<String> moves = new ArrayList<>();
+    private String result = "*";
+
+    public Map<String, String> tags() { return Collections.unmodifiableMap(tags); }
+    public List<String> moves() { return Collections.unmodifiableList(moves); }
+    public String result() { return result; }
+
+    /** Valor da tag, ou null se ausente. */
+    public String tag(String name) { return tags.get(name); }
+
+    void putTag(String name, String value) { tags.put(name, value); }
+    void addMove(String san) { moves.add(san); }
+    void setResult(String result) { this.result = result; }
+
+    /**
+     * Reproduz a partida num novo Game (a partir da tag FEN, se houver).
+     * @throws IllegalArgumentException no primeiro lance inválido
+     */
+    public Game replay() {
+        String fen = tags.get("FEN");
+        Game game = fen != null ? Fen.load(fen) : new Game();
+        for (int i = 0; i < moves.size(); i++) {
+            String san = moves.get(i);
+            Move m;
+            try {
+                m = San.resolve(game, san);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Lance " + (i + 1) + " (" + san + "): " + e.getMessage(), e);
+            }
+            game.move(m.getFrom(), m.getTo(), m.getPromotion());
+        }
+        return game;
+    }
+}
@@ -0,0 +1,154 @@
+package controller;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Leitor PGN em fluxo: devolve uma partida por vez, com memória constante
+ * (apenas a partida corrente fica em memória), o que permite percorrer arquivos
+ * de vários GB. Comentários ({...} e ;), variantes (...) e NAGs ($n) são ignorados.
+ *
+ * Uso:
+ * <pre>
+ *   try (PgnReader r = new PgnReader(new BufferedReader(new FileReader(f)))) {
+ *       for (PgnGame g; (g = r.next()) != null; ) { ... }
+ *   }
+ * </pre>
+ */
+public class PgnReader implements AutoCloseable {
+
+    private final Reader in;
+    private final char[] buf = new char[1 << 16];
+    private int pos = 0, len = 0;
+    private final StringBuilder token = new StringBuilder(32);
+
+    public PgnReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Próxima partida, ou null no fim do arquivo. */
+    public PgnGame next() throws IOException {
+        PgnGame game = null;
+        boolean inMoves = false;
+        int c;
+        while ((c = peek()) >= 0) {
+            if (Character.isWhitespace(c)) {
+                read();
+            } else if (c == '[') {
+                // Tag depois dos lances sem resultado explícito: começa outra partida
+                if (inMoves) return game;
+                read();
+                if (game == null) game = new PgnGame();
+                readTag(game);
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';' || (c == '%' && atLineStart())) {
+                skipUntil('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == '$') {
+                read();
+                while (peek() >= '0' && peek() <= '9') read();
+            } else {
+                if (game == null) game = new PgnGame();
+                inMoves = true;
+                String t = readToken();
+                if (isResult(t)) {
+                    game.setResult(t);
+                    return game;
+                }
+                String san = stripMoveNumber(t);
+                if (!san.isEmpty()) game.addMove(san);
+            }
+        }
+        return game;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // --------- Tokens ----------
+
+    private void readTag(PgnGame game) throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) >= 0 && Character.isWhitespace(c)) read();
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c) && c != '"' && c != ']') token.append((char) read());
+        String name = token.toString();
+        while ((c = peek()) >= 0 && c != '"' && c != ']') read();
+        token.setLength(0);
+        if (peek() == '"') {
+            read();
+            while ((c = read()) >= 0 && c != '"') {
+                if (c == '\\') c = read();
+                if (c >= 0) token.append((char) c);
+            }
+        }
+        while ((c = read()) >= 0 && c != ']') { /* descarta até o fim da tag */ }
+        if (!name.isEmpty()) game.putTag(name, token.toString());
+    }
+
+    private String readToken() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c)
+                && c != '{' && c != '(' && c != ')' && c != ';' && c != '[' && c != '$') {
+            token.append((char) read());
+        }
+        if (token.length() == 0) read(); // caractere solto (ex.: ')'): consome para não travar
+        return token.toString();
+    }
+
+    private static boolean isResult(String t) {
+        return t.equals("1-0") || t.equals("0-1") || t.equals("1/2-1/2") || t.equals("*");
+    }
+
+    /** "12." / "12..." / "12.e4" → "" / "" / "e4". */
+    private static String stripMoveNumber(String t) {
+        int i = 0;
+        while (i < t.length() && Character.isDigit(t.charAt(i))) i++;
+        if (i == 0) return t;
+        while (i < t.length() && t.charAt(i) == '.') i++;
+        return t.substring(i);
+    }
+
+    private void skipUntil(char end) throws IOException {
+        int c;
+        while ((c = read()) >= 0 && c != end) { /* comentário */ }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0, c;
+        while ((c = read()) >= 0) {
+            if (c == '{') skipUntil('}');
+            else if (c == '(') depth++;
+            else if (c == ')' && --depth == 0) return;
+        }
+    }
+
+    // --------- Buffer ----------
+
+    private int peek() throws IOException {
+        if (pos >= len) {
+            len = in.read(buf, 0, buf.length);
+            pos = 0;
+            if (len <= 0) {
+                len = 0;
+                return -1;
+            }
+        }
+        return buf[pos];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) pos++;
+        return c;
+    }
+
+    private boolean atLineStart() {
+        return pos == 0 || buf[pos - 1] == '\n';
+    }
+}
@@ -0,0 +1,96 @@
+package controller;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import model.board.Move;
+
+/**
+ * Exporta partidas em PGN a partir do registro de lances do Game (Game.moveLog()).
+ * Os lances são convertidos para SAN reproduzindo a partida desde a posição inicial.
+ */
+public final class PgnWriter {
+
+    private static final int LINE_WIDTH = 80;
+    private static final String[] SEVEN_TAG_ROSTER = { "Event", "Site", "Date", "Round", "White", "Black", "Result" };
+
+    private PgnWriter() { }
+
+    /** PGN completo da partida; tags ausentes do "Seven Tag Roster" recebem "?". */
+    public static String toPgn(Game game, Map<String, String> tags) {
+        StringWriter sw = new StringWriter();
+        try {
+            write(sw, game, tags);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sw.toString();
+    }
+
+    /** Escreve a partida (tags + lances + resultado) seguida de uma linha em branco. */
+    public static void write(Writer out, Game game, Map<String, String> tags) throws IOException {
+        String result = result(game);
+        Map<String, String> all = new LinkedHashMap<>();
+        for (String name : SEVEN_TAG_ROSTER) {
+            String v = tags != null ? tags.get(name) : null;
+            all.put(name, v != null ? v : name.equals("Date") ? "????.??.??" : "?");
+        }
+        all.put("Result", result);
+        if (game.startFen() != null) {
+            all.put("SetUp", "1");
+            all.put("FEN", game.startFen());
+        }
+        if (tags != null) {
+            for (Map.Entry<String, String> e : tags.entrySet()) all.putIfAbsent(e.getKey(), e.getValue());
+        }
+
+        for (Map.Entry<String, String> e : all.entrySet()) {
+            out.write('[' + e.getKey() + " \"" + escape(e.getValue()) + "\"]\n");
+        }
+        out.write('\n');
+        writeMoves(out, game);
+        out.write(result);
+        out.write("\n\n");
+    }
+
+    /** "1-0", "0-1", "1/2-1/2" ou "*" conforme o estado do jogo. */
+    public static String result(Game game) {
+        if (!game.isGameOver()) return "*";
+        if (!game.inCheck(game.whiteToMove())) return "1/2-1/2";
+        return game.whiteToMove() ? "0-1" : "1-0";
+    }
+
+    private static void writeMoves(Writer out, Game game) throws IOException {
+        Game replay = game.startFen() != null ? Fen.load(game.startFen()) : new Game();
+        List<Move> log = game.moveLog();
+        int col = 0;
+        for (int i = 0; i < log.size(); i++) {
+            Move m = log.get(i);
+            StringBuilder tok = new StringBuilder(12);
+            if (replay.whiteToMove()) tok.append(replay.fullmoveNumber()).append(". ");
+            else if (i == 0) tok.append(replay.fullmoveNumber()).append("... ");
+            tok.append(San.toSan(replay, m.getFrom(), m.getTo(), m.getPromotion()));
+            replay.move(m.getFrom(), m.getTo(), m.getPromotion());
+            tok.append(San.checkSuffix(replay));
+
+            if (col > 0 && col + 1 + tok.length() > LINE_WIDTH) {
+                out.write('\n');
+                col = 0;
+            } else if (col > 0) {
+                out.write(' ');
+                col++;
+            }
+            out.write(tok.toString());
+            col += tok.length();
+        }
+        if (col > 0) out.write(col + 1 > LINE_WIDTH ? "\n" : " ");
+    }
+
+    private static String escape(String v) {
+        return v.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
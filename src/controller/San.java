@@ -0,0 +1,173 @@
+package controller;
+
+import model.board.Board;
+import model.board.Move;
+import model.board.Position;
+import model.pieces.*;
+
+/**
+ * Notação algébrica padrão (SAN): conversão de texto ("Nbd7", "exd6", "O-O", "e8=Q+")
+ * para lance do jogo e vice-versa. Usado pela leitura e escrita de PGN.
+ */
+public final class San {
+
+    private San() { }
+
+    /**
+     * Resolve um lance SAN na posição atual do jogo.
+     * @throws IllegalArgumentException se o texto não corresponder a exatamente um lance legal
+     */
+    public static Move resolve(Game game, String san) {
+        int end = san.length();
+        // Remove sufixos de xeque/mate e anotações (+, #, !, ?)
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) end--;
+        if (end < 2) throw illegal(san);
+
+        boolean white = game.whiteToMove();
+        int homeRow = white ? 7 : 0;
+        Board board = game.board();
+
+        // Roque (aceita também zeros)
+        if (san.charAt(0) == 'O' || san.charAt(0) == '0') {
+            boolean longCastle = end >= 5;
+            Position from = Position.of(homeRow, 4);
+            Position to = Position.of(homeRow, longCastle ? 2 : 6);
+            Piece king = board.get(from);
+            if (!(king instanceof King) || !game.isLegal(from, to)) throw illegal(san);
+            return Move.castle(from, to, king, !longCastle);
+        }
+
+        // Promoção: "e8=Q" ou "e8Q" (só em lances de peão, que começam pela coluna)
+        Character promo = null;
+        boolean pawnMove = !Character.isUpperCase(san.charAt(0));
+        char last = Character.toUpperCase(san.charAt(end - 1));
+        if (pawnMove && end >= 3 && "QRBN".indexOf(last) >= 0) {
+            promo = last;
+            end--;
+            if (san.charAt(end - 1) == '=') end--;
+        }
+        if (end < 2) throw illegal(san);
+
+        int toCol = san.charAt(end - 2) - 'a';
+        int toRow = 8 - (san.charAt(end - 1) - '0');
+        if (toCol < 0 || toCol > 7 || toRow < 0 || toRow > 7) throw illegal(san);
+        Position to = Position.of(toRow, toCol);
+
+        char kind = pawnMove ? 'P' : san.charAt(0);
+        int start = kind == 'P' ? 0 : 1;
+        // Desambiguação: coluna e/ou linha de origem, ignorando o 'x' de captura
+        int fromCol = -1, fromRow = -1;
+        for (int i = start; i < end - 2; i++) {
+            char ch = san.charAt(i);
+            if (ch >= 'a' && ch <= 'h') fromCol = ch - 'a';
+            else if (ch >= '1' && ch <= '8') fromRow = 8 - (ch - '0');
+            else if (ch != 'x' && ch != ':' && ch != '-') throw illegal(san);
+        }
+
+        Move found = null;
+        for (int r = 0; r < 8; r++) {
+            if (fromRow >= 0 && r != fromRow) continue;
+            for (int c = 0; c < 8; c++) {
+                if (fromCol >= 0 && c != fromCol) continue;
+                Position from = Position.of(r, c);
+                Piece p = board.get(from);
+                if (p == null || p.isWhite() != white || p.getSymbol().charAt(0) != kind) continue;
+                if (!couldReach(p, from, to)) continue;
+                if (!game.isLegal(from, to)) continue;
+                if (found != null) throw new IllegalArgumentException("Lance ambíguo: " + san);
+                found = toMove(game, p, from, to, promo);
+            }
+        }
+        if (found == null) throw illegal(san);
+        return found;
+    }
+
+    /**
+     * Texto SAN do lance na posição atual (antes de jogá-lo), sem sufixo de xeque.
+     * Use {@link #checkSuffix(Game)} depois de aplicar o lance.
+     */
+    public static String toSan(Game game, Position from, Position to, Character promotion) {
+        Board board = game.board();
+        Piece p = board.get(from);
+        if (p == null) throw new IllegalArgumentException("Casa vazia: " + from);
+        int dCol = to.getColumn() - from.getColumn();
+
+        if (p instanceof King && Math.abs(dCol) == 2) return dCol > 0 ? "O-O" : "O-O-O";
+
+        StringBuilder sb = new StringBuilder(8);
+        boolean capture = board.get(to) != null;
+        if (p instanceof Pawn) {
+            if (dCol != 0) {
+                sb.append((char) ('a' + from.getColumn())).append('x');
+            }
+            sb.append(to);
+            if (game.isPromotion(from, to)) {
+                char ch = promotion == null ? 'Q' : Character.toUpperCase(promotion);
+                sb.append('=').append(ch);
+            }
+            return sb.toString();
+        }
+
+        sb.append(p.getSymbol());
+        // Outras peças do mesmo tipo que também chegam legalmente à casa
+        boolean ambiguous = false, sameCol = false, sameRow = false;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Position other = Position.of(r, c);
+                if (other.equals(from)) continue;
+                Piece q = board.get(other);
+                if (q == null || q.isWhite() != p.isWhite() || !q.getSymbol().equals(p.getSymbol())) continue;
+                if (!couldReach(q, other, to) || !game.isLegal(other, to)) continue;
+                ambiguous = true;
+                if (c == from.getColumn()) sameCol = true;
+                if (r == from.getRow()) sameRow = true;
+            }
+        }
+        if (ambiguous) {
+            if (!sameCol) sb.append((char) ('a' + from.getColumn()));
+            else if (!sameRow) sb.append(8 - from.getRow());
+            else sb.append(from);
+        }
+        if (capture) sb.append('x');
+        sb.append(to);
+        return sb.toString();
+    }
+
+    /** "#" se o lado a jogar levou mate, "+" se está em xeque, "" caso contrário. */
+    public static String checkSuffix(Game game) {
+        if (!game.inCheck(game.whiteToMove())) return "";
+        return game.isGameOver() ? "#" : "+";
+    }
+
+    // --------- Helpers ----------
+
+    /** Filtro geométrico barato antes da verificação completa de legalidade. */
+    private static boolean couldReach(Piece p, Position from, Position to) {
+        int dr = Math.abs(to.getRow() - from.getRow());
+        int dc = Math.abs(to.getColumn() - from.getColumn());
+        if (p instanceof Knight) return dr * dc == 2;
+        if (p instanceof Bishop) return dr == dc && dr > 0;
+        if (p instanceof Rook) return (dr == 0) != (dc == 0);
+        if (p instanceof Queen) return (dr == dc && dr > 0) || ((dr == 0) != (dc == 0));
+        if (p instanceof King) return dr <= 1 && (dc <= 1 || (dr == 0 && dc == 2));
+        if (p instanceof Pawn) return dc <= 1 && dr >= 1 && dr <= 2;
+        return true;
+    }
+
+    private static Move toMove(Game game, Piece p, Position from, Position to, Character promo) {
+        Piece captured = game.board().get(to);
+        if (p instanceof Pawn) {
+            if (captured == null && from.getColumn() != to.getColumn()) {
+                return Move.enPassant(from, to, p, game.board().get(Position.of(from.getRow(), to.getColumn())));
+            }
+            if (game.isPromotion(from, to)) {
+                return Move.promotion(from, to, p, captured, promo == null ? 'Q' : promo);
+            }
+        }
+        return Move.normal(from, to, p, captured);
+    }
+
+    private static IllegalArgumentException illegal(String san) {
+        return new IllegalArgumentException("Lance SAN inválido: " + san);
+    }
+}
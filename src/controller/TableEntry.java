@@ -1,16 +1,38 @@
 // ========================= src/controller/TableEntry.java (NOVO ARQUIVO) =========================
 package controller;
 
+import model.board.Move;
+
 public class TableEntry {
     public enum NodeType { EXACT, LOWERBOUND, UPPERBOUND }
 
+    /** Código de "sem lance" (a8-a8 nunca é legal). */
+    public static final int NO_MOVE = 0;
+
     public final double score;
     public final int depth;
     public final NodeType type;
+    // Melhor lance nesta posição (usado para ordenação) em GameCodec.encodeMove, ou NO_MOVE.
+    // Não guarda o Move: ele referencia peças e, por elas, um tabuleiro inteiro por entrada.
+    public final int move;
 
     public TableEntry(double score, int depth, NodeType type) {
+        this(score, depth, type, NO_MOVE);
+    }
+
+    public TableEntry(double score, int depth, NodeType type, Move bestMove) {
+        this(score, depth, type, encode(bestMove));
+    }
+
+    public TableEntry(double score, int depth, NodeType type, int move) {
         this.score = score;
         this.depth = depth;
         this.type = type;
+        this.move = move;
+    }
+
+    /** Código compacto do lance (NO_MOVE para null). */
+    public static int encode(Move m) {
+        return m == null ? NO_MOVE : GameCodec.encodeMove(m);
     }
-}
\ No newline at end of file
+}
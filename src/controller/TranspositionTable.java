@@ -1,24 +1,112 @@
 // ========================= src/controller/TranspositionTable.java (NOVO ARQUIVO) =========================
 package controller;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
+/**
+ * Tabela de transposição de tamanho fixo (endereçada pelos bits baixos da chave Zobrist).
+ *
+ * Cada entrada ocupa dois longs de um único long[]: os dados empacotados (nota, lance
+ * compacto, profundidade, tipo e geração) e a chave XOR os dados. Assim o tamanho em MB é o
+ * consumo real (16 bytes por entrada, sem objetos por casa) e o acesso dispensa locks: uma
+ * leitura que pegar chave e dados de escritas diferentes não confere com a chave e é tratada
+ * como ausente. Várias threads de busca podem compartilhar a mesma tabela.
+ *
+ * As notas são guardadas como int (a busca só usa notas inteiras).
+ */
 public class TranspositionTable {
 
-    private final Map<Long, TableEntry> table = new HashMap<>();
+    /** Tamanho padrão em MB (mesmo default da opção UCI "Hash"). */
+    public static final int DEFAULT_MB = 16;
+    /** Memória por entrada: chave e dados, dois longs. */
+    public static final int BYTES_PER_ENTRY = 16;
+    private static final int MAX_ENTRIES = 1 << 29;
+
+    // Layout dos dados: nota (32 bits) | lance (15) | profundidade (8) | tipo + 1 (2) | geração (7)
+    private static final int MOVE_SHIFT = 32, DEPTH_SHIFT = 47, TYPE_SHIFT = 55, GEN_SHIFT = 57;
+    private static final int GEN_MASK = 0x7F;
+    private static final TableEntry.NodeType[] TYPES = TableEntry.NodeType.values();
+
+    private volatile long[] table;   // [2i] = chave ^ dados, [2i + 1] = dados
+    private volatile int generation = 0;
+
+    public TranspositionTable() {
+        this(DEFAULT_MB);
+    }
+
+    public TranspositionTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    /** Redimensiona (e limpa) a tabela para ~megabytes MB, arredondando para potência de 2. */
+    public synchronized void resize(int megabytes) {
+        long wanted = Math.max(1, megabytes) * 1024L * 1024L / BYTES_PER_ENTRY;
+        int size = Integer.highestOneBit((int) Math.min(wanted, MAX_ENTRIES));
+        table = new long[2 * size];
+    }
+
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    /** Marca o início de uma nova busca: entradas antigas passam a ser substituíveis. */
+    public void newSearch() {
+        generation = (generation + 1) & GEN_MASK;
+    }
 
     public void store(long hash, TableEntry entry) {
-        // Uma estratégia simples: sempre substitui.
-        // Estratégias melhores podem preferir entradas de maior profundidade.
-        table.put(hash, entry);
+        long[] t = table;
+        int i = 2 * index(hash, t.length / 2 - 1);
+        long oldData = t[i + 1];
+        long oldKey = t[i] ^ oldData;
+        int gen = generation;
+        // Substitui se vazia, mesma posição, entrada de busca antiga ou profundidade >= à guardada
+        if (type(oldData) < 0 || oldKey == hash || generation(oldData) != gen
+                || entry.depth >= depth(oldData)) {
+            long data = pack(entry, gen);
+            t[i] = hash ^ data;
+            t[i + 1] = data;
+        }
     }
 
     public TableEntry probe(long hash) {
-        return table.get(hash);
+        long[] t = table;
+        int i = 2 * index(hash, t.length / 2 - 1);
+        long data = t[i + 1];
+        if ((t[i] ^ data) != hash || type(data) < 0) return null;
+        return new TableEntry((int) data, depth(data), TYPES[type(data)],
+                (int) (data >>> MOVE_SHIFT) & 0x7FFF);
     }
 
     public void clear() {
-        table.clear();
+        Arrays.fill(table, 0L);
+    }
+
+    // --------- Empacotamento ----------
+
+    private static long pack(TableEntry e, int gen) {
+        long depth = Math.max(0, Math.min(255, e.depth));
+        return ((long) (int) e.score & 0xFFFFFFFFL)
+                | (long) (e.move & 0x7FFF) << MOVE_SHIFT
+                | depth << DEPTH_SHIFT
+                | (long) (e.type.ordinal() + 1) << TYPE_SHIFT
+                | (long) gen << GEN_SHIFT;
+    }
+
+    private static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /** Índice em NodeType, ou -1 para casa vazia. */
+    private static int type(long data) {
+        return ((int) (data >>> TYPE_SHIFT) & 3) - 1;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> GEN_SHIFT) & GEN_MASK;
+    }
+
+    private static int index(long hash, int mask) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
     }
-}
\ No newline at end of file
+}
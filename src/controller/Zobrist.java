@@ -1,12 +1,18 @@
 // ========================= src/controller/Zobrist.java (NOVO ARQUIVO) =========================
 package controller;
 
-import java.security.SecureRandom;
+import model.board.Board;
+import model.board.Position;
+import model.pieces.*;
 
 public final class Zobrist {
     // Array para [peça][casa] -> 12 peças (6 brancas, 6 pretas), 64 casas
     public static final long[][] PIECE_KEYS = new long[12][64];
     public static final long BLACK_TO_MOVE_KEY;
+    // Uma chave por combinação de direitos de roque (máscara Game.CASTLE_*)
+    public static final long[] CASTLING_KEYS = new long[16];
+    // Uma chave por coluna da casa de en passant
+    public static final long[] EN_PASSANT_KEYS = new long[8];
 
     // Índices das peças para o array
     public static final int WHITE_PAWN = 0;
@@ -22,14 +28,63 @@ public final class Zobrist {
     public static final int BLACK_QUEEN = 10;
     public static final int BLACK_KING = 11;
 
+    // Semente fixa: as chaves precisam ser iguais em toda execução, pois são
+    // gravadas em disco (ex.: livro de abertura). Não alterar.
+    private static final long SEED = 0x526F79616C436865L; // "RoyalChe"
+    private static long state = SEED;
+
     static {
-        SecureRandom random = new SecureRandom();
         for (int i = 0; i < 12; i++) {
             for (int j = 0; j < 64; j++) {
-                PIECE_KEYS[i][j] = random.nextLong();
+                PIECE_KEYS[i][j] = nextKey();
+            }
+        }
+        BLACK_TO_MOVE_KEY = nextKey();
+        for (int i = 1; i < 16; i++) CASTLING_KEYS[i] = nextKey();
+        for (int i = 0; i < 8; i++) EN_PASSANT_KEYS[i] = nextKey();
+    }
+
+    // SplitMix64: gerador simples e totalmente determinístico
+    private static long nextKey() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private Zobrist() { }
+
+    /** Índice da peça em PIECE_KEYS (0..11) ou -1 se desconhecida. */
+    public static int pieceIndex(Piece p) {
+        int base = p.isWhite() ? 0 : 6;
+        if (p instanceof Pawn) return base + WHITE_PAWN;
+        if (p instanceof Knight) return base + WHITE_KNIGHT;
+        if (p instanceof Bishop) return base + WHITE_BISHOP;
+        if (p instanceof Rook) return base + WHITE_ROOK;
+        if (p instanceof Queen) return base + WHITE_QUEEN;
+        if (p instanceof King) return base + WHITE_KING;
+        return -1;
+    }
+
+    /**
+     * Chave Zobrist completa da posição: peças, lado a jogar, direitos de roque
+     * e coluna de en passant. Casa = row * 8 + column.
+     */
+    public static long hash(Game game) {
+        long h = 0L;
+        Board b = game.board();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = b.get(new Position(r, c));
+                if (p == null) continue;
+                int idx = pieceIndex(p);
+                if (idx >= 0) h ^= PIECE_KEYS[idx][r * 8 + c];
             }
         }
-        BLACK_TO_MOVE_KEY = random.nextLong();
-        // Em um motor mais avançado, teríamos chaves para roque e en passant também.
+        if (!game.whiteToMove()) h ^= BLACK_TO_MOVE_KEY;
+        h ^= CASTLING_KEYS[game.castlingRights()];
+        Position ep = game.enPassantTarget();
+        if (ep != null) h ^= EN_PASSANT_KEYS[ep.getColumn()];
+        return h;
     }
-}
\ No newline at end of file
+}
@@ -92,6 +92,9 @@ public class Board {
      * preservando cor/estado (ex.: moved) e que aqui definimos a Position corretamente.
      */
     public Board copy() {
+        BoardCopyEvent event = new BoardCopyEvent();
+        event.begin();
+        int pieces = 0;
         Board b = new Board();
         for (int r = 0; r < 8; r++) {
             for (int c = 0; c < 8; c++) {
@@ -100,9 +103,15 @@ public class Board {
                     Piece cp = p.copyFor(b);                 // nova peça ligada ao Board "b"
                     b.grid[r][c] = cp;                       // atribui diretamente (evita set() duplicado)
                     cp.setPosition(new Position(r, c));      // sincroniza a posição do clone
+                    pieces++;
                 }
             }
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.pieces = pieces;
+            event.commit();
+        }
         return b;
     }
 }
@@ -0,0 +1,21 @@
+package model.board;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Evento JFR de Board.copy (cópia profunda). Muito frequente: desligado por padrão (jfr/xadrez.jfc). */
+@Name("xadrez.BoardCopy")
+@Label("Board.copy")
+@Category({ "Xadrez", "Tabuleiro" })
+@Description("Cópia profunda do tabuleiro e das peças")
+@Enabled(false)
+@StackTrace(false)
+final class BoardCopyEvent extends jdk.jfr.Event {
+
+    @Label("Peças")
+    int pieces;
+}
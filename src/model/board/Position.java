@@ -8,11 +8,23 @@ public final class Position {
     private final int row;    // 0..7 (0 = topo / linha 8, 7 = fundo / linha 1)
     private final int column; // 0..7 (0 = 'a', 7 = 'h')
 
+    // As 64 casas válidas, compartilhadas (Position é imutável)
+    private static final Position[] SQUARES = new Position[64];
+    static {
+        for (int i = 0; i < 64; i++) SQUARES[i] = new Position(i >> 3, i & 7);
+    }
+
     public Position(int row, int column) {
         this.row = row;
         this.column = column;
     }
 
+    /** Casa válida sem alocação; para coordenadas fora do tabuleiro cria uma nova instância. */
+    public static Position of(int row, int column) {
+        if (row >= 0 && row < 8 && column >= 0 && column < 8) return SQUARES[row * 8 + column];
+        return new Position(row, column);
+    }
+
     public int getRow() { return row; }
     public int getColumn() { return column; }
 
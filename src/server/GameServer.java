@@ -0,0 +1,429 @@
+package server;
+
+import ai.EngineMetrics;
+import ai.SearchEngine;
+import ai.SearchLimits;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controller.Fen;
+import controller.Game;
+import controller.GameState;
+import controller.GameStore;
+import controller.TranspositionTable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import model.board.Move;
+import uci.Uci;
+
+/**
+ * Servidor HTTP local (127.0.0.1) que hospeda muitas partidas ao mesmo tempo, sem interface gráfica.
+ *
+ * Arquitetura: as sessões são objetos num ConcurrentHashMap, sem thread própria (uma sessão
+ * ociosa custa só o Game). Poucas threads de I/O atendem as requisições e nunca esperam pela
+ * busca: o lance da IA vai para um pool de CPU de tamanho fixo com fila limitada (cheia = 503),
+ * e a resposta é enviada pela própria thread de busca. Cada thread de busca tem seu motor e sua
+ * tabela de transposição. Sessões sem acesso por muito tempo são descartadas.
+ *
+ * Com um arquivo de armazenamento, cada mudança de estado grava a sessão (GameCodec, dezenas
+ * de bytes) num GameStore append-only em lotes; na partida seguinte as sessões são reidratadas
+ * antes de abrir a porta, e o arquivo é compactado quando acumula registros antigos.
+ *
+ * API (respostas em JSON):
+ *   POST   /games[?level=0..2][&fen=...]      cria sessão
+ *   GET    /games/{id}                        estado (FEN, status, lado a jogar)
+ *   POST   /games/{id}/move?uci=e2e4          lance do cliente
+ *   POST   /games/{id}/ai[?movetime=ms]       lance da IA para o lado a jogar
+ *   DELETE /games/{id}                        encerra a sessão
+ *   GET    /stats[?gc=1]                      sessões, memória por sessão, latências p50/p99
+ *
+ * Uso: java server.GameServer [porta=8765] [threadsDeBusca=núcleos] [filaMax=256] [ociosoMin=30] [arquivo]
+ */
+public class GameServer {
+
+    public static final int DEFAULT_PORT = 8765;
+    private static final int IO_THREADS = 4;
+    private static final int ENGINE_HASH_MB = 8;
+    private static final long STORE_FLUSH_MS = 100;
+
+    static {
+        // Sem isso o HttpServer do JDK sofre o atraso de ~40 ms do Nagle + ACK atrasado a cada resposta
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer http;
+    private final ExecutorService ioPool;
+    private final ThreadPoolExecutor searchPool;
+    private final ScheduledExecutorService janitor;
+    private final ThreadLocal<SearchEngine> engines =
+            ThreadLocal.withInitial(() -> new SearchEngine(SearchLimits.dificil(), new TranspositionTable(ENGINE_HASH_MB)));
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong created = new AtomicLong(), expired = new AtomicLong(), rejected = new AtomicLong();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LatencyHistogram aiLatency = new LatencyHistogram();
+    private final long idleMillis;
+    private final GameStore store; // null = sem persistência
+
+    public GameServer(int port, int searchThreads, int queueLimit, long idleMinutes) throws IOException {
+        this(port, searchThreads, queueLimit, idleMinutes, null);
+    }
+
+    /** @param storeFile arquivo do GameStore (sessões restauradas ao iniciar), ou null */
+    public GameServer(int port, int searchThreads, int queueLimit, long idleMinutes, Path storeFile) throws IOException {
+        this.idleMillis = TimeUnit.MINUTES.toMillis(idleMinutes);
+        this.store = storeFile == null ? null : restore(storeFile);
+        this.http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.ioPool = Executors.newFixedThreadPool(IO_THREADS, threads("http-io", false));
+        this.searchPool = new ThreadPoolExecutor(searchThreads, searchThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), threads("search", false), new ThreadPoolExecutor.AbortPolicy());
+        this.janitor = Executors.newSingleThreadScheduledExecutor(threads("janitor", true));
+        http.setExecutor(ioPool);
+        http.createContext("/", this::handle);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queue = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        long idle = args.length > 3 ? Long.parseLong(args[3]) : 30;
+        Path storeFile = args.length > 4 ? Paths.get(args[4]) : null;
+        GameServer server = new GameServer(port, threads, queue, idle, storeFile);
+        server.start();
+        System.out.printf("Servidor em http://127.0.0.1:%d (%d threads de busca, fila %d)%n", port, threads, queue);
+    }
+
+    public void start() {
+        http.start();
+        janitor.scheduleAtFixedRate(this::expireIdle, 1, 1, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        http.stop(0);
+        janitor.shutdownNow();
+        searchPool.shutdownNow();
+        ioPool.shutdownNow();
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                System.err.println("Falha ao fechar o armazenamento: " + e.getMessage());
+            }
+        }
+    }
+
+    // --------- Roteamento ----------
+
+    private void handle(HttpExchange ex) {
+        long start = System.nanoTime();
+        try {
+            String[] path = ex.getRequestURI().getPath().split("/");
+            Map<String, String> q = query(ex.getRequestURI().getRawQuery());
+            String method = ex.getRequestMethod();
+
+            if (path.length == 2 && path[1].equals("stats") && method.equals("GET")) {
+                send(ex, 200, stats(q.containsKey("gc")));
+            } else if (path.length == 2 && path[1].equals("games") && method.equals("POST")) {
+                create(ex, q);
+            } else if (path.length >= 3 && path[1].equals("games")) {
+                Session s = sessions.get(path[2]);
+                if (s == null) {
+                    send(ex, 404, error("sessão inexistente"));
+                    return;
+                }
+                s.touch();
+                String action = path.length > 3 ? path[3] : "";
+                if (action.isEmpty() && method.equals("GET")) {
+                    String body;
+                    synchronized (s) { body = state(s, null); }
+                    send(ex, 200, body);
+                } else if (action.isEmpty() && method.equals("DELETE")) {
+                    close(s);
+                    send(ex, 200, "{\"id\":\"" + s.id + "\",\"closed\":true}");
+                } else if (action.equals("move") && method.equals("POST")) {
+                    move(ex, s, q.get("uci"));
+                    moveLatency.record(System.nanoTime() - start);
+                } else if (action.equals("ai") && method.equals("POST")) {
+                    ai(ex, s, q, start);
+                } else {
+                    send(ex, 405, error("método/ação inválido"));
+                }
+            } else {
+                send(ex, 404, error("rota inexistente"));
+            }
+        } catch (IllegalArgumentException e) {
+            send(ex, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            send(ex, 500, error(String.valueOf(e)));
+        }
+    }
+
+    private void create(HttpExchange ex, Map<String, String> q) {
+        int level = q.containsKey("level") ? Integer.parseInt(q.get("level")) : 1;
+        Game game = q.containsKey("fen") ? Fen.load(q.get("fen")) : new Game();
+        String id = Long.toString(nextId.getAndIncrement(), 36);
+        Session s = new Session(id, game, Math.max(0, Math.min(2, level)));
+        sessions.put(id, s);
+        created.incrementAndGet();
+        String body;
+        synchronized (s) {
+            persist(s);
+            body = state(s, null);
+        }
+        send(ex, 201, body);
+    }
+
+    private void move(HttpExchange ex, Session s, String uci) {
+        if (uci == null) throw new IllegalArgumentException("parâmetro uci ausente");
+        int status;
+        String body;
+        synchronized (s) {
+            if (s.closed) {
+                status = 404;
+                body = error("sessão inexistente");
+            } else if (s.thinking) {
+                status = 409;
+                body = error("IA pensando");
+            } else if (s.game.isGameOver()) {
+                status = 409;
+                body = error("partida encerrada");
+            } else if (!Uci.applyUciMove(s.game, uci)) {
+                status = 400;
+                body = error("lance ilegal: " + uci);
+            } else {
+                persist(s);
+                status = 200;
+                body = state(s, uci);
+            }
+        }
+        send(ex, status, body);
+    }
+
+    /**
+     * Agenda a busca no pool de CPU; a resposta sai da thread de busca. As respostas são
+     * escritas fora do lock da sessão: um cliente lento não trava a sessão nem a thread de busca
+     * além da própria escrita.
+     */
+    private void ai(HttpExchange ex, Session s, Map<String, String> q, long start) {
+        final GameState position;
+        final SearchLimits limits;
+        String conflict = null;
+        synchronized (s) {
+            if (s.closed) conflict = "sessão encerrada";
+            else if (s.thinking) conflict = "IA já está pensando";
+            else if (s.game.isGameOver()) conflict = "partida encerrada";
+            if (conflict == null) {
+                SearchLimits l = SearchLimits.forLevel(s.level);
+                limits = q.containsKey("movetime") ? l.withTime(Long.parseLong(q.get("movetime"))) : l;
+                s.thinking = true;
+                position = GameState.of(s.game); // imutável: a busca não toca no Game da sessão
+            } else {
+                limits = null;
+                position = null;
+            }
+        }
+        if (conflict != null) {
+            send(ex, 409, error(conflict));
+            return;
+        }
+        try {
+            searchPool.execute(() -> {
+                String uci = null;
+                try {
+                    SearchEngine engine = engines.get();
+                    engine.setLimits(limits);
+                    Move m = engine.makeMove(position.toGame());
+                    if (m != null) uci = Uci.toUci(m);
+                } finally {
+                    String body;
+                    synchronized (s) {
+                        s.thinking = false;
+                        s.touch();
+                        if (s.closed) uci = null; // removida durante a busca: não volta ao armazém
+                        if (uci != null && !Uci.applyUciMove(s.game, uci)) uci = null;
+                        if (uci != null) persist(s);
+                        body = state(s, uci);
+                    }
+                    send(ex, 200, body);
+                    aiLatency.record(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (s) { s.thinking = false; }
+            rejected.incrementAndGet();
+            send(ex, 503, error("fila de busca cheia"));
+        }
+    }
+
+    // --------- Manutenção e métricas ----------
+
+    private void expireIdle() {
+        long limit = System.currentTimeMillis() - idleMillis;
+        for (Session s : sessions.values()) {
+            synchronized (s) { // mesma seção crítica que move/ai: checagem e remoção juntas
+                if (s.lastAccess < limit && !s.thinking && close(s)) expired.incrementAndGet();
+            }
+        }
+        // Registros antigos passam de ~4 por sessão viva: reescreve só o estado atual
+        if (store != null && store.records() > 4L * sessions.size() + 4096) {
+            try {
+                store.compact(this::encodeAll);
+            } catch (IOException e) {
+                System.err.println("Falha ao compactar o armazenamento: " + e.getMessage());
+            }
+        }
+    }
+
+    // --------- Persistência ----------
+
+    /** Lê o armazenamento, recria as sessões e reabre o arquivo já compactado. */
+    private GameStore restore(Path file) throws IOException {
+        long t0 = System.nanoTime();
+        Map<String, byte[]> saved = GameStore.read(file);
+        Map<String, byte[]> live = new LinkedHashMap<>();
+        long maxId = 0;
+        for (Map.Entry<String, byte[]> e : saved.entrySet()) {
+            try {
+                sessions.put(e.getKey(), Session.decode(e.getKey(), e.getValue()));
+                live.put(e.getKey(), e.getValue());
+                maxId = Math.max(maxId, Long.parseLong(e.getKey(), 36));
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Sessão " + e.getKey() + " ignorada: " + ex.getMessage());
+            }
+        }
+        nextId.set(maxId + 1);
+        if (!live.isEmpty()) {
+            System.out.printf("%d sessões restauradas em %.1f ms%n", live.size(), (System.nanoTime() - t0) / 1e6);
+        }
+        return new GameStore(file, live, STORE_FLUSH_MS);
+    }
+
+    // Chame com o lock da sessão
+    private void persist(Session s) {
+        if (store != null && !s.closed) store.put(s.id, s.encode());
+    }
+
+    /**
+     * Encerra a sessão (DELETE ou expiração): marca closed e grava a remoção sob o lock dela,
+     * para nenhum persist posterior (ex.: busca que termina depois) a trazer de volta.
+     * @return false se já estava encerrada
+     */
+    private boolean close(Session s) {
+        synchronized (s) {
+            if (s.closed) return false;
+            s.closed = true;
+            sessions.remove(s.id, s);
+            if (store != null) store.remove(s.id);
+            return true;
+        }
+    }
+
+    private Map<String, byte[]> encodeAll() {
+        Map<String, byte[]> live = new LinkedHashMap<>();
+        for (Session s : sessions.values()) {
+            synchronized (s) {
+                if (!s.closed) live.put(s.id, s.encode());
+            }
+        }
+        return live;
+    }
+
+    private String stats(boolean gc) {
+        Runtime rt = Runtime.getRuntime();
+        if (gc) System.gc();
+        long used = rt.totalMemory() - rt.freeMemory();
+        int n = sessions.size();
+        EngineMetrics engine = EngineMetrics.global();
+        return "{\"sessions\":" + n
+                + ",\"created\":" + created.get()
+                + ",\"expired\":" + expired.get()
+                + ",\"heapUsedBytes\":" + used
+                + ",\"bytesPerSession\":" + (n > 0 ? used / n : 0)
+                + ",\"searchThreads\":" + searchPool.getMaximumPoolSize()
+                + ",\"searchQueue\":" + searchPool.getQueue().size()
+                + ",\"searchRejected\":" + rejected.get()
+                + ",\"moves\":" + moveLatency.count()
+                + ",\"moveP50Ms\":" + fmt(moveLatency.percentileMillis(50))
+                + ",\"moveP99Ms\":" + fmt(moveLatency.percentileMillis(99))
+                + ",\"aiMoves\":" + aiLatency.count()
+                + ",\"aiP50Ms\":" + fmt(aiLatency.percentileMillis(50))
+                + ",\"aiP99Ms\":" + fmt(aiLatency.percentileMillis(99))
+                + ",\"engineNps\":" + engine.getNodesPerSecond()
+                + ",\"engineTtHitRate\":" + fmt(engine.getTtHitRate())
+                + ",\"engineFirstMoveCutoffRate\":" + fmt(engine.getFirstMoveCutoffRate()) + "}";
+    }
+
+    // --------- Helpers ----------
+
+    private static String state(Session s, String lastMove) {
+        return "{\"id\":\"" + s.id + "\",\"fen\":\"" + Fen.toFen(s.game) + "\",\"toMove\":\""
+                + (s.game.whiteToMove() ? "white" : "black") + "\",\"status\":\"" + s.status() + "\""
+                + (lastMove != null ? ",\"move\":\"" + lastMove + "\"" : "") + "}";
+    }
+
+    private static String error(String msg) {
+        return "{\"error\":\"" + msg.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    private static String fmt(double v) {
+        return String.format(Locale.ROOT, "%.3f", v);
+    }
+
+    private static void send(HttpExchange ex, int code, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        try {
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.sendResponseHeaders(code, bytes.length);
+            try (OutputStream os = ex.getResponseBody()) {
+                os.write(bytes);
+            }
+        } catch (IOException e) {
+            // Cliente desconectou: nada a fazer
+        } finally {
+            ex.close();
+        }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> q = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return q;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            q.put(k, v);
+        }
+        return q;
+    }
+
+    private static ThreadFactory threads(String name, boolean daemon) {
+        AtomicLong n = new AtomicLong();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+            t.setDaemon(daemon);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latências com baldes logarítmicos (5% de precisão), sem locks:
+ * várias threads registram ao mesmo tempo e qualquer uma consulta percentis.
+ */
+public final class LatencyHistogram {
+
+    private static final double RATIO = 1.05;
+    private static final int BUCKETS = 600; // 1 µs .. ~5 x 10^12 µs
+    private static final double LOG_RATIO = Math.log(RATIO);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** Registra uma amostra em nanossegundos. */
+    public void record(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        int idx = (int) Math.min(BUCKETS - 1, Math.log(micros) / LOG_RATIO);
+        counts.incrementAndGet(idx);
+    }
+
+    public long count() {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += counts.get(i);
+        return n;
+    }
+
+    /** Percentil (0..100) em milissegundos; 0 sem amostras. */
+    public double percentileMillis(double p) {
+        long total = count();
+        if (total == 0) return 0;
+        long target = (long) Math.ceil(total * p / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(1, target)) return Math.pow(RATIO, i + 1) / 1000.0;
+        }
+        return Math.pow(RATIO, BUCKETS) / 1000.0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+    }
+}
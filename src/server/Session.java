@@ -0,0 +1,51 @@
+package server;
+
+import controller.Game;
+import controller.GameCodec;
+import java.util.Arrays;
+
+/**
+ * Uma partida hospedada no servidor. Não tem thread própria: sessões ociosas custam
+ * apenas o Game e o histórico. O acesso é sincronizado na própria sessão.
+ *
+ * Persistência: [nível byte][GameCodec], gravado no GameStore a cada mudança de estado.
+ */
+final class Session {
+
+    final String id;
+    final Game game;
+    int level;
+    boolean thinking = false; // IA calculando: lances do cliente são recusados
+    boolean closed = false;   // removida (DELETE ou expiração): não grava mais nada no armazém
+    volatile long lastAccess = System.currentTimeMillis();
+
+    Session(String id, Game game, int level) {
+        this.id = id;
+        this.game = game;
+        this.level = level;
+    }
+
+    /** Chame com o lock da sessão. */
+    byte[] encode() {
+        byte[] game = GameCodec.encode(this.game);
+        byte[] out = new byte[1 + game.length];
+        out[0] = (byte) level;
+        System.arraycopy(game, 0, out, 1, game.length);
+        return out;
+    }
+
+    static Session decode(String id, byte[] data) {
+        if (data.length < 1) throw new IllegalArgumentException("Sessão vazia: " + id);
+        return new Session(id, GameCodec.decode(Arrays.copyOfRange(data, 1, data.length)), data[0]);
+    }
+
+    void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    /** "playing", "checkmate" ou "stalemate". */
+    String status() {
+        if (!game.isGameOver()) return "playing";
+        return game.inCheck(game.whiteToMove()) ? "checkmate" : "stalemate";
+    }
+}
@@ -0,0 +1,281 @@
+package tools;
+
+import ai.IAUtils;
+import ai.SearchControl;
+import ai.SearchEngine;
+import ai.SearchInfo;
+import ai.SearchLimits;
+import controller.Game;
+import controller.San;
+import controller.TranspositionTable;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import model.board.Move;
+
+/**
+ * Análise em lote sem interface: lê posições FEN/EPD (uma por linha, de arquivo ou stdin),
+ * busca cada uma com o motor e grava melhor lance, nota, profundidade e variante em CSV ou JSONL.
+ *
+ * A leitura é em fluxo e a memória é limitada: no máximo MAX_PENDING_PER_THREAD posições por
+ * thread estão em análise ou esperando a vez de serem gravadas (um Semaphore segura a leitura).
+ * A saída sai na ordem da entrada. Cada thread tem o seu motor e a sua tabela de transposição,
+ * limpa entre posições para a nota não depender de qual thread pegou a posição nem do número de
+ * threads. Ao final, stderr recebe o total de posições, erros, posições/s e nós/s.
+ *
+ * Uso: java tools.Analyze [arquivo.epd|-] [-depth N] [-time ms] [-threads N] [-hash MB]
+ *                         [-multipv N] [-format csv|jsonl] [-out arquivo]
+ *
+ * Sem -depth nem -time a profundidade é 4. Com só -time a busca vai até o tempo acabar.
+ * Colunas: n, id (opcode id do EPD), fen, bestmove (coordenadas), san, score (centipawns, do
+ * ponto de vista de quem joga), mate (lances até o mate, vazio se não houver), depth, nodes,
+ * ms, pv e error; com -multipv N, uma linha por variante (coluna multipv). Se o tempo acabar
+ * antes da profundidade 1, a linha sai sem lance e com error = "busca interrompida".
+ */
+public class Analyze {
+
+    private static final int MAX_PENDING_PER_THREAD = 4;
+    private static final int DEFAULT_DEPTH = 4;
+    private static final int MAX_DEPTH = 64;
+    private static final String[] COLUMNS = {
+        "n", "id", "fen", "multipv", "bestmove", "san", "score", "mate", "depth", "nodes", "ms", "pv", "error"
+    };
+    private static final boolean[] NUMERIC = {
+        true, false, false, true, false, false, true, true, true, true, true, false, false
+    };
+
+    private final SearchLimits limits;
+    private final int hashMb;
+    private final int lines;
+    private final boolean json;
+    private final Writer out;
+    private final ThreadLocal<SearchEngine> engines;
+
+    // Saída em ordem: resultados prontos esperam aqui até chegar a vez (guardado por "this")
+    private final Map<Long, String> ready = new HashMap<>();
+    private long nextToWrite = 1;
+    private long positions, errors, nodes;
+    private volatile IOException writeError;
+
+    private Analyze(SearchLimits limits, int hashMb, int lines, boolean json, Writer out) {
+        this.limits = limits;
+        this.hashMb = hashMb;
+        this.lines = lines;
+        this.json = json;
+        this.out = out;
+        this.engines = ThreadLocal.withInitial(() -> new SearchEngine(this.limits, new TranspositionTable(this.hashMb)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String input = null, output = null, format = "csv";
+        int depth = 0, threads = Runtime.getRuntime().availableProcessors(), hashMb = 16, lines = 1;
+        long time = 0;
+        int i = 0;
+        if (args.length > 0 && !args[0].startsWith("-") || args.length > 0 && args[0].equals("-")) {
+            input = args[0];
+            i = 1;
+        }
+        for (; i < args.length; i += 2) {
+            if (i + 1 >= args.length) usage("Falta o valor de " + args[i]);
+            String v = args[i + 1];
+            switch (args[i]) {
+                case "-depth": depth = Integer.parseInt(v); break;
+                case "-time": time = Long.parseLong(v); break;
+                case "-threads": threads = Math.max(1, Integer.parseInt(v)); break;
+                case "-hash": hashMb = Math.max(1, Integer.parseInt(v)); break;
+                case "-multipv": lines = Math.max(1, Integer.parseInt(v)); break;
+                case "-format": format = v.toLowerCase(); break;
+                case "-out": output = v; break;
+                default: usage("Opção desconhecida: " + args[i]);
+            }
+        }
+        if (!format.equals("csv") && !format.equals("jsonl")) usage("Formato inválido: " + format);
+        if (depth <= 0) depth = time > 0 ? MAX_DEPTH : DEFAULT_DEPTH;
+        SearchLimits limits = new SearchLimits(depth, 0, time, 0, true);
+
+        InputStream is = input == null || input.equals("-") ? System.in : new FileInputStream(input);
+        // stdout sem o PrintStream, que engole erros: com "| head" a análise para no pipe fechado
+        OutputStream os = output == null ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(output);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 1 << 16)) {
+            System.err.printf("Limites: %s, %d threads, hash %d MB por thread%n", limits, threads, hashMb);
+            new Analyze(limits, hashMb, lines, format.equals("jsonl"), writer).run(reader, threads);
+        } catch (IOException e) {
+            System.err.println("Erro de E/S: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Uso: java tools.Analyze [arquivo.epd|-] [-depth N] [-time ms] [-threads N] "
+                + "[-hash MB] [-multipv N] [-format csv|jsonl] [-out arquivo]");
+        System.exit(2);
+    }
+
+    private void run(BufferedReader reader, int threads) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        if (!json) out.write(String.join(",", COLUMNS) + "\n");
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "analyze");
+            t.setDaemon(true);
+            return t;
+        });
+        Semaphore slots = new Semaphore(threads * MAX_PENDING_PER_THREAD);
+        long n = 0;
+        try {
+            for (String line; (line = reader.readLine()) != null; ) {
+                if (writeError != null) break;
+                if (Epd.isBlank(line)) continue;
+                final long seq = ++n;
+                final String text = line;
+                slots.acquire();                   // devolvido quando a linha é gravada, não só analisada
+                pool.execute(() -> {
+                    String row;
+                    try {
+                        row = analyze(seq, text);
+                    } catch (RuntimeException e) {
+                        row = error(seq, text, e);
+                    }
+                    slots.release(write(seq, row));
+                });
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }
+        if (writeError != null) throw writeError;
+        out.flush();
+
+        double secs = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+        System.err.printf("Posições: %d (erros: %d)  tempo: %.1f s  ->  %.2f posições/s, %,.0f nós/s%n",
+                positions, errors, secs, positions / secs, nodes / secs);
+    }
+
+    // --------- Análise ----------
+
+    private String analyze(long seq, String line) {
+        Epd epd = Epd.parse(line);
+        Game game = epd.toGame();
+        SearchEngine engine = engines.get();
+        engine.clearHash();
+        SearchControl control = new SearchControl();
+        if (limits.timeMillis > 0) control.setDeadline(System.currentTimeMillis() + limits.timeMillis);
+        List<SearchInfo> infos = engine.analyze(game, lines, control);
+
+        synchronized (this) {
+            positions++;
+            nodes += engine.getNodes();
+        }
+        String id = epd.id() != null ? epd.id() : "";
+        StringBuilder sb = new StringBuilder();
+        if (infos.isEmpty()) {
+            String why = game.legalMoveCount() == 0 ? "sem lances legais" : "busca interrompida";
+            return row(sb, seq, id, epd.fen(), 1, null, null, engine.getNodes(), why);
+        }
+        for (SearchInfo info : infos) {
+            row(sb, seq, id, epd.fen(), info.multiPv, game, info, info.nodes, "");
+        }
+        return sb.toString();
+    }
+
+    private String error(long seq, String line, RuntimeException e) {
+        synchronized (this) {
+            errors++;
+        }
+        return row(new StringBuilder(), seq, "", line.trim(), 1, null, null, 0, String.valueOf(e.getMessage()));
+    }
+
+    // --------- Saída ----------
+
+    /**
+     * Grava as linhas prontas em ordem; quem completa a vez grava também as que esperavam.
+     * @return quantas posições foram gravadas agora (vagas a devolver ao Semaphore)
+     */
+    private synchronized int write(long seq, String rows) {
+        ready.put(seq, rows);
+        int written = 0;
+        for (String r; (r = ready.remove(nextToWrite)) != null; nextToWrite++) {
+            written++;
+            if (writeError != null) continue; // saída fechada (ex.: "| head"): só descarta
+            try {
+                out.write(r);
+            } catch (IOException e) {
+                writeError = e;
+            }
+        }
+        return written;
+    }
+
+    private String row(StringBuilder sb, long seq, String id, String fen, int multiPv, Game game,
+                       SearchInfo info, long nodeCount, String error) {
+        String best = "", san = "", score = "", mate = "", depth = "", ms = "", pv = "";
+        if (info != null) {
+            if (!info.pv.isEmpty()) {
+                Move m = info.pv.get(0);
+                best = info.pvString().split(" ")[0];
+                san = San.toSan(game, m.getFrom(), m.getTo(), m.getPromotion())
+                        + San.checkSuffix(IAUtils.play(game, m));
+            }
+            score = String.valueOf(info.score);
+            mate = info.isMate() ? String.valueOf(info.mateIn()) : "";
+            depth = String.valueOf(info.depth);
+            ms = String.valueOf(info.timeMillis);
+            pv = info.pvString();
+        }
+        String[] values = {
+            String.valueOf(seq), id, fen, String.valueOf(multiPv), best, san, score, mate, depth,
+            String.valueOf(nodeCount), ms, pv, error
+        };
+        if (json) {
+            sb.append('{');
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append('"').append(COLUMNS[i]).append("\":");
+                if (!NUMERIC[i]) sb.append('"').append(jsonEscape(values[i])).append('"');
+                else sb.append(values[i].isEmpty() ? "null" : values[i]);
+            }
+            sb.append("}\n");
+        } else {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(csvEscape(values[i]));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String csvEscape(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonEscape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package tools;
+
+import ai.OpeningBook;
+import controller.Game;
+import controller.GameCodec;
+import controller.PgnGame;
+import controller.PgnReader;
+import controller.San;
+import controller.Zobrist;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import model.board.Move;
+
+/**
+ * Gera um livro de aberturas (formato de ai.OpeningBook) a partir de um arquivo PGN.
+ *
+ * Cada lance dos primeiros N meios-lances de cada partida recebe pontos do ponto de vista
+ * de quem o jogou: 2 por vitória, 1 por empate. Lances vistos menos de minCount vezes ou
+ * sem pontos são descartados; os pesos são reduzidos proporcionalmente se passarem de 65535.
+ *
+ * Uso: java tools.BookBuilder partidas.pgn book.bin [maxPly=20] [minCount=1]
+ */
+public class BookBuilder {
+
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: java tools.BookBuilder partidas.pgn book.bin [maxPly] [minCount]");
+            System.exit(2);
+        }
+        int maxPly = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int minCount = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        long start = System.nanoTime();
+
+        // chave -> (código do lance -> {vezes, pontos})
+        Map<Long, Map<Integer, long[]>> stats = new HashMap<>();
+        long games = 0, errors = 0;
+        try (PgnReader reader = new PgnReader(new BufferedReader(
+                new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8)))) {
+            for (PgnGame pg; (pg = reader.next()) != null; ) {
+                games++;
+                if (pg.tag("FEN") != null) continue; // só partidas da posição inicial
+                int whitePoints, blackPoints;
+                switch (pg.result()) {
+                    case "1-0": whitePoints = 2; blackPoints = 0; break;
+                    case "0-1": whitePoints = 0; blackPoints = 2; break;
+                    case "1/2-1/2": whitePoints = 1; blackPoints = 1; break;
+                    default: continue; // resultado desconhecido não ensina nada
+                }
+                try {
+                    Game g = new Game();
+                    List<String> moves = pg.moves();
+                    for (int i = 0; i < moves.size() && i < maxPly; i++) {
+                        Move m = San.resolve(g, moves.get(i));
+                        long key = Zobrist.hash(g);
+                        int code = GameCodec.encodeMove(m);
+                        long[] s = stats.computeIfAbsent(key, k -> new HashMap<>())
+                                .computeIfAbsent(code, k -> new long[2]);
+                        s[0]++;
+                        s[1] += g.whiteToMove() ? whitePoints : blackPoints;
+                        g.move(m.getFrom(), m.getTo(), m.getPromotion());
+                    }
+                } catch (IllegalArgumentException e) {
+                    errors++;
+                }
+            }
+        }
+
+        // Registros filtrados e maior peso, para a escala
+        List<long[]> records = new ArrayList<>(); // {chave, código, pontos}
+        long maxPoints = 0;
+        for (Map.Entry<Long, Map<Integer, long[]>> e : stats.entrySet()) {
+            for (Map.Entry<Integer, long[]> me : e.getValue().entrySet()) {
+                long[] s = me.getValue();
+                if (s[0] < minCount || s[1] == 0) continue;
+                records.add(new long[] { e.getKey(), me.getKey(), s[1] });
+                maxPoints = Math.max(maxPoints, s[1]);
+            }
+        }
+        records.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(args[1]), 1 << 16))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeLong(records.size());
+            for (long[] r : records) {
+                long w = maxPoints > MAX_WEIGHT ? Math.max(1, r[2] * MAX_WEIGHT / maxPoints) : r[2];
+                out.writeLong(r[0]);
+                out.writeShort((int) r[1]);
+                out.writeShort((int) w);
+            }
+        }
+
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Partidas: %d (erros: %d)  posições: %d  registros: %d%n",
+                games, errors, stats.size(), records.size());
+        System.out.printf("Livro gravado em %s (%d bytes) em %.2f s%n", args[1],
+                OpeningBook.HEADER_SIZE + (long) records.size() * OpeningBook.RECORD_SIZE, secs);
+    }
+}
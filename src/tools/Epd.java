@@ -0,0 +1,111 @@
+package tools;
+
+import controller.Fen;
+import controller.Game;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uma linha EPD (ou FEN) já separada em posição e operações.
+ *
+ * EPD: as 4 primeiras colunas do FEN seguidas de operações "opcode operandos;", ex.:
+ *   r1b1k2r/ppppnppp/2n2q2/2b5/3NP3/2P1B3/PP3PPP/RN1QKB1R w KQkq - bm Nxc6; id "WAC.010";
+ * Uma linha FEN completa (com os contadores de meios-lances e lances) também é aceita, com ou
+ * sem operações depois. Operandos entre aspas podem conter espaços e ';'.
+ */
+public final class Epd {
+
+    private final String fen;
+    private final Map<String, String> ops;
+
+    private Epd(String fen, Map<String, String> ops) {
+        this.fen = fen;
+        this.ops = ops;
+    }
+
+    /**
+     * Separa a linha; não valida a posição (use toGame).
+     * @throws IllegalArgumentException se faltarem colunas da posição
+     */
+    public static Epd parse(String line) {
+        String[] f = line.trim().split("\\s+", 7);
+        if (f.length < 4) throw new IllegalArgumentException("EPD inválido: " + line);
+        String fen;
+        String rest;
+        if (f.length >= 6 && f[4].matches("\\d+") && f[5].matches("\\d+")) {
+            fen = String.join(" ", f[0], f[1], f[2], f[3], f[4], f[5]);
+            rest = f.length > 6 ? f[6] : "";
+        } else {
+            fen = String.join(" ", f[0], f[1], f[2], f[3]);
+            int start = 0;
+            for (int i = 0; i < 4; i++) {
+                start = line.indexOf(f[i], start) + f[i].length();
+            }
+            rest = line.substring(start);
+        }
+        return new Epd(fen, parseOps(rest));
+    }
+
+    /** True para linhas vazias ou comentários (#), que as ferramentas ignoram. */
+    public static boolean isBlank(String line) {
+        String t = line.trim();
+        return t.isEmpty() || t.startsWith("#");
+    }
+
+    // --------- Consulta ----------
+
+    /** Posição em FEN (4 colunas ou 6, como veio na linha). */
+    public String fen() { return fen; }
+
+    /** Operando de um opcode (ex.: "bm" -> "Nxc6 Qd5"), ou null se ausente. */
+    public String op(String opcode) { return ops.get(opcode); }
+
+    public Map<String, String> ops() { return Collections.unmodifiableMap(ops); }
+
+    /** Identificador da posição (opcode id), ou null. */
+    public String id() { return ops.get("id"); }
+
+    /** Operandos de um opcode separados por espaço (ex.: os lances de bm); vazio se ausente. */
+    public List<String> operands(String opcode) {
+        String v = ops.get(opcode);
+        List<String> out = new ArrayList<>();
+        if (v == null) return out;
+        for (String s : v.trim().split("\\s+")) {
+            if (!s.isEmpty()) out.add(s);
+        }
+        return out;
+    }
+
+    /** Novo Game na posição. @throws IllegalArgumentException se o FEN for inválido */
+    public Game toGame() {
+        return Fen.load(fen);
+    }
+
+    // --------- Operações ----------
+
+    private static Map<String, String> parseOps(String s) {
+        Map<String, String> ops = new LinkedHashMap<>();
+        int i = 0, n = s.length();
+        while (i < n) {
+            while (i < n && (Character.isWhitespace(s.charAt(i)) || s.charAt(i) == ';')) i++;
+            if (i >= n) break;
+            int start = i;
+            while (i < n && !Character.isWhitespace(s.charAt(i)) && s.charAt(i) != ';') i++;
+            String opcode = s.substring(start, i);
+
+            StringBuilder operand = new StringBuilder();
+            boolean quoted = false;
+            for (; i < n; i++) {
+                char c = s.charAt(i);
+                if (c == '"') quoted = !quoted;
+                else if (c == ';' && !quoted) break;
+                else operand.append(c);
+            }
+            ops.put(opcode, operand.toString().trim());
+        }
+        return ops;
+    }
+}
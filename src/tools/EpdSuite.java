@@ -0,0 +1,279 @@
+package tools;
+
+import ai.IAUtils;
+import ai.SearchControl;
+import ai.SearchEngine;
+import controller.Game;
+import controller.San;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import model.board.Move;
+
+/**
+ * Roda uma suíte de táticas EPD (WAC, STS...) com uma ou duas configurações do motor, lado a
+ * lado, e informa quantas posições cada uma resolve, o tempo e os nós até a solução.
+ *
+ * Uma posição é resolvida se o lance final está entre os de "bm" (e fora dos de "am"). O tempo
+ * e os nós até a solução são os da primeira iteração a partir da qual o motor só reportou lances
+ * corretos até o fim; se a troca para o lance certo aconteceu numa iteração interrompida, valem
+ * o tempo e os nós totais. Posições sem bm nem am e linhas inválidas são ignoradas (e contadas).
+ *
+ * Configurações no mesmo formato de tools.Match ("depth=6,time=0,hash=32"); -time e -depth
+ * sobrescrevem os limites das duas. O padrão é 1 thread: com mais posições em paralelo os
+ * tempos passam a depender da disputa por CPU (os nós não).
+ *
+ * Uso: java tools.EpdSuite suite.epd configA [configB] [-time ms] [-depth N] [-threads N]
+ *                          [-first N] [-quiet]
+ */
+public class EpdSuite {
+
+    /** Resultado de uma configuração numa posição. */
+    private static final class Result {
+        final boolean solved;
+        final String move;        // SAN do lance escolhido
+        final long millis;        // até a solução (resolvidas) ou total
+        final long nodes;         // idem
+        final int depth;
+
+        Result(boolean solved, String move, long millis, long nodes, int depth) {
+            this.solved = solved;
+            this.move = move;
+            this.millis = millis;
+            this.nodes = nodes;
+            this.depth = depth;
+        }
+    }
+
+    private final Match.Config[] configs;
+    private final List<Epd> positions;
+    private final boolean quiet;
+    private final ThreadLocal<SearchEngine[]> engines;
+
+    // Impressão em ordem (guardado por "this")
+    private final Result[][] results;
+    private int nextToPrint;
+
+    private EpdSuite(Match.Config[] configs, List<Epd> positions, boolean quiet) {
+        this.configs = configs;
+        this.positions = positions;
+        this.quiet = quiet;
+        this.results = new Result[positions.size()][];
+        this.engines = ThreadLocal.withInitial(() -> {
+            SearchEngine[] e = new SearchEngine[this.configs.length];
+            for (int i = 0; i < e.length; i++) e[i] = this.configs[i].newEngine();
+            return e;
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: java tools.EpdSuite suite.epd configA [configB] [-time ms] [-depth N] "
+                    + "[-threads N] [-first N] [-quiet]");
+            System.exit(2);
+        }
+        List<String> specs = new ArrayList<>();
+        int i = 1;
+        for (; i < args.length && !args[i].startsWith("-"); i++) specs.add(args[i]);
+        if (specs.size() > 2) throw new IllegalArgumentException("No máximo duas configurações");
+
+        long time = -1;
+        int depth = 0, threads = 1, first = Integer.MAX_VALUE;
+        boolean quiet = false;
+        for (; i < args.length; i++) {
+            switch (args[i]) {
+                case "-time": time = Long.parseLong(args[++i]); break;
+                case "-depth": depth = Integer.parseInt(args[++i]); break;
+                case "-threads": threads = Math.max(1, Integer.parseInt(args[++i])); break;
+                case "-first": first = Integer.parseInt(args[++i]); break;
+                case "-quiet": quiet = true; break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+
+        Match.Config[] configs = new Match.Config[specs.size()];
+        for (int k = 0; k < configs.length; k++) {
+            configs[k] = Match.Config.parse(specs.get(k));
+            if (time >= 0) configs[k].limits = configs[k].limits.withTime(time);
+            if (depth > 0) configs[k].limits = configs[k].limits.withDepth(depth);
+            System.out.printf("%c: %s (%s)%n", (char) ('A' + k), specs.get(k), configs[k].limits);
+        }
+        List<Epd> positions = load(args[0], first);
+        System.out.printf("%d posições, %d threads%n%n", positions.size(), threads);
+        new EpdSuite(configs, positions, quiet).run(threads);
+    }
+
+    private static List<Epd> load(String file, int first) throws IOException {
+        List<Epd> out = new ArrayList<>();
+        int skipped = 0, bad = 0;
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+            if (Epd.isBlank(line)) continue;
+            Epd epd;
+            try {
+                epd = Epd.parse(line);
+            } catch (IllegalArgumentException e) {
+                if (bad++ < 5) System.err.println("Linha ignorada (" + e.getMessage() + "): " + line);
+                continue;
+            }
+            if (epd.op("bm") == null && epd.op("am") == null) {
+                skipped++;
+                continue;
+            }
+            if (out.size() < first) out.add(epd);
+        }
+        if (skipped > 0) System.out.printf("%d posições sem bm/am ignoradas%n", skipped);
+        if (bad > 0) System.out.printf("%d linhas inválidas ignoradas%n", bad);
+        if (out.isEmpty()) throw new IllegalArgumentException("Nenhuma posição com bm/am em " + file);
+        return out;
+    }
+
+    private void run(int threads) throws InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int p = 0; p < positions.size(); p++) {
+            final int index = p;
+            pool.execute(() -> {
+                Result[] r = new Result[configs.length];
+                SearchEngine[] e = engines.get();
+                for (int k = 0; k < configs.length; k++) r[k] = solve(e[k], positions.get(index));
+                record(index, r);
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+        System.out.println();
+        summary();
+        System.out.printf("Tempo total: %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    // --------- Posição ----------
+
+    private Result solve(SearchEngine engine, Epd epd) {
+        Game game;
+        List<Move> best = new ArrayList<>(), avoid = new ArrayList<>();
+        try {
+            game = epd.toGame();
+            for (String san : epd.operands("bm")) best.add(San.resolve(game, san));
+            for (String san : epd.operands("am")) avoid.add(San.resolve(game, san));
+        } catch (IllegalArgumentException e) {
+            return new Result(false, "erro: " + e.getMessage(), 0, 0, 0);
+        }
+
+        // Início da sequência final de iterações corretas (tempo, nós); -1 = a última estava errada
+        final long[] since = { -1, -1 };
+        SearchControl control = new SearchControl(info -> {
+            if (info.pv.isEmpty()) return;
+            if (!correct(info.pv.get(0), best, avoid)) since[0] = since[1] = -1;
+            else if (since[0] < 0) {
+                since[0] = info.timeMillis;
+                since[1] = info.nodes;
+            }
+        });
+        engine.clearHash();
+        long t0 = System.currentTimeMillis();
+        Move move = engine.makeMove(game, control);
+        long elapsed = System.currentTimeMillis() - t0;
+        if (move == null) return new Result(false, "-", elapsed, engine.getNodes(), 0);
+
+        boolean solved = correct(move, best, avoid);
+        String san = San.toSan(game, move.getFrom(), move.getTo(), move.getPromotion())
+                + San.checkSuffix(IAUtils.play(game, move));
+        if (solved && since[0] >= 0) {
+            return new Result(true, san, since[0], since[1], engine.getLastDepth());
+        }
+        return new Result(solved, san, elapsed, engine.getNodes(), engine.getLastDepth());
+    }
+
+    private static boolean correct(Move m, List<Move> best, List<Move> avoid) {
+        for (Move a : avoid) {
+            if (same(m, a)) return false;
+        }
+        if (best.isEmpty()) return true;
+        for (Move b : best) {
+            if (same(m, b)) return true;
+        }
+        return false;
+    }
+
+    /** Mesma origem, destino e promoção (promoção ausente conta como dama). */
+    private static boolean same(Move x, Move y) {
+        return x.getFrom().equals(y.getFrom()) && x.getTo().equals(y.getTo())
+                && Objects.equals(promotion(x), promotion(y));
+    }
+
+    private static Character promotion(Move m) {
+        Character p = m.getPromotion();
+        return p == null ? null : Character.toUpperCase(p);
+    }
+
+    // --------- Relatório ----------
+
+    private synchronized void record(int index, Result[] r) {
+        results[index] = r;
+        for (; nextToPrint < results.length && results[nextToPrint] != null; nextToPrint++) {
+            if (!quiet) System.out.println(line(nextToPrint, results[nextToPrint]));
+        }
+    }
+
+    private String line(int index, Result[] r) {
+        Epd epd = positions.get(index);
+        String target = epd.op("bm") != null ? "bm " + epd.op("bm") : "am " + epd.op("am");
+        StringBuilder sb = new StringBuilder(String.format("%4d %-14s %-14s",
+                index + 1, epd.id() != null ? epd.id() : "", target));
+        for (int k = 0; k < r.length; k++) {
+            sb.append(String.format(" | %c %s %-8s %8.2f s %,12d nós d%-2d", (char) ('A' + k),
+                    r[k].solved ? "ok" : "--", r[k].move, r[k].millis / 1000.0, r[k].nodes, r[k].depth));
+        }
+        return sb.toString();
+    }
+
+    private void summary() {
+        int n = positions.size();
+        for (int k = 0; k < configs.length; k++) {
+            int solved = 0;
+            long millis = 0, nodes = 0;
+            for (Result[] r : results) {
+                if (!r[k].solved) continue;
+                solved++;
+                millis += r[k].millis;
+                nodes += r[k].nodes;
+            }
+            System.out.printf("%c: %d/%d resolvidas (%.1f%%)", (char) ('A' + k), solved, n, 100.0 * solved / n);
+            if (solved > 0) {
+                System.out.printf(", até a solução: %.2f s no total, média %.0f ms e %,d nós",
+                        millis / 1000.0, (double) millis / solved, nodes / solved);
+            }
+            System.out.println();
+        }
+        if (configs.length == 2) {
+            int onlyA = 0, onlyB = 0;
+            long timeA = 0, timeB = 0, nodesA = 0, nodesB = 0;
+            int both = 0;
+            for (Result[] r : results) {
+                if (r[0].solved && !r[1].solved) onlyA++;
+                if (r[1].solved && !r[0].solved) onlyB++;
+                if (r[0].solved && r[1].solved) {
+                    both++;
+                    timeA += r[0].millis;
+                    timeB += r[1].millis;
+                    nodesA += r[0].nodes;
+                    nodesB += r[1].nodes;
+                }
+            }
+            System.out.printf("Só A: %d  só B: %d  ambas: %d%n", onlyA, onlyB, both);
+            if (both > 0) {
+                // Nas posições que as duas resolvem a comparação de velocidade é justa
+                System.out.printf("Nas resolvidas por ambas: tempo B/A %.2fx, nós B/A %.2fx%n",
+                        (double) timeB / Math.max(1, timeA), (double) nodesB / Math.max(1, nodesA));
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package tools;
+
+import ai.IAUtils;
+import ai.Nnue;
+import ai.SearchEngine;
+import ai.SearchLimits;
+import controller.Game;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+import model.board.Move;
+
+/**
+ * Microbenchmark das avaliações: avaliação escrita à mão (IAUtils.evaluate), rede reconstruída
+ * do zero (Accumulator.refresh) e rede com atualização incremental a partir do pai
+ * (Accumulator.update), que é o caminho usado pela busca.
+ *
+ * As posições vêm de partidas com lances aleatórios (semente fixa); cada uma guarda o pai, o
+ * lance e o filho, e o acumulador do pai já pronto. Cada medida roda rodadas de aquecimento (JIT)
+ * e depois rodadas medidas, e informa a mediana e a melhor em avaliações/s. As notas são somadas
+ * e impressas para o JIT não descartar o trabalho.
+ *
+ * Sem -nnue usa uma rede de pesos aleatórios do tamanho -hidden (a velocidade não depende dos
+ * valores). Com -search N também compara nós/s da busca até a profundidade N com e sem a rede.
+ *
+ * Uso: java tools.EvalBench [-nnue rede.nnue] [-hidden 64] [-positions 4000] [-warmup 5]
+ *                           [-rounds 10] [-search N] [-seed 1]
+ */
+public class EvalBench {
+
+    private final Nnue net;
+    private final Game[] parents, children;
+    private final Move[] moves;
+    private final Nnue.Accumulator[] parentAcc;
+    private final Nnue.Accumulator scratch;
+
+    private EvalBench(Nnue net, int positions, long seed) {
+        this.net = net;
+        parents = new Game[positions];
+        children = new Game[positions];
+        moves = new Move[positions];
+        parentAcc = new Nnue.Accumulator[positions];
+        scratch = net.newAccumulator();
+        Random rnd = new Random(seed);
+        Game game = new Game();
+        for (int i = 0; i < positions; ) {
+            List<Move> legal = IAUtils.legalMoves(game);
+            if (legal.isEmpty() || game.isGameOver() || game.fullmoveNumber() > 80) {
+                game = new Game();
+                continue;
+            }
+            Move m = legal.get(rnd.nextInt(legal.size()));
+            Game child = IAUtils.play(game, m);
+            parents[i] = game;
+            children[i] = child;
+            moves[i] = m;
+            parentAcc[i] = net.newAccumulator();
+            parentAcc[i].refresh(game);
+            i++;
+            game = child;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String file = null;
+        int hidden = 64, positions = 4000, warmup = 5, rounds = 10, search = 0;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-nnue": file = args[++i]; break;
+                case "-hidden": hidden = Integer.parseInt(args[++i]); break;
+                case "-positions": positions = Integer.parseInt(args[++i]); break;
+                case "-warmup": warmup = Integer.parseInt(args[++i]); break;
+                case "-rounds": rounds = Math.max(1, Integer.parseInt(args[++i])); break;
+                case "-search": search = Integer.parseInt(args[++i]); break;
+                case "-seed": seed = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+        if (positions <= 0) throw new IllegalArgumentException("-positions deve ser positivo");
+        Nnue net = file != null ? Nnue.load(Paths.get(file)) : Nnue.random(hidden, seed);
+        System.out.printf("Rede 768 -> 2x%d -> 1 (%s), %d posições, %d+%d rodadas%n",
+                net.hidden(), file != null ? file : "pesos aleatórios", positions, warmup, rounds);
+
+        EvalBench bench = new EvalBench(net, positions, seed);
+        bench.measure("escrita à mão", i -> IAUtils.evaluate(bench.children[i]), warmup, rounds);
+        bench.measure("rede (refresh)", bench::refresh, warmup, rounds);
+        bench.measure("rede (incremental)", bench::incremental, warmup, rounds);
+        if (search > 0) bench.search(search);
+    }
+
+    // --------- Avaliações ----------
+
+    private int refresh(int i) {
+        scratch.refresh(children[i]);
+        return net.evaluate(scratch, children[i].whiteToMove());
+    }
+
+    private int incremental(int i) {
+        scratch.update(parentAcc[i], parents[i], children[i], moves[i].getFrom(), moves[i].getTo());
+        return net.evaluate(scratch, children[i].whiteToMove());
+    }
+
+    private void measure(String name, IntUnaryOperator eval, int warmup, int rounds) {
+        long sink = 0;
+        for (int r = 0; r < warmup; r++) sink += pass(eval);
+        double[] rates = new double[rounds];
+        for (int r = 0; r < rounds; r++) {
+            long t0 = System.nanoTime();
+            sink += pass(eval);
+            rates[r] = children.length / ((System.nanoTime() - t0) / 1e9);
+        }
+        Arrays.sort(rates);
+        System.out.printf("%-20s mediana %,12.0f aval/s  melhor %,12.0f aval/s  (soma %d)%n",
+                name, rates[rounds / 2], rates[rounds - 1], sink);
+    }
+
+    private long pass(IntUnaryOperator eval) {
+        long sum = 0;
+        for (int i = 0; i < children.length; i++) sum += eval.applyAsInt(i);
+        return sum;
+    }
+
+    // --------- Busca ----------
+
+    /** Nós/s da busca em algumas posições sem e com a rede (uma passada de aquecimento de cada). */
+    private void search(int depth) {
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < children.length && games.size() < 8; i += Math.max(1, children.length / 8)) {
+            if (!children[i].isGameOver()) games.add(children[i]);
+        }
+        SearchLimits limits = new SearchLimits(depth, 0, 0, 0, true);
+        SearchEngine[] engines = { new SearchEngine(limits), new SearchEngine(limits) };
+        engines[1].setNnue(net);
+        for (SearchEngine engine : engines) searchAll(engine, games);   // aquecimento dos dois
+        for (SearchEngine engine : engines) {
+            Nnue n = engine.getNnue();
+            long t0 = System.nanoTime();
+            long nodes = searchAll(engine, games);
+            double secs = (System.nanoTime() - t0) / 1e9;
+            System.out.printf("busca d%d %-14s %,10d nós em %.2f s  ->  %,.0f nós/s%n", depth,
+                    n == null ? "escrita à mão" : "rede", nodes, secs, nodes / secs);
+        }
+    }
+
+    private static long searchAll(SearchEngine engine, List<Game> games) {
+        long nodes = 0;
+        for (Game g : games) {
+            engine.clearHash();
+            engine.makeMove(g);
+            nodes += engine.getNodes();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,124 @@
+package tools;
+
+import ai.IAUtils;
+import controller.Fen;
+import controller.Game;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import model.board.Move;
+import server.LatencyHistogram;
+import uci.Uci;
+
+/**
+ * Gerador de carga para o server.GameServer: abre muitas sessões (mede a memória por sessão
+ * ociosa) e depois joga partidas em paralelo, alternando lances aleatórios do "cliente" com
+ * lances da IA, medindo a latência p50/p99 do lado do cliente.
+ *
+ * Uso: java tools.LoadTest [url=http://127.0.0.1:8765] [sessões=2000] [clientes=32] [lances=10] [nível=0]
+ */
+public class LoadTest {
+
+    private static final Pattern FEN = Pattern.compile("\"fen\":\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\":\"([^\"]+)\"");
+    private static final Pattern STATUS = Pattern.compile("\"status\":\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://127.0.0.1:8765";
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        int moves = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int level = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+
+        // O cliente HTTP tem executor próprio: as threads do pool ficam bloqueadas em send()
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        HttpClient http = HttpClient.newHttpClient();
+
+        System.out.println("Antes: " + get(http, url + "/stats?gc=1"));
+
+        // 1) Sessões ociosas
+        long t0 = System.nanoTime();
+        List<String> ids = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            ids.add(match(ID, post(http, url + "/games?level=" + level)));
+        }
+        System.out.printf("%d sessões criadas em %.2f s%n", sessions, (System.nanoTime() - t0) / 1e9);
+        System.out.println("Ociosas: " + get(http, url + "/stats?gc=1"));
+
+        // 2) Partidas em paralelo: cada cliente joga numa fatia das sessões
+        LatencyHistogram human = new LatencyHistogram(), ai = new LatencyHistogram();
+        AtomicInteger errors = new AtomicInteger(), busy = new AtomicInteger();
+        long t1 = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            pool.execute(() -> {
+                Random rnd = new Random(client);
+                for (int i = client; i < ids.size(); i += clients) {
+                    String id = ids.get(i);
+                    try {
+                        for (int k = 0; k < moves; k++) {
+                            String state = get(http, url + "/games/" + id);
+                            if (!"playing".equals(match(STATUS, state))) break;
+                            Game g = Fen.load(match(FEN, state));
+                            List<Move> legal = IAUtils.legalMoves(g);
+                            String uci = Uci.toUci(legal.get(rnd.nextInt(legal.size())));
+
+                            long s = System.nanoTime();
+                            String r = post(http, url + "/games/" + id + "/move?uci=" + uci);
+                            human.record(System.nanoTime() - s);
+                            if (!"playing".equals(match(STATUS, r))) break;
+
+                            s = System.nanoTime();
+                            r = post(http, url + "/games/" + id + "/ai");
+                            ai.record(System.nanoTime() - s);
+                            if (r.contains("\"error\"")) busy.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.DAYS);
+        double secs = (System.nanoTime() - t1) / 1e9;
+
+        long total = human.count() + ai.count();
+        System.out.printf("Lances: %d em %.2f s (%.0f req/s), erros %d, recusas %d%n",
+                total, secs, total / secs, errors.get(), busy.get());
+        System.out.printf("Cliente  lance p50 %.2f ms  p99 %.2f ms | IA p50 %.2f ms  p99 %.2f ms%n",
+                human.percentileMillis(50), human.percentileMillis(99),
+                ai.percentileMillis(50), ai.percentileMillis(99));
+        System.out.println("Servidor: " + get(http, url + "/stats?gc=1"));
+        for (String id : ids) send(http, HttpRequest.newBuilder(URI.create(url + "/games/" + id)).DELETE().build());
+        System.exit(0);
+    }
+
+    private static String get(HttpClient http, String url) throws Exception {
+        return send(http, HttpRequest.newBuilder(URI.create(url)).GET().build());
+    }
+
+    private static String post(HttpClient http, String url) throws Exception {
+        return send(http, HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    private static String send(HttpClient http, HttpRequest req) throws Exception {
+        return http.send(req, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static String match(Pattern p, String s) {
+        Matcher m = p.matcher(s);
+        if (!m.find()) throw new IllegalStateException("Resposta inesperada: " + s);
+        return m.group(1);
+    }
+}
@@ -0,0 +1,403 @@
+package tools;
+
+import ai.IA;
+import ai.Nnue;
+import ai.OpeningBook;
+import ai.SearchControl;
+import ai.SearchEngine;
+import ai.SearchLimits;
+import ai.Tablebase;
+import controller.Fen;
+import controller.Game;
+import controller.San;
+import controller.TranspositionTable;
+import controller.Zobrist;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import model.board.Move;
+import model.board.Position;
+import model.pieces.Bishop;
+import model.pieces.King;
+import model.pieces.Knight;
+import model.pieces.Piece;
+
+/**
+ * Torneio sem interface gráfica entre duas configurações de IA, com partidas em paralelo.
+ *
+ * Cada abertura é jogada duas vezes, com as cores trocadas. Ao final (ou periodicamente)
+ * mostra vitórias/empates/derrotas do primeiro motor, a diferença de Elo com intervalo de
+ * 95% e, com -sprt, o teste sequencial (SPRT) que encerra o torneio assim que H0 ou H1 é aceita.
+ *
+ * Configuração: lista "chave=valor" separada por vírgulas, por exemplo
+ *   "level=dificil,depth=5,nodes=20000,time=0,noise=0,quiescence=true,hash=8,book=book.bin,tb=tablebases"
+ * ("nnue=rede.nnue" avalia com a rede de ai.Nnue; "nnue=none" força a avaliação escrita à mão)
+ * ou "class=pacote.MinhaIA" para qualquer implementação de ai.IA com construtor sem argumentos.
+ *
+ * Uso: java tools.Match configA configB [-games 200] [-threads N] [-openings arquivo.fen]
+ *      [-sprt elo0,elo1] [-alpha 0.05] [-beta 0.05] [-maxplies 300]
+ */
+public class Match {
+
+    // Aberturas padrão (SAN a partir da posição inicial) quando não há arquivo
+    private static final String[] DEFAULT_OPENINGS = {
+        "e4 e5 Nf3 Nc6 Bb5 a6",
+        "e4 c5 Nf3 d6 d4 cxd4 Nxd4 Nf6 Nc3",
+        "e4 e6 d4 d5 Nc3 Nf6",
+        "e4 c6 d4 d5 e5 Bf5",
+        "d4 d5 c4 e6 Nc3 Nf6",
+        "d4 Nf6 c4 g6 Nc3 Bg7 e4 d6",
+        "d4 Nf6 c4 e6 Nc3 Bb4",
+        "c4 e5 Nc3 Nf6 g3",
+        "Nf3 d5 g3 Nf6 Bg2",
+        "e4 e5 Nf3 Nc6 Bc4 Bc5",
+        "d4 d5 c4 c6 Nf3 Nf6",
+        "e4 d5 exd5 Qxd5 Nc3 Qa5",
+    };
+
+    private final Config a, b;
+    private final int maxPlies;
+    private final Sprt sprt;
+
+    // Resultados do ponto de vista de A (acesso sincronizado)
+    private int wins, draws, losses;
+    private volatile boolean stop = false;
+
+    private Match(Config a, Config b, int maxPlies, Sprt sprt) {
+        this.a = a;
+        this.b = b;
+        this.maxPlies = maxPlies;
+        this.sprt = sprt;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: java tools.Match configA configB [-games N] [-threads N] "
+                    + "[-openings arquivo] [-sprt elo0,elo1] [-alpha a] [-beta b] [-maxplies N]");
+            System.exit(2);
+        }
+        int games = 200, threads = Runtime.getRuntime().availableProcessors(), maxPlies = 300;
+        String openingsFile = null;
+        double alpha = 0.05, beta = 0.05;
+        double[] sprtElo = null;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-games": games = Integer.parseInt(args[i + 1]); break;
+                case "-threads": threads = Math.max(1, Integer.parseInt(args[i + 1])); break;
+                case "-openings": openingsFile = args[i + 1]; break;
+                case "-maxplies": maxPlies = Integer.parseInt(args[i + 1]); break;
+                case "-alpha": alpha = Double.parseDouble(args[i + 1]); break;
+                case "-beta": beta = Double.parseDouble(args[i + 1]); break;
+                case "-sprt": {
+                    String[] e = args[i + 1].split(",");
+                    sprtElo = new double[] { Double.parseDouble(e[0]), Double.parseDouble(e[1]) };
+                    break;
+                }
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+
+        List<String> openings = loadOpenings(openingsFile);
+        Match match = new Match(Config.parse(args[0]), Config.parse(args[1]), maxPlies,
+                sprtElo != null ? new Sprt(sprtElo[0], sprtElo[1], alpha, beta) : null);
+        System.out.printf("A: %s%nB: %s%n%d partidas, %d aberturas, %d threads%n",
+                args[0], args[1], games, openings.size(), threads);
+        match.run(openings, games, threads);
+    }
+
+    private void run(List<String> openings, int games, int threads) throws InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int g = 0; g < games; g++) {
+            final String fen = openings.get((g / 2) % openings.size());
+            final boolean aIsWhite = g % 2 == 0;
+            pool.execute(() -> {
+                if (stop) return;
+                int result = play(fen, aIsWhite);
+                if (result != ABORTED) record(result);
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+        double secs = (System.nanoTime() - start) / 1e9;
+        synchronized (this) {
+            System.out.println();
+            System.out.println(summary());
+            if (sprt != null) System.out.println(sprt.describe(wins, draws, losses));
+            System.out.printf("Tempo: %.1f s (%.2f partidas/s)%n", secs, (wins + draws + losses) / secs);
+        }
+    }
+
+    private synchronized void record(int result) {
+        if (result > 0) wins++;
+        else if (result == 0) draws++;
+        else losses++;
+        int n = wins + draws + losses;
+        if (n % 10 == 0) System.out.println(summary());
+        if (sprt != null && !stop && sprt.decided(wins, draws, losses)) {
+            stop = true;
+            System.out.println(sprt.describe(wins, draws, losses));
+        }
+    }
+
+    // --------- Partida ----------
+
+    private static final int ABORTED = Integer.MIN_VALUE;
+
+    /** Joga uma partida; retorna +1/0/-1 do ponto de vista de A, ou ABORTED. */
+    private int play(String fen, boolean aIsWhite) {
+        IA white = (aIsWhite ? a : b).newPlayer();
+        IA black = (aIsWhite ? b : a).newPlayer();
+        Game game = Fen.load(fen);
+        Map<Long, Integer> seen = new HashMap<>();
+        seen.put(Zobrist.hash(game), 1);
+
+        for (int ply = 0; ply < maxPlies; ply++) {
+            if (stop) return ABORTED;
+            if (game.isGameOver()) {
+                if (!game.inCheck(game.whiteToMove())) return 0; // afogamento
+                boolean whiteWon = !game.whiteToMove();
+                return whiteWon == aIsWhite ? 1 : -1;
+            }
+            if (game.halfmoveClock() >= 100 || insufficientMaterial(game)) return 0;
+
+            boolean whiteMoves = game.whiteToMove();
+            Move m = (whiteMoves ? white : black).makeMove(game.snapshotShallow(), new SearchControl());
+            boolean legal = m != null && game.isLegal(m.getFrom(), m.getTo());
+            if (legal) {
+                game.move(m.getFrom(), m.getTo(), m.getPromotion());
+                legal = game.whiteToMove() != whiteMoves;
+            }
+            if (!legal) return whiteMoves == aIsWhite ? -1 : 1; // lance inválido perde
+
+            if (seen.merge(Zobrist.hash(game), 1, Integer::sum) >= 3) return 0; // repetição tripla
+        }
+        return 0; // limite de lances: empate por adjudicação
+    }
+
+    private static boolean insufficientMaterial(Game game) {
+        int minors = 0;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = game.board().get(Position.of(r, c));
+                if (p == null || p instanceof King) continue;
+                if (!(p instanceof Knight || p instanceof Bishop) || ++minors > 1) return false;
+            }
+        }
+        return true;
+    }
+
+    // --------- Estatística ----------
+
+    private String summary() {
+        int n = wins + draws + losses;
+        if (n == 0) return "Nenhuma partida concluída";
+        double score = (wins + draws / 2.0) / n;
+        String head = String.format("Partidas %d: +%d =%d -%d  pontuação %.1f%%",
+                n, wins, draws, losses, 100 * score);
+        if (score == 0 || score == 1) {
+            // Variância zero: o intervalo normal teria largura 0; só um lado tem limite
+            return String.format("%s  Elo %s∞ (95%%: %s %+.1f)", head, score == 1 ? "+" : "-",
+                    score == 1 ? ">" : "<", elo(wilsonBound(score, n)));
+        }
+        double[] elo = eloWithError(wins, draws, losses);
+        return String.format("%s  Elo %+.1f ± %.1f", head, elo[0], elo[1]);
+    }
+
+    /**
+     * Diferença de Elo de A e a meia largura do intervalo de 95%. Com pontuação 0% ou 100% o
+     * intervalo não tem limite: a meia largura é infinita (ver wilsonBound).
+     */
+    static double[] eloWithError(int w, int d, int l) {
+        int n = w + d + l;
+        double s = (w + d / 2.0) / n;
+        if (s == 0 || s == 1) {
+            return new double[] { s == 1 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+        }
+        double var = (w * sq(1 - s) + d * sq(0.5 - s) + l * sq(s)) / n;
+        double dev = 1.96 * Math.sqrt(var / n);
+        double elo = elo(s);
+        double hi = elo(Math.min(s + dev, 1 - 1e-9)), lo = elo(Math.max(s - dev, 1e-9));
+        return new double[] { elo, (hi - lo) / 2 };
+    }
+
+    /** Limite do intervalo de Wilson (95%) para a pontuação extrema s (0 ou 1) em n partidas. */
+    static double wilsonBound(double s, int n) {
+        double z2n = 1.96 * 1.96 / n;
+        return s == 1 ? 1 / (1 + z2n) : z2n / (1 + z2n);
+    }
+
+    private static double elo(double score) {
+        score = Math.max(1e-9, Math.min(1 - 1e-9, score));
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static double sq(double x) { return x * x; }
+
+    /**
+     * SPRT com a aproximação normal do modelo trinomial: H0 = elo0, H1 = elo1.
+     * LLR = n (s1 - s0) (2s - s0 - s1) / (2 var), com limites ln(beta/(1-alpha)) e ln((1-beta)/alpha).
+     */
+    private static final class Sprt {
+        final double elo0, elo1, lower, upper;
+
+        Sprt(double elo0, double elo1, double alpha, double beta) {
+            this.elo0 = elo0;
+            this.elo1 = elo1;
+            this.lower = Math.log(beta / (1 - alpha));
+            this.upper = Math.log((1 - beta) / alpha);
+        }
+
+        double llr(int w, int d, int l) {
+            if (w + d + l == 0) return 0;
+            // Com alguma categoria vazia a variância degenera (ex.: só vitórias): meia partida fictícia em cada
+            double pw = w, pd = d, pl = l;
+            if (w == 0 || d == 0 || l == 0) {
+                pw += 0.5;
+                pd += 0.5;
+                pl += 0.5;
+            }
+            double n = pw + pd + pl;
+            double s = (pw + pd / 2) / n;
+            double var = (pw * sq(1 - s) + pd * sq(0.5 - s) + pl * sq(s)) / n;
+            double s0 = expected(elo0), s1 = expected(elo1);
+            return n * (s1 - s0) * (2 * s - s0 - s1) / (2 * var);
+        }
+
+        boolean decided(int w, int d, int l) {
+            double llr = llr(w, d, l);
+            return llr <= lower || llr >= upper;
+        }
+
+        String describe(int w, int d, int l) {
+            double llr = llr(w, d, l);
+            String verdict = llr >= upper ? "H1 aceita (A é melhor)"
+                    : llr <= lower ? "H0 aceita (sem ganho)" : "indeciso";
+            return String.format("SPRT [%.1f, %.1f]: LLR %.2f (%.2f, %.2f) -> %s",
+                    elo0, elo1, llr, lower, upper, verdict);
+        }
+
+        private static double expected(double elo) {
+            return 1 / (1 + Math.pow(10, -elo / 400));
+        }
+    }
+
+    // --------- Configuração ----------
+
+    /**
+     * Uma configuração de jogador. Recursos somente leitura (livro, tablebases) são compartilhados.
+     * Também usada por EpdSuite.
+     */
+    static final class Config {
+        SearchLimits limits = SearchLimits.dificil();
+        int hashMb = 8;
+        OpeningBook book;
+        Tablebase tablebase;
+        Nnue nnue = Nnue.startup();
+        Class<? extends IA> type;
+
+        static Config parse(String spec) throws IOException {
+            Config c = new Config();
+            for (String part : spec.split(",")) {
+                if (part.isBlank()) continue;
+                int eq = part.indexOf('=');
+                if (eq < 0) throw new IllegalArgumentException("Esperado chave=valor: " + part);
+                String k = part.substring(0, eq).trim(), v = part.substring(eq + 1).trim();
+                SearchLimits l = c.limits;
+                switch (k) {
+                    case "level": c.limits = levelByName(v); break;
+                    case "depth": c.limits = l.withDepth(Integer.parseInt(v)); break;
+                    case "nodes": c.limits = l.withNodes(Long.parseLong(v)); break;
+                    case "time": c.limits = l.withTime(Long.parseLong(v)); break;
+                    case "noise": c.limits = l.withNoise(Integer.parseInt(v)); break;
+                    case "quiescence":
+                        c.limits = new SearchLimits(l.depth, l.nodes, l.timeMillis, l.evalNoise, Boolean.parseBoolean(v));
+                        break;
+                    case "hash": c.hashMb = Integer.parseInt(v); break;
+                    case "book": c.book = OpeningBook.open(Paths.get(v)); break;
+                    case "tb": c.tablebase = Tablebase.open(Paths.get(v)); break;
+                    case "nnue": c.nnue = v.equals("none") ? null : Nnue.load(Paths.get(v)); break;
+                    case "class":
+                        try {
+                            c.type = Class.forName(v).asSubclass(IA.class);
+                        } catch (ClassNotFoundException | ClassCastException e) {
+                            throw new IllegalArgumentException("Classe de IA inválida: " + v, e);
+                        }
+                        break;
+                    default: throw new IllegalArgumentException("Chave desconhecida: " + k);
+                }
+            }
+            return c;
+        }
+
+        private static SearchLimits levelByName(String v) {
+            switch (v.toLowerCase()) {
+                case "facil": return SearchLimits.facil();
+                case "medio": return SearchLimits.medio();
+                case "dificil": return SearchLimits.dificil();
+                default: return SearchLimits.forLevel(Integer.parseInt(v));
+            }
+        }
+
+        /** Jogador novo por partida: motores não são thread-safe e cada um tem sua tabela. */
+        IA newPlayer() {
+            if (type != null) {
+                try {
+                    return type.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Não foi possível criar " + type.getName(), e);
+                }
+            }
+            return newEngine();
+        }
+
+        /** Motor novo com os limites, a tabela, o livro e as tablebases da configuração. */
+        SearchEngine newEngine() {
+            if (type != null) throw new IllegalArgumentException("class= não é um SearchEngine: " + type.getName());
+            SearchEngine e = new SearchEngine(limits, new TranspositionTable(hashMb));
+            e.setBook(book);
+            e.setTablebase(tablebase);
+            e.setNnue(nnue);
+            return e;
+        }
+    }
+
+    // --------- Aberturas ----------
+
+    /** FEN/EPD por linha (as 4 primeiras colunas bastam); sem arquivo, usa a lista padrão. */
+    private static List<String> loadOpenings(String file) throws IOException {
+        List<String> out = new ArrayList<>();
+        if (file == null) {
+            for (String line : DEFAULT_OPENINGS) {
+                Game g = new Game();
+                for (String san : line.split(" ")) {
+                    Move m = San.resolve(g, san);
+                    g.move(m.getFrom(), m.getTo(), m.getPromotion());
+                }
+                out.add(Fen.toFen(g));
+            }
+            return out;
+        }
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split("\\s+");
+            String fen = f.length >= 6 && f[4].matches("\\d+") ? String.join(" ", Arrays.copyOf(f, 6))
+                    : String.join(" ", Arrays.copyOf(f, Math.min(4, f.length)));
+            Fen.load(fen); // valida
+            out.add(fen);
+        }
+        if (out.isEmpty()) throw new IllegalArgumentException("Nenhuma abertura em " + file);
+        return out;
+    }
+}
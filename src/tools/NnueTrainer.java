@@ -0,0 +1,325 @@
+package tools;
+
+import ai.IAUtils;
+import ai.Nnue;
+import controller.Fen;
+import controller.Game;
+import controller.Zobrist;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import model.board.Board;
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Treina a rede de ai.Nnue (768 -> 2 x H -> 1) com posições locais e grava os pesos quantizados
+ * em int16 no formato de Nnue.load.
+ *
+ * Mesma entrada de tools.Tuner: posições com resultado (FEN/EPD com 1-0, 0-1, 1/2-1/2) ou as
+ * posições quietas de um PGN. O alvo de cada posição, do ponto de vista de quem joga, mistura o
+ * resultado da partida e a avaliação escrita à mão (IAUtils.evaluate) convertidos em pontuação
+ * esperada: alvo = lambda * sigmoide(avaliação) + (1 - lambda) * resultado, com
+ * sigmoide(x) = 1 / (1 + 10^(-x/400)). Com poucas partidas, lambda perto de 1 faz a rede
+ * aprender primeiro a avaliação atual e o resultado só corrige.
+ *
+ * Treino em ponto flutuante (Adam, mini-lotes, uma thread) com os pesos da primeira camada
+ * limitados a +-WEIGHT_CLIP, para a soma de 32 colunas quantizadas (x QA) caber em int16.
+ * As posições ficam empacotadas (até 32 features de 2 bytes por posição); 1 em cada 10 fica de
+ * validação. Ao final compara a rede em float com a quantizada (diferença média em centipawns).
+ *
+ * Uso: java tools.NnueTrainer dados.epd|partidas.pgn [-out rede.nnue] [-hidden 64] [-epochs 20]
+ *                             [-lr 0.001] [-batch 256] [-lambda 0.7] [-skip 8] [-seed 1]
+ */
+public class NnueTrainer {
+
+    private static final int VALIDATION_EVERY = 10;
+    private static final float WEIGHT_CLIP = 1.98f;
+    private static final double LN10 = Math.log(10);
+
+    // --------- Posições empacotadas ----------
+
+    /** features[i * 32 ..] = features pelas brancas (fim em -1), alvo do lado a jogar. */
+    static final class Samples {
+        short[] features = new short[32 << 10];
+        float[] target = new float[1 << 10];
+        boolean[] whiteToMove = new boolean[1 << 10];
+        int size;
+
+        void add(Game game, float t) {
+            if (size == target.length) {
+                features = Arrays.copyOf(features, features.length * 2);
+                target = Arrays.copyOf(target, target.length * 2);
+                whiteToMove = Arrays.copyOf(whiteToMove, whiteToMove.length * 2);
+            }
+            int at = size * 32, n = 0;
+            Board board = game.board();
+            for (int sq = 0; sq < 64 && n < 32; sq++) {
+                Piece p = board.get(Position.of(sq >>> 3, sq & 7));
+                if (p != null) features[at + n++] = (short) Nnue.whiteFeature(Zobrist.pieceIndex(p), sq);
+            }
+            if (n < 32) features[at + n] = -1;
+            target[size] = t;
+            whiteToMove[size++] = game.whiteToMove();
+        }
+    }
+
+    // --------- Rede em float ----------
+
+    private final int hidden;
+    private final float[] w1, b1, w2;   // w1[feature * H + h], w2[0..2H)
+    private float b2;
+    // Gradientes e momentos de Adam (mesmo layout)
+    private final float[] g1, gb1, g2, m1, v1, mb1, vb1, m2, v2;
+    private float gb2, mb2, vb2;
+    // Rascunho de uma posição (sem alocar no laço)
+    private final float[] accW, accB, dAccW, dAccB;
+    private final int[] fw = new int[32], fb = new int[32];
+
+    private NnueTrainer(int hidden, long seed) {
+        this.hidden = hidden;
+        Random rnd = new Random(seed);
+        w1 = new float[Nnue.INPUTS * hidden];
+        b1 = new float[hidden];
+        w2 = new float[2 * hidden];
+        for (int i = 0; i < w1.length; i++) w1[i] = (float) (rnd.nextGaussian() * 0.05);
+        for (int i = 0; i < b1.length; i++) b1[i] = 0.1f;
+        for (int i = 0; i < w2.length; i++) w2[i] = (float) (rnd.nextGaussian() * 0.1);
+        g1 = new float[w1.length]; m1 = new float[w1.length]; v1 = new float[w1.length];
+        gb1 = new float[hidden]; mb1 = new float[hidden]; vb1 = new float[hidden];
+        g2 = new float[w2.length]; m2 = new float[w2.length]; v2 = new float[w2.length];
+        accW = new float[hidden]; accB = new float[hidden];
+        dAccW = new float[hidden]; dAccB = new float[hidden];
+    }
+
+    /** Saída da rede (em unidades de SCALE centipawns) do ponto de vista de quem joga. */
+    private float forward(Samples s, int i) {
+        int base = i * 32, n = 0;
+        for (; n < 32 && s.features[base + n] >= 0; n++) {
+            int f = s.features[base + n];
+            fw[n] = f;
+            fb[n] = Nnue.blackFeature(f / 64, f % 64);
+        }
+        System.arraycopy(b1, 0, accW, 0, hidden);
+        System.arraycopy(b1, 0, accB, 0, hidden);
+        for (int k = 0; k < n; k++) {
+            int ow = fw[k] * hidden, ob = fb[k] * hidden;
+            for (int h = 0; h < hidden; h++) {
+                accW[h] += w1[ow + h];
+                accB[h] += w1[ob + h];
+            }
+        }
+        float[] us = s.whiteToMove[i] ? accW : accB, them = s.whiteToMove[i] ? accB : accW;
+        float out = b2;
+        for (int h = 0; h < hidden; h++) {
+            out += w2[h] * clamp(us[h]) + w2[hidden + h] * clamp(them[h]);
+        }
+        return out;
+    }
+
+    /** Acumula o gradiente da posição i (forward já feito); devolve o erro quadrático. */
+    private double backward(Samples s, int i, float out, int features) {
+        double p = 1 / (1 + Math.pow(10, -out));
+        double diff = p - s.target[i];
+        float dOut = (float) (2 * diff * p * (1 - p) * LN10);
+        boolean white = s.whiteToMove[i];
+        float[] us = white ? accW : accB, them = white ? accB : accW;
+        float[] dUs = white ? dAccW : dAccB, dThem = white ? dAccB : dAccW;
+        for (int h = 0; h < hidden; h++) {
+            g2[h] += dOut * clamp(us[h]);
+            g2[hidden + h] += dOut * clamp(them[h]);
+            dUs[h] = us[h] > 0 && us[h] < 1 ? dOut * w2[h] : 0;
+            dThem[h] = them[h] > 0 && them[h] < 1 ? dOut * w2[hidden + h] : 0;
+            gb1[h] += dAccW[h] + dAccB[h];
+        }
+        gb2 += dOut;
+        for (int k = 0; k < features; k++) {
+            int ow = fw[k] * hidden, ob = fb[k] * hidden;
+            for (int h = 0; h < hidden; h++) {
+                g1[ow + h] += dAccW[h];
+                g1[ob + h] += dAccB[h];
+            }
+        }
+        return diff * diff;
+    }
+
+    private static float clamp(float x) {
+        return x < 0 ? 0 : x > 1 ? 1 : x;
+    }
+
+    private static int count(Samples s, int i) {
+        int n = 0;
+        while (n < 32 && s.features[i * 32 + n] >= 0) n++;
+        return n;
+    }
+
+    private double epoch(Samples train, int[] order, int batch, float lr, int[] step) {
+        double err = 0;
+        for (int startIdx = 0; startIdx < train.size; startIdx += batch) {
+            int end = Math.min(train.size, startIdx + batch);
+            for (int j = startIdx; j < end; j++) {
+                int i = order[j];
+                float out = forward(train, i);
+                err += backward(train, i, out, count(train, i));
+            }
+            adam(end - startIdx, lr, ++step[0]);
+        }
+        return err / train.size;
+    }
+
+    private void adam(int n, float lr, int t) {
+        float b1m = 0.9f, b2m = 0.999f, eps = 1e-8f;
+        float c1 = (float) (1 - Math.pow(b1m, t)), c2 = (float) (1 - Math.pow(b2m, t));
+        float scale = 1f / n;
+        adam(w1, g1, m1, v1, lr, scale, b1m, b2m, c1, c2, eps, WEIGHT_CLIP);
+        adam(b1, gb1, mb1, vb1, lr, scale, b1m, b2m, c1, c2, eps, WEIGHT_CLIP);
+        adam(w2, g2, m2, v2, lr, scale, b1m, b2m, c1, c2, eps, 100f);
+        float g = gb2 * scale;
+        mb2 = b1m * mb2 + (1 - b1m) * g;
+        vb2 = b2m * vb2 + (1 - b2m) * g * g;
+        b2 -= lr * (mb2 / c1) / ((float) Math.sqrt(vb2 / c2) + eps);
+        gb2 = 0;
+    }
+
+    private static void adam(float[] w, float[] g, float[] m, float[] v, float lr, float scale,
+                             float b1m, float b2m, float c1, float c2, float eps, float clip) {
+        for (int j = 0; j < w.length; j++) {
+            float gj = g[j] * scale;
+            if (gj == 0 && m[j] == 0) continue; // feature ausente no lote e sem momento
+            m[j] = b1m * m[j] + (1 - b1m) * gj;
+            v[j] = b2m * v[j] + (1 - b2m) * gj * gj;
+            float x = w[j] - lr * (m[j] / c1) / ((float) Math.sqrt(v[j] / c2) + eps);
+            w[j] = Math.max(-clip, Math.min(clip, x));
+            g[j] = 0;
+        }
+    }
+
+    private double validationError(Samples s) {
+        double err = 0;
+        for (int i = 0; i < s.size; i++) {
+            double p = 1 / (1 + Math.pow(10, -forward(s, i)));
+            err += (p - s.target[i]) * (p - s.target[i]);
+        }
+        return s.size == 0 ? Double.NaN : err / s.size;
+    }
+
+    private Nnue quantize() {
+        short[] qw1 = new short[w1.length], qb1 = new short[hidden], qw2 = new short[w2.length];
+        for (int j = 0; j < w1.length; j++) qw1[j] = (short) Math.round(w1[j] * Nnue.QA);
+        for (int j = 0; j < hidden; j++) qb1[j] = (short) Math.round(b1[j] * Nnue.QA);
+        for (int j = 0; j < w2.length; j++) {
+            qw2[j] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(w2[j] * Nnue.QB)));
+        }
+        return Nnue.of(hidden, qw1, qb1, qw2, Math.round(b2 * Nnue.QA * Nnue.QB));
+    }
+
+    // --------- Entrada ----------
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Uso: java tools.NnueTrainer dados.epd|partidas.pgn [-out rede.nnue] [-hidden 64] "
+                    + "[-epochs 20] [-lr 0.001] [-batch 256] [-lambda 0.7] [-skip 8] [-seed 1]");
+            System.exit(2);
+        }
+        String out = "rede.nnue";
+        int hidden = 64, epochs = 20, batch = 256, skip = 8;
+        float lr = 0.001f;
+        double lambda = 0.7;
+        long seed = 1;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-out": out = args[i + 1]; break;
+                case "-hidden": hidden = Integer.parseInt(args[i + 1]); break;
+                case "-epochs": epochs = Integer.parseInt(args[i + 1]); break;
+                case "-lr": lr = Float.parseFloat(args[i + 1]); break;
+                case "-batch": batch = Math.max(1, Integer.parseInt(args[i + 1])); break;
+                case "-lambda": lambda = Double.parseDouble(args[i + 1]); break;
+                case "-skip": skip = Integer.parseInt(args[i + 1]); break;
+                case "-seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+
+        long t0 = System.nanoTime();
+        Samples train = new Samples(), validation = new Samples();
+        Path input = Paths.get(args[0]);
+        final double lam = lambda;
+        long[] n = { 0 };
+        Tuner.read(input, skip, null, (game, half) -> {
+            int eval = IAUtils.evaluate(game);
+            double result = half * 0.5;
+            if (!game.whiteToMove()) {
+                eval = -eval;
+                result = 1 - result;
+            }
+            double expected = 1 / (1 + Math.pow(10, -eval / 400.0));
+            float target = (float) (lam * expected + (1 - lam) * result);
+            (++n[0] % VALIDATION_EVERY == 0 ? validation : train).add(game, target);
+        });
+        if (train.size == 0) throw new IllegalArgumentException("Nenhuma posição com resultado em " + input);
+        System.out.printf("%d posições de treino, %d de validação (%.1f s); rede 768 -> 2x%d -> 1%n",
+                train.size, validation.size, (System.nanoTime() - t0) / 1e9, hidden);
+
+        NnueTrainer trainer = new NnueTrainer(hidden, seed);
+        Random rnd = new Random(seed);
+        int[] order = new int[train.size];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        int[] step = { 0 };
+        System.out.printf("época  0: validação %.6f%n", trainer.validationError(validation));
+        for (int e = 1; e <= epochs; e++) {
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1), tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+            long te = System.nanoTime();
+            double err = trainer.epoch(train, order, batch, lr, step);
+            double secs = (System.nanoTime() - te) / 1e9;
+            System.out.printf("época %2d: erro %.6f  validação %.6f  (%.1f s, %.0f posições/s)%n",
+                    e, err, trainer.validationError(validation), secs, train.size / secs);
+        }
+
+        Nnue net = trainer.quantize();
+        net.save(Paths.get(out));
+        // Quanto a quantização muda a nota (centipawns) nas posições de validação
+        Samples check = validation.size > 0 ? validation : train;
+        double diff = 0;
+        Nnue.Accumulator acc = net.newAccumulator();
+        for (int i = 0; i < check.size; i++) {
+            float f = trainer.forward(check, i) * Nnue.SCALE;
+            acc.refresh(toGame(check, i));
+            diff += Math.abs(f - net.evaluate(acc, check.whiteToMove[i]));
+        }
+        System.out.printf("Rede gravada em %s (quantizada: diferença média %.1f cp)%n", out, diff / check.size);
+        System.out.println("Uso: java -Dxadrez.nnue=" + out + " ...  ou  tools.Match \"nnue=" + out + "\" ...");
+    }
+
+    /** Reconstrói o tabuleiro da amostra (só peças; basta para a primeira camada). */
+    private static Game toGame(Samples s, int i) {
+        StringBuilder fen = new StringBuilder();
+        char[] squares = new char[64];
+        Arrays.fill(squares, ' ');
+        for (int k = 0; k < 32 && s.features[i * 32 + k] >= 0; k++) {
+            int f = s.features[i * 32 + k];
+            squares[f % 64] = "PNBRQKpnbrqk".charAt(f / 64);
+        }
+        for (int r = 0; r < 8; r++) {
+            int empty = 0;
+            for (int c = 0; c < 8; c++) {
+                char ch = squares[r * 8 + c];
+                if (ch == ' ') {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) fen.append(empty);
+                empty = 0;
+                fen.append(ch);
+            }
+            if (empty > 0) fen.append(empty);
+            if (r < 7) fen.append('/');
+        }
+        fen.append(s.whiteToMove[i] ? " w - -" : " b - -");
+        return Fen.load(fen.toString());
+    }
+}
@@ -0,0 +1,256 @@
+package tools;
+
+import ai.IAUtils;
+import controller.Fen;
+import controller.Game;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import model.board.Move;
+import uci.Uci;
+
+/**
+ * Perft (contagem de folhas da árvore de lances legais) em paralelo num ForkJoinPool.
+ *
+ * A árvore é dividida na raiz (split=1) ou também no segundo nível (split=2); abaixo disso cada
+ * tarefa conta sequencialmente. As tarefas irmãs copiam o mesmo Game pai ao mesmo tempo, então
+ * o modo -stress, que repete a contagem e compara com a referência sequencial, serve também de
+ * teste de concorrência para Game, Board e peças (estado mutável em Piece.position/moved).
+ * Com -hash, subárvores já contadas são reaproveitadas de uma tabela (Zobrist + profundidade)
+ * compartilhada sem locks.
+ *
+ * Uso: java tools.Perft [profundidade=4] [-fen FEN] [-threads N] [-split 1|2] [-hash MB]
+ *                       [-divide] [-suite] [-stress N] [-bench]
+ *   -suite   posições de referência com contagens conhecidas (valida as regras)
+ *   -bench   mesma contagem com 1, 2, 4... até N threads (escalonamento)
+ */
+public class Perft {
+
+    // Posições clássicas de teste com as contagens publicadas
+    private static final String[][] SUITE = {
+            { Fen.START, "4", "197281" },
+            { "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", "3", "97862" },
+            { "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", "4", "43238" },
+            { "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", "3", "62379" },
+            { "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", "3", "89890" },
+    };
+
+    public static void main(String[] args) throws Exception {
+        int depth = 4, threads = Runtime.getRuntime().availableProcessors(), split = 1, hashMb = 0, stress = 0;
+        boolean divide = false, suite = false, bench = false;
+        String fen = Fen.START;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-fen": fen = args[++i]; break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                case "-split": split = Integer.parseInt(args[++i]); break;
+                case "-hash": hashMb = Integer.parseInt(args[++i]); break;
+                case "-stress": stress = Integer.parseInt(args[++i]); break;
+                case "-divide": divide = true; break;
+                case "-suite": suite = true; break;
+                case "-bench": bench = true; break;
+                default: depth = Integer.parseInt(args[i]);
+            }
+        }
+        if (depth < 1) throw new IllegalArgumentException("Profundidade deve ser >= 1");
+        if (split < 1 || split > 2) throw new IllegalArgumentException("split deve ser 1 ou 2");
+
+        if (suite) {
+            runSuite(threads, split, hashMb);
+            return;
+        }
+
+        Game game = Fen.load(fen);
+        if (divide) {
+            divide(game, depth);
+        } else if (bench) {
+            bench(game, depth, threads, split, hashMb);
+        } else if (stress > 0) {
+            System.exit(stress(game, depth, threads, split, hashMb, stress) ? 0 : 1);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Cache cache = hashMb > 0 ? new Cache(hashMb) : null;
+            long t0 = System.nanoTime();
+            long n = parallel(pool, game, depth, split, cache);
+            report("perft(" + depth + ")", n, System.nanoTime() - t0, cache);
+            pool.shutdown();
+        }
+    }
+
+    // --------- Contagem ----------
+
+    /** Perft sequencial; na profundidade 1 conta os lances sem jogá-los. */
+    public static long perft(Game game, int depth, Cache cache) {
+        List<Move> moves = IAUtils.legalMoves(game);
+        if (depth == 1) return moves.size();
+        long key = 0;
+        if (cache != null) {
+            key = game.positionKey();
+            long hit = cache.probe(key, depth);
+            if (hit >= 0) return hit;
+        }
+        long n = 0;
+        for (Move m : moves) n += perft(IAUtils.play(game, m), depth - 1, cache);
+        if (cache != null) cache.store(key, depth, n);
+        return n;
+    }
+
+    public static long parallel(ForkJoinPool pool, Game game, int depth, int split, Cache cache) {
+        if (depth == 1) return IAUtils.legalMoves(game).size();
+        return pool.invoke(new Task(game, null, depth, split, cache));
+    }
+
+    /** Subárvore após "move" no jogo pai (compartilhado e só lido pelas tarefas irmãs). */
+    private static final class Task extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Game parent;
+        private final Move move;
+        private final int depth, split;
+        private final Cache cache;
+
+        Task(Game parent, Move move, int depth, int split, Cache cache) {
+            this.parent = parent;
+            this.move = move;
+            this.depth = depth;
+            this.split = split;
+            this.cache = cache;
+        }
+
+        @Override
+        protected Long compute() {
+            Game game = move == null ? parent : IAUtils.play(parent, move);
+            if (split == 0 || depth <= 2) return perft(game, depth, cache);
+            List<Task> tasks = new ArrayList<>();
+            for (Move m : IAUtils.legalMoves(game)) tasks.add(new Task(game, m, depth - 1, split - 1, cache));
+            long n = 0;
+            for (Task t : invokeAll(tasks)) n += t.join();
+            return n;
+        }
+    }
+
+    // --------- Modos ----------
+
+    private static void divide(Game game, int depth) {
+        long total = 0, t0 = System.nanoTime();
+        for (Move m : IAUtils.legalMoves(game)) {
+            long n = depth == 1 ? 1 : perft(IAUtils.play(game, m), depth - 1, null);
+            System.out.println(Uci.toUci(m) + ": " + n);
+            total += n;
+        }
+        report("perft(" + depth + ")", total, System.nanoTime() - t0, null);
+    }
+
+    private static void runSuite(int threads, int split, int hashMb) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        int failures = 0;
+        for (String[] s : SUITE) {
+            int depth = Integer.parseInt(s[1]);
+            long expected = Long.parseLong(s[2]);
+            Cache cache = hashMb > 0 ? new Cache(hashMb) : null;
+            long t0 = System.nanoTime();
+            long n = parallel(pool, Fen.load(s[0]), depth, split, cache);
+            boolean ok = n == expected;
+            if (!ok) failures++;
+            System.out.printf("%s  d%d  %d %s  %.2f s  %s%n", ok ? "OK  " : "ERRO", depth, n,
+                    ok ? "" : "(esperado " + expected + ")", (System.nanoTime() - t0) / 1e9, s[0]);
+        }
+        pool.shutdown();
+        System.out.println(failures == 0 ? "Todas as posições conferem" : failures + " posição(ões) divergente(s)");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void bench(Game game, int depth, int maxThreads, int split, int hashMb) {
+        // Aquecimento do JIT, senão a primeira medição (1 thread) sai artificialmente lenta
+        perft(game, depth, null);
+        double base = 0;
+        for (int t = 1; t <= maxThreads; t = t < maxThreads && t * 2 > maxThreads ? maxThreads : t * 2) {
+            ForkJoinPool pool = new ForkJoinPool(t);
+            Cache cache = hashMb > 0 ? new Cache(hashMb) : null;
+            long t0 = System.nanoTime();
+            long n = parallel(pool, game, depth, split, cache);
+            long nanos = System.nanoTime() - t0;
+            pool.shutdown();
+            double nps = n * 1e9 / nanos;
+            if (t == 1) base = nps;
+            System.out.printf("%3d threads: %d folhas em %.2f s, %.0f folhas/s, speedup %.2fx%n",
+                    t, n, nanos / 1e9, nps, nps / base);
+            if (t == maxThreads) break;
+        }
+    }
+
+    /** Repete a contagem paralela e compara com a referência sequencial. */
+    private static boolean stress(Game game, int depth, int threads, int split, int hashMb, int rounds) {
+        long t0 = System.nanoTime();
+        long expected = perft(game, depth, null);
+        report("referência sequencial", expected, System.nanoTime() - t0, null);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        int failures = 0;
+        for (int i = 1; i <= rounds; i++) {
+            Cache cache = hashMb > 0 ? new Cache(hashMb) : null;
+            t0 = System.nanoTime();
+            long n = parallel(pool, game, depth, split, cache);
+            if (n != expected) failures++;
+            System.out.printf("rodada %d: %d %s (%.2f s)%n", i, n, n == expected ? "ok" : "DIVERGENTE",
+                    (System.nanoTime() - t0) / 1e9);
+        }
+        pool.shutdown();
+        System.out.println(failures == 0 ? "Sem divergências" : failures + " rodada(s) divergente(s)");
+        return failures == 0;
+    }
+
+    private static void report(String label, long n, long nanos, Cache cache) {
+        double secs = Math.max(1e-9, nanos / 1e9);
+        System.out.printf("%s = %d  (%.2f s, %.0f folhas/s%s)%n", label, n, secs, n / secs,
+                cache != null ? String.format(", cache %d acertos", cache.hits()) : "");
+    }
+
+    // --------- Cache ----------
+
+    /**
+     * Tabela de contagens por (hash, profundidade), sem locks: cada entrada guarda
+     * (chave ^ contagem, contagem); uma escrita concorrente rasgada não confere na leitura
+     * e vira um simples "não achou".
+     */
+    public static final class Cache {
+        private final AtomicLongArray slots;
+        private final int mask;
+        private final LongAdder hits = new LongAdder();
+
+        public Cache(int megabytes) {
+            int entries = Integer.highestOneBit(Math.max(1, (int) Math.min(1 << 26, megabytes * (1L << 20) / 16)));
+            this.slots = new AtomicLongArray(2 * entries);
+            this.mask = entries - 1;
+        }
+
+        private static long mix(long key, int depth) {
+            return key ^ (depth * 0x9E3779B97F4A7C15L);
+        }
+
+        /** Contagem guardada, ou -1. */
+        long probe(long key, int depth) {
+            long k = mix(key, depth);
+            int i = (int) (k & mask) << 1;
+            long count = slots.getOpaque(i + 1);
+            if (count != 0 && (slots.getOpaque(i) ^ count) == k) {
+                hits.increment();
+                return count;
+            }
+            return -1;
+        }
+
+        void store(long key, int depth, long count) {
+            long k = mix(key, depth);
+            int i = (int) (k & mask) << 1;
+            slots.setOpaque(i, k ^ count);
+            slots.setOpaque(i + 1, count);
+        }
+
+        long hits() {
+            return hits.sum();
+        }
+    }
+}
@@ -0,0 +1,516 @@
+package tools;
+
+import ai.Tablebase;
+import controller.Zobrist;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gera as tablebases de finais de 3 e 4 peças (formato de ai.Tablebase) por análise
+ * retrógrada, sem downloads. Roda offline; as tabelas de que uma tabela depende (capturas
+ * e promoções) são geradas antes, se ainda não existirem no diretório.
+ *
+ * Algoritmo: a tabela completa (2 x 64^n posições, um byte cada) é montada em memória.
+ * Na inicialização cada posição recebe o número de lances que ficam na tabela, e os lances
+ * que saem dela (captura ou promoção) são resolvidos consultando a tabela menor. Depois,
+ * a cada distância d, as posições resolvidas em d meios-lances são "desjogadas": o
+ * antecessor de uma derrota vira vitória em d + 1, e o antecessor de uma vitória perde um
+ * lance; quando todos os lances levam a vitórias do adversário, ele é derrota.
+ *
+ * Uso: java -Xmx512m tools.TablebaseGenerator diretorio [KQvK KRvK KPvK ...]
+ *      (sem tabelas: todas as de 3 e 4 peças)
+ */
+public class TablebaseGenerator {
+
+    private static final String LETTERS = "PNBRQK";
+    private static final int PAWN = 0, KNIGHT = 1, BISHOP = 2, ROOK = 3, QUEEN = 4, KING = 5;
+    private static final int[][] KING_STEPS = { {-1,-1},{-1,0},{-1,1},{0,-1},{0,1},{1,-1},{1,0},{1,1} };
+    private static final int[][] KNIGHT_STEPS = { {-2,-1},{-2,1},{-1,-2},{-1,2},{1,-2},{1,2},{2,-1},{2,1} };
+    private static final int[][] BISHOP_DIRS = { {-1,-1},{-1,1},{1,-1},{1,1} };
+    private static final int[][] ROOK_DIRS = { {-1,0},{1,0},{0,-1},{0,1} };
+    private static final int[][] QUEEN_DIRS = { {-1,-1},{-1,1},{1,-1},{1,1},{-1,0},{1,0},{0,-1},{0,1} };
+    private static final int NO_LOSS = 0xFF; // há saída que empata: a posição não pode perder
+
+    // Tabela em geração
+    private final int[] codes;      // [rei branco, rei preto, extras...] (índices Zobrist)
+    private final int n;
+    private final int shift;        // 6 * n
+    private final byte[] value;
+    private final byte[] count;     // lances internos ainda não resolvidos
+    private final byte[] exitLoss;  // maior derrota via saída (ou NO_LOSS)
+    private final Tablebase sub;    // tabelas menores já geradas
+
+    // Posição corrente (decodificada)
+    private final int[] sq;
+    private final int[] board = new int[64]; // índice da peça + 1, 0 = vazia
+    private int maxDist;
+
+    // Saídas da posição em inicialização
+    private int bestWin, worstLoss;
+    private boolean drawExit;
+    private final int[] exitCodes = new int[Tablebase.MAX_PIECES];
+    private final int[] exitSquares = new int[Tablebase.MAX_PIECES];
+
+    private TablebaseGenerator(int[] extras, Tablebase sub) {
+        this.n = extras.length + 2;
+        this.codes = new int[n];
+        codes[0] = Zobrist.WHITE_KING;
+        codes[1] = Zobrist.BLACK_KING;
+        System.arraycopy(extras, 0, codes, 2, extras.length);
+        this.shift = 6 * n;
+        int size = 2 << shift;
+        this.value = new byte[size];
+        this.count = new byte[size];
+        this.exitLoss = new byte[size];
+        this.sub = sub;
+        this.sq = new int[n];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: java tools.TablebaseGenerator diretorio [KQvK KRvK ...]");
+            System.exit(2);
+        }
+        Path dir = Paths.get(args[0]);
+        Files.createDirectories(dir);
+
+        Map<String, int[]> wanted = new LinkedHashMap<>();
+        if (args.length > 1) {
+            for (int i = 1; i < args.length; i++) addWithDependencies(wanted, parse(args[i]));
+        } else {
+            for (int[] extras : allSignatures()) addWithDependencies(wanted, extras);
+        }
+        List<int[]> order = new ArrayList<>(wanted.values());
+        // Menos peças primeiro; com as mesmas peças, menos peões (promoção tira um peão)
+        order.sort((a, b) -> a.length != b.length ? a.length - b.length : pawns(a) - pawns(b));
+
+        long total = System.nanoTime();
+        for (int[] extras : order) {
+            String name = name(extras);
+            Path file = dir.resolve(name + Tablebase.EXTENSION);
+            if (Files.exists(file)) continue;
+            long start = System.nanoTime();
+            int longest;
+            try (Tablebase sub = Tablebase.open(dir)) {
+                TablebaseGenerator gen = new TablebaseGenerator(extras, sub);
+                gen.generate();
+                gen.write(file);
+                longest = gen.maxDist;
+            }
+            System.out.printf("%-8s %6.1f s  mate mais longo: %d meios-lances%n",
+                    name, (System.nanoTime() - start) / 1e9, longest);
+        }
+        System.out.printf("Total: %.1f s%n", (System.nanoTime() - total) / 1e9);
+    }
+
+    // --------- Geração ----------
+
+    private void generate() {
+        final int size = value.length;
+        for (int idx = 0; idx < size; idx++) init(idx);
+
+        for (int d = 0; d <= maxDist; d++) {
+            if (d >= Tablebase.MAX_PLIES) throw new IllegalStateException("Distância acima do limite do formato");
+            int win = Tablebase.win(d), loss = Tablebase.loss(d);
+            for (int idx = 0; idx < size; idx++) {
+                int v = value[idx] & 0xFF;
+                if (v == loss || (d > 0 && v == win)) retro(idx, v == loss, d);
+            }
+        }
+    }
+
+    /** Valida a posição e resolve o que for possível só com os lances dela. */
+    private void init(int idx) {
+        boolean white = decode(idx);
+        if (!valid(white)) {
+            value[idx] = (byte) Tablebase.INVALID;
+            return;
+        }
+        int internal = 0;
+        boolean anyMove = false;
+        bestWin = Integer.MAX_VALUE;
+        worstLoss = 0;
+        drawExit = false;
+
+        for (int i = 0; i < n; i++) {
+            if (isWhite(i) != white || sq[i] < 0) continue;
+            int from = sq[i];
+            int[] targets = targets(i);
+            for (int k = 1; k <= targets[0]; k++) {
+                int to = targets[k];
+                int captured = board[to] - 1;
+                boolean promotes = type(i) == PAWN && (to >> 3) == (white ? 0 : 7);
+                move(i, from, to, captured);
+                if (!attacked(sq[white ? 0 : 1], !white)) {
+                    anyMove = true;
+                    if (promotes) {
+                        for (int promo = QUEEN; promo >= KNIGHT; promo--) exit(probeExit(i, promo, !white));
+                    } else if (captured >= 0) {
+                        exit(probeExit(i, -1, !white));
+                    } else {
+                        internal++;
+                    }
+                }
+                unmove(i, from, to, captured);
+            }
+        }
+
+        if (!anyMove) {
+            value[idx] = (byte) (attacked(sq[white ? 0 : 1], !white) ? Tablebase.loss(0) : Tablebase.DRAW);
+        } else if (bestWin != Integer.MAX_VALUE) {
+            setValue(idx, Tablebase.win(bestWin), bestWin);
+        } else if (internal == 0) {
+            if (!drawExit) setValue(idx, Tablebase.loss(worstLoss), worstLoss);
+        } else {
+            count[idx] = (byte) internal;
+            exitLoss[idx] = (byte) (drawExit ? NO_LOSS : worstLoss);
+        }
+    }
+
+    /** Lance que sai da tabela: v é o valor para o adversário na tabela menor. */
+    private void exit(int v) {
+        if (Tablebase.isLoss(v)) bestWin = Math.min(bestWin, Tablebase.plies(v) + 1);
+        else if (Tablebase.isWin(v)) worstLoss = Math.max(worstLoss, Tablebase.plies(v) + 1);
+        else drawExit = true;
+    }
+
+    /** Propaga o resultado da posição (resolvida em d meios-lances) aos antecessores. */
+    private void retro(int idx, boolean isLoss, int d) {
+        boolean white = decode(idx);
+        boolean mover = !white; // quem jogou o último lance
+        int moverBit = mover ? 0 : 1 << shift;
+        for (int i = 0; i < n; i++) {
+            if (isWhite(i) != mover) continue;
+            int[] origins = origins(i);
+            for (int k = 1; k <= origins[0]; k++) {
+                int p = (idx & ~(1 << shift) & ~(63 << (6 * (n - 1 - i)))) | moverBit
+                        | (origins[k] << (6 * (n - 1 - i)));
+                int v = value[p] & 0xFF;
+                if (v == Tablebase.INVALID) continue;
+                if (isLoss) {
+                    if (v == Tablebase.DRAW || (Tablebase.isWin(v) && v > d + 1)) setValue(p, Tablebase.win(d + 1), d + 1);
+                } else if (v == Tablebase.DRAW) {
+                    int left = (count[p] & 0xFF) - 1;
+                    count[p] = (byte) left;
+                    int exit = exitLoss[p] & 0xFF;
+                    if (left == 0 && exit != NO_LOSS) {
+                        int dist = Math.max(d + 1, exit);
+                        setValue(p, Tablebase.loss(dist), dist);
+                    }
+                }
+            }
+        }
+    }
+
+    private void setValue(int idx, int v, int dist) {
+        value[idx] = (byte) v;
+        if (dist > maxDist) maxDist = dist;
+    }
+
+    /** Valor (para quem joga a seguir) da posição após captura/promoção, na tabela menor. */
+    private int probeExit(int moved, int promo, boolean whiteToMove) {
+        int[] c = exitCodes, s = exitSquares;
+        int m = 0;
+        for (int j = 0; j < n; j++) {
+            if (sq[j] < 0) continue;
+            c[m] = j == moved && promo >= 0 ? (isWhite(j) ? promo : promo + 6) : codes[j];
+            s[m++] = sq[j];
+        }
+        int v = sub.probe(c, s, m, whiteToMove);
+        if (v == Tablebase.NONE) throw new IllegalStateException("Tabela dependente ausente para " + name(codes));
+        return v;
+    }
+
+    // --------- Posição ----------
+
+    private boolean decode(int idx) {
+        Arrays.fill(board, 0);
+        for (int i = 0; i < n; i++) {
+            sq[i] = (idx >>> (6 * (n - 1 - i))) & 63;
+            if (board[sq[i]] == 0) board[sq[i]] = i + 1;
+            else board[sq[i]] = -1; // casas repetidas: posição inválida
+        }
+        return (idx >>> shift) == 0;
+    }
+
+    private boolean valid(boolean whiteToMove) {
+        for (int i = 0; i < n; i++) {
+            if (board[sq[i]] != i + 1) return false;
+            if (type(i) == PAWN && ((sq[i] >> 3) == 0 || (sq[i] >> 3) == 7)) return false;
+        }
+        int wk = sq[0], bk = sq[1];
+        if (Math.abs((wk >> 3) - (bk >> 3)) <= 1 && Math.abs((wk & 7) - (bk & 7)) <= 1) return false;
+        // Quem não joga não pode estar em xeque
+        return !attacked(whiteToMove ? bk : wk, whiteToMove);
+    }
+
+    private void move(int i, int from, int to, int captured) {
+        if (captured >= 0) sq[captured] = -1;
+        board[from] = 0;
+        board[to] = i + 1;
+        sq[i] = to;
+    }
+
+    private void unmove(int i, int from, int to, int captured) {
+        sq[i] = from;
+        board[from] = i + 1;
+        board[to] = captured + 1;
+        if (captured >= 0) sq[captured] = to;
+    }
+
+    private boolean isWhite(int i) { return codes[i] < 6; }
+    private int type(int i) { return codes[i] % 6; }
+
+    /** True se a casa é atacada por alguma peça da cor dada. */
+    private boolean attacked(int target, boolean byWhite) {
+        int tr = target >> 3, tc = target & 7;
+        for (int i = 0; i < n; i++) {
+            if (sq[i] < 0 || isWhite(i) != byWhite) continue;
+            int dr = tr - (sq[i] >> 3), dc = tc - (sq[i] & 7);
+            int adr = Math.abs(dr), adc = Math.abs(dc);
+            switch (type(i)) {
+                case PAWN:
+                    if (dr == (byWhite ? -1 : 1) && adc == 1) return true;
+                    break;
+                case KNIGHT:
+                    if (adr * adc == 2) return true;
+                    break;
+                case KING:
+                    if (Math.max(adr, adc) == 1) return true;
+                    break;
+                default:
+                    boolean diag = adr == adc && adr > 0;
+                    boolean line = (adr == 0) != (adc == 0);
+                    int t = type(i);
+                    if (((diag && t != ROOK) || (line && t != BISHOP)) && clear(sq[i], dr, dc)) return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean clear(int from, int dr, int dc) {
+        int sr = Integer.signum(dr), sc = Integer.signum(dc);
+        int steps = Math.max(Math.abs(dr), Math.abs(dc));
+        int r = from >> 3, c = from & 7;
+        for (int k = 1; k < steps; k++) {
+            if (board[(r + sr * k) * 8 + c + sc * k] != 0) return false;
+        }
+        return true;
+    }
+
+    // Buffers de destinos/origens: [quantidade, casas...]
+    private final int[] targetBuf = new int[32];
+    private final int[] originBuf = new int[32];
+
+    /** Destinos pseudo-legais da peça i (capturas só de peças adversárias). */
+    private int[] targets(int i) {
+        int[] out = targetBuf;
+        out[0] = 0;
+        int from = sq[i], r = from >> 3, c = from & 7;
+        boolean white = isWhite(i);
+        switch (type(i)) {
+            case PAWN: {
+                int dir = white ? -1 : 1;
+                int one = from + dir * 8;
+                if (board[one] == 0) {
+                    out[++out[0]] = one;
+                    int start = white ? 6 : 1;
+                    if (r == start && board[one + dir * 8] == 0) out[++out[0]] = one + dir * 8;
+                }
+                for (int dc = -1; dc <= 1; dc += 2) {
+                    int nc = c + dc;
+                    if (nc < 0 || nc > 7) continue;
+                    int to = one + dc;
+                    if (board[to] != 0 && isWhite(board[to] - 1) != white) out[++out[0]] = to;
+                }
+                break;
+            }
+            case KNIGHT: steps(out, r, c, KNIGHT_STEPS, white, true); break;
+            case KING: steps(out, r, c, KING_STEPS, white, true); break;
+            case BISHOP: rays(out, r, c, BISHOP_DIRS, white, true); break;
+            case ROOK: rays(out, r, c, ROOK_DIRS, white, true); break;
+            default: rays(out, r, c, QUEEN_DIRS, white, true); break;
+        }
+        return out;
+    }
+
+    /** Casas de onde a peça i pode ter vindo com um lance sem captura nem promoção. */
+    private int[] origins(int i) {
+        int[] out = originBuf;
+        out[0] = 0;
+        int to = sq[i], r = to >> 3, c = to & 7;
+        boolean white = isWhite(i);
+        switch (type(i)) {
+            case PAWN: {
+                int back = white ? 1 : -1;
+                int one = to + back * 8;
+                int br = r + back;
+                if (br >= 1 && br <= 6 && board[one] == 0) {
+                    out[++out[0]] = one;
+                    if (r == (white ? 4 : 3) && board[one + back * 8] == 0) out[++out[0]] = one + back * 8;
+                }
+                break;
+            }
+            case KNIGHT: steps(out, r, c, KNIGHT_STEPS, white, false); break;
+            case KING: steps(out, r, c, KING_STEPS, white, false); break;
+            case BISHOP: rays(out, r, c, BISHOP_DIRS, white, false); break;
+            case ROOK: rays(out, r, c, ROOK_DIRS, white, false); break;
+            default: rays(out, r, c, QUEEN_DIRS, white, false); break;
+        }
+        return out;
+    }
+
+    private void steps(int[] out, int r, int c, int[][] deltas, boolean white, boolean captures) {
+        for (int[] d : deltas) {
+            int nr = r + d[0], nc = c + d[1];
+            if (nr < 0 || nr > 7 || nc < 0 || nc > 7) continue;
+            int to = nr * 8 + nc;
+            if (board[to] == 0 || (captures && isWhite(board[to] - 1) != white)) out[++out[0]] = to;
+        }
+    }
+
+    private void rays(int[] out, int r, int c, int[][] dirs, boolean white, boolean captures) {
+        for (int[] d : dirs) {
+            for (int nr = r + d[0], nc = c + d[1]; nr >= 0 && nr <= 7 && nc >= 0 && nc <= 7; nr += d[0], nc += d[1]) {
+                int to = nr * 8 + nc;
+                if (board[to] != 0) {
+                    if (captures && isWhite(board[to] - 1) != white) out[++out[0]] = to;
+                    break;
+                }
+                out[++out[0]] = to;
+            }
+        }
+    }
+
+    // --------- Gravação ----------
+
+    /** Grava só as posições canônicas (rei branco na região de simetria). */
+    private void write(Path file) throws IOException {
+        int[] extras = Arrays.copyOfRange(codes, 2, n);
+        int[] kings = Tablebase.kingSquares(Tablebase.hasPawns(extras));
+        int rest = 1 << (6 * (n - 1));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(Tablebase.VERSION);
+            for (int i = 0; i < 4; i++) out.writeByte(i < extras.length ? extras[i] : 0xFF);
+            out.writeInt(Tablebase.entries(extras));
+            for (int stm = 0; stm < 2; stm++) {
+                for (int wk : kings) {
+                    int base = (stm << shift) | (wk << (6 * (n - 1)));
+                    for (int k = 0; k < rest; k++) out.writeByte(value[base | k]);
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // --------- Materiais ----------
+
+    /** Todas as combinações de 1 ou 2 peças além dos reis, na forma canônica. */
+    private static List<int[]> allSignatures() {
+        Map<String, int[]> all = new LinkedHashMap<>();
+        for (int a = 0; a < 12; a++) {
+            if (a % 6 == KING) continue;
+            all.putIfAbsent(name(canonical(new int[] { a })), canonical(new int[] { a }));
+            for (int b = 0; b < 12; b++) {
+                if (b % 6 == KING) continue;
+                int[] e = canonical(new int[] { a, b });
+                all.putIfAbsent(name(e), e);
+            }
+        }
+        return new ArrayList<>(all.values());
+    }
+
+    private static void addWithDependencies(Map<String, int[]> out, int[] extras) {
+        String name = name(extras);
+        if (out.containsKey(name)) return;
+        // Capturas: remove uma peça (sobrando só os reis, é empate e não há tabela)
+        if (extras.length > 1) {
+            for (int i = 0; i < extras.length; i++) {
+                int[] rest = new int[extras.length - 1];
+                for (int j = 0, k = 0; j < extras.length; j++) if (j != i) rest[k++] = extras[j];
+                addWithDependencies(out, canonical(rest));
+            }
+        }
+        // Promoções
+        for (int i = 0; i < extras.length; i++) {
+            if (extras[i] % 6 != PAWN) continue;
+            for (int t = KNIGHT; t <= QUEEN; t++) {
+                int[] promoted = extras.clone();
+                promoted[i] = extras[i] - PAWN + t;
+                addWithDependencies(out, canonical(promoted));
+            }
+        }
+        out.put(name, extras);
+    }
+
+    /** Brancas = lado mais forte; peças de cada lado da mais forte para a mais fraca. */
+    private static int[] canonical(int[] extras) {
+        List<Integer> w = new ArrayList<>(), b = new ArrayList<>();
+        for (int e : extras) (e < 6 ? w : b).add(e % 6);
+        w.sort((x, y) -> y - x);
+        b.sort((x, y) -> y - x);
+        if (compare(b, w) > 0) {
+            List<Integer> t = w;
+            w = b;
+            b = t;
+        }
+        int[] out = new int[extras.length];
+        int k = 0;
+        for (int t : w) out[k++] = t;
+        for (int t : b) out[k++] = t + 6;
+        return out;
+    }
+
+    private static int compare(List<Integer> a, List<Integer> b) {
+        if (a.size() != b.size()) return a.size() - b.size();
+        for (int i = 0; i < a.size(); i++) if (!a.get(i).equals(b.get(i))) return a.get(i) - b.get(i);
+        return 0;
+    }
+
+    private static int pawns(int[] extras) {
+        int p = 0;
+        for (int e : extras) if (e % 6 == PAWN) p++;
+        return p;
+    }
+
+    /** Nome da tabela, ex.: "KQvKR". Aceita a lista de extras ou a de peças com os reis. */
+    private static String name(int[] codes) {
+        StringBuilder w = new StringBuilder("K"), b = new StringBuilder("K");
+        for (int e : codes) {
+            if (e % 6 == KING) continue;
+            (e < 6 ? w : b).append(LETTERS.charAt(e % 6));
+        }
+        return w + "v" + b;
+    }
+
+    private static int[] parse(String name) {
+        String s = name.toUpperCase();
+        int v = s.indexOf('V');
+        if (!s.startsWith("K") || v < 0 || v + 1 >= s.length() || s.charAt(v + 1) != 'K') {
+            throw new IllegalArgumentException("Tabela inválida: " + name);
+        }
+        List<Integer> extras = new ArrayList<>();
+        for (int i = 1; i < s.length(); i++) {
+            if (i == v || i == v + 1) continue;
+            int t = LETTERS.indexOf(s.charAt(i));
+            if (t < 0 || t == KING) throw new IllegalArgumentException("Tabela inválida: " + name);
+            extras.add(i < v ? t : t + 6);
+        }
+        if (extras.isEmpty() || extras.size() > Tablebase.MAX_PIECES - 2) {
+            throw new IllegalArgumentException("Tabela deve ter 3 ou 4 peças: " + name);
+        }
+        return canonical(extras.stream().mapToInt(Integer::intValue).toArray());
+    }
+}
@@ -0,0 +1,373 @@
+package tools;
+
+import ai.EvalParams;
+import ai.IAUtils;
+import controller.Fen;
+import controller.Game;
+import controller.PgnGame;
+import controller.PgnReader;
+import controller.San;
+import controller.Zobrist;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import model.board.Board;
+import model.board.Move;
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Ajuste automático (Texel) dos parâmetros de avaliação (ai.EvalParams) com partidas locais.
+ *
+ * Entrada: posições quietas com o resultado da partida, uma por linha (FEN/EPD seguido de
+ * "1-0", "0-1", "1/2-1/2" ou [1.0]/[0.5]/[0.0], em qualquer lugar da linha, ex.: c9 "1-0";), ou
+ * um PGN, do qual são extraídas as posições após o lance -skip que não estão em xeque, não vêm
+ * de captura/promoção e não têm captura de peça de valor igual ou maior disponível.
+ *
+ * Minimiza E = média de (resultado - sigmoide(K * avaliação))^2, com a avaliação do ponto de
+ * vista das brancas e sigmoide(x) = 1 / (1 + 10^(-x/400)). K é ajustado primeiro, com os
+ * parâmetros iniciais, e fica fixo. A otimização é por gradiente (Adam) sobre todas as posições.
+ *
+ * A avaliação é linear nos parâmetros (material + tabelas peça-casa), então cada posição vira
+ * uma lista de (parâmetro, sinal) empacotada num short[] único: ~40 entradas de 2 bytes por
+ * posição, sem objetos por posição. Avaliação e gradiente percorrem esse vetor em paralelo,
+ * um acumulador de gradiente por thread, sem alocar nada dentro do laço. 1 posição em cada
+ * VALIDATION_EVERY fica fora do ajuste e mede o erro de validação (sobreajuste).
+ *
+ * Saída: arquivo de parâmetros carregado pelo motor com -Dxadrez.evalParams=arquivo.
+ *
+ * Uso: java tools.Tuner dados.epd|partidas.pgn [-out eval.params] [-iters 1000] [-lr 1.0]
+ *                       [-threads N] [-skip 8] [-start params] [-k K] [-dump posicoes.epd]
+ */
+public class Tuner {
+
+    private static final int VALIDATION_EVERY = 10;
+    private static final int REPORT_EVERY = 50;
+    private static final double LN10_400 = Math.log(10) / 400;
+    private static final Pattern RESULT = Pattern.compile(
+            "(1-0|0-1|1/2-1/2)|\\[\\s*(1(?:\\.0)?|0\\.5|0(?:\\.0)?)\\s*\\]");
+
+    // --------- Posições empacotadas ----------
+
+    /**
+     * Posições como listas de entradas (parâmetro << 1 | 1 se peça preta) concatenadas;
+     * a posição i ocupa entries[start[i]..start[i + 1]).
+     */
+    static final class Dataset {
+        short[] entries = new short[1 << 16];
+        int[] start = new int[1 << 12];
+        byte[] result = new byte[1 << 12];   // meios pontos das brancas: 0, 1 ou 2
+        int size;
+
+        void add(Game game, int halfPoints) {
+            if (size + 2 > start.length) {
+                start = Arrays.copyOf(start, start.length * 2);
+                result = Arrays.copyOf(result, result.length * 2);
+            }
+            int at = start[size];
+            if (at + 64 > entries.length) entries = Arrays.copyOf(entries, entries.length * 2);
+            Board board = game.board();
+            for (int sq = 0; sq < 64; sq++) {
+                Piece p = board.get(Position.of(sq >>> 3, sq & 7));
+                if (p == null) continue;
+                int code = Zobrist.pieceIndex(p);
+                int type = code % 6;
+                int black = code < 6 ? 0 : 1;
+                int own = black == 0 ? sq : (7 - (sq >>> 3)) * 8 + (sq & 7);
+                if (type != EvalParams.KING) entries[at++] = (short) ((EvalParams.MATERIAL + type) << 1 | black);
+                entries[at++] = (short) ((EvalParams.PST + type * 64 + own) << 1 | black);
+            }
+            result[size] = (byte) halfPoints;
+            start[++size] = at;
+        }
+
+        double eval(int i, double[] params) {
+            double e = 0;
+            for (int k = start[i], end = start[i + 1]; k < end; k++) {
+                int v = entries[k];
+                double p = params[v >>> 1];
+                e += (v & 1) == 0 ? p : -p;
+            }
+            return e;
+        }
+    }
+
+    // --------- Otimização ----------
+
+    private final Dataset train, validation;
+    private final ExecutorService pool;
+    private final int threads;
+    private final double[][] gradients;   // um acumulador por thread
+    private final double[] errors;
+    private final List<Callable<Void>> gradientTasks = new ArrayList<>();
+    private double[] params;
+    private double k = 1.0;
+    private boolean computeGradient;
+
+    private Tuner(Dataset train, Dataset validation, double[] params, int threads) {
+        this.train = train;
+        this.validation = validation;
+        this.params = params;
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tuner");
+            t.setDaemon(true);
+            return t;
+        });
+        this.gradients = new double[threads][EvalParams.COUNT];
+        this.errors = new double[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            gradientTasks.add(() -> {
+                slice(id);
+                return null;
+            });
+        }
+    }
+
+    /** Erro (e gradiente, se pedido) das posições de treino da fatia "id". */
+    private void slice(int id) {
+        double[] grad = gradients[id];
+        if (computeGradient) Arrays.fill(grad, 0);
+        int n = train.size;
+        int from = (int) ((long) n * id / threads), to = (int) ((long) n * (id + 1) / threads);
+        double err = 0;
+        for (int i = from; i < to; i++) {
+            double s = sigmoid(train.eval(i, params));
+            double diff = train.result[i] * 0.5 - s;
+            err += diff * diff;
+            if (!computeGradient) continue;
+            // dE/davaliação = -2 (r - s) s (1 - s) K ln10/400 (o fator comum vai no passo)
+            double g = -diff * s * (1 - s);
+            for (int e = train.start[i], end = train.start[i + 1]; e < end; e++) {
+                int v = train.entries[e];
+                grad[v >>> 1] += (v & 1) == 0 ? g : -g;
+            }
+        }
+        errors[id] = err;
+    }
+
+    private double trainError(boolean withGradient) throws InterruptedException {
+        computeGradient = withGradient;
+        pool.invokeAll(gradientTasks);
+        double err = 0;
+        for (double e : errors) err += e;
+        return err / Math.max(1, train.size);
+    }
+
+    private double validationError() {
+        double err = 0;
+        for (int i = 0; i < validation.size; i++) {
+            double diff = validation.result[i] * 0.5 - sigmoid(validation.eval(i, params));
+            err += diff * diff;
+        }
+        return validation.size == 0 ? Double.NaN : err / validation.size;
+    }
+
+    private double sigmoid(double eval) {
+        return 1 / (1 + Math.exp(-k * LN10_400 * eval));
+    }
+
+    /** K que minimiza o erro com os parâmetros atuais (busca da seção áurea em [0.05, 5]). */
+    private void fitK() throws InterruptedException {
+        double lo = 0.05, hi = 5, phi = (Math.sqrt(5) - 1) / 2;
+        for (int it = 0; it < 40; it++) {
+            double a = hi - phi * (hi - lo), b = lo + phi * (hi - lo);
+            k = a;
+            double ea = trainError(false);
+            k = b;
+            double eb = trainError(false);
+            if (ea < eb) hi = b;
+            else lo = a;
+        }
+        k = (lo + hi) / 2;
+    }
+
+    /** Adam sobre o gradiente completo. */
+    private void optimize(int iterations, double lr) throws InterruptedException {
+        int n = EvalParams.COUNT;
+        double[] m = new double[n], v = new double[n], grad = new double[n];
+        double b1 = 0.9, b2 = 0.999, eps = 1e-8;
+        double scale = 2 * k * LN10_400 / Math.max(1, train.size);
+        for (int it = 1; it <= iterations; it++) {
+            double err = trainError(true);
+            Arrays.fill(grad, 0);
+            for (double[] g : gradients) {
+                for (int j = 0; j < n; j++) grad[j] += g[j];
+            }
+            double c1 = 1 - Math.pow(b1, it), c2 = 1 - Math.pow(b2, it);
+            for (int j = 0; j < n; j++) {
+                double g = grad[j] * scale;
+                m[j] = b1 * m[j] + (1 - b1) * g;
+                v[j] = b2 * v[j] + (1 - b2) * g * g;
+                params[j] -= lr * (m[j] / c1) / (Math.sqrt(v[j] / c2) + eps);
+            }
+            if (it % REPORT_EVERY == 0 || it == 1) {
+                System.out.printf("iteração %5d: erro %.6f  validação %.6f%n", it, err, validationError());
+            }
+        }
+    }
+
+    // --------- Entrada ----------
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Uso: java tools.Tuner dados.epd|partidas.pgn [-out eval.params] [-iters 1000] "
+                    + "[-lr 1.0] [-threads N] [-skip 8] [-start params] [-k K] [-dump posicoes.epd]");
+            System.exit(2);
+        }
+        String out = "eval.params", start = null, dump = null;
+        int iters = 1000, threads = Runtime.getRuntime().availableProcessors(), skip = 8;
+        double lr = 1.0, fixedK = 0;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-out": out = args[i + 1]; break;
+                case "-iters": iters = Integer.parseInt(args[i + 1]); break;
+                case "-lr": lr = Double.parseDouble(args[i + 1]); break;
+                case "-threads": threads = Math.max(1, Integer.parseInt(args[i + 1])); break;
+                case "-skip": skip = Integer.parseInt(args[i + 1]); break;
+                case "-start": start = args[i + 1]; break;
+                case "-k": fixedK = Double.parseDouble(args[i + 1]); break;
+                case "-dump": dump = args[i + 1]; break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+
+        long t0 = System.nanoTime();
+        Dataset train = new Dataset(), validation = new Dataset();
+        Path input = Paths.get(args[0]);
+        long[] count = { 0 };
+        read(input, skip, dump, (game, half) -> (++count[0] % VALIDATION_EVERY == 0 ? validation : train).add(game, half));
+        if (train.size == 0) throw new IllegalArgumentException("Nenhuma posição com resultado em " + input);
+        System.out.printf("%d posições de treino, %d de validação (%.1f s)%n",
+                train.size, validation.size, (System.nanoTime() - t0) / 1e9);
+
+        EvalParams initial = start != null ? EvalParams.load(Paths.get(start)) : EvalParams.defaults();
+        double[] params = Arrays.stream(initial.toArray()).asDoubleStream().toArray();
+        Tuner tuner = new Tuner(train, validation, params, threads);
+
+        if (fixedK > 0) tuner.k = fixedK;
+        else tuner.fitK();
+        double before = tuner.trainError(false), beforeVal = tuner.validationError();
+        System.out.printf("K = %.4f, erro inicial %.6f  validação %.6f%n", tuner.k, before, beforeVal);
+
+        t0 = System.nanoTime();
+        tuner.optimize(iters, lr);
+        double secs = (System.nanoTime() - t0) / 1e9;
+
+        int[] tuned = new int[EvalParams.COUNT];
+        for (int j = 0; j < tuned.length; j++) tuned[j] = (int) Math.round(tuner.params[j]);
+        tuner.params = Arrays.stream(tuned).asDoubleStream().toArray();
+        double after = tuner.trainError(false), afterVal = tuner.validationError();
+        System.out.printf("Erro final %.6f  validação %.6f  (%d iterações em %.1f s, %.0f posições/s)%n",
+                after, afterVal, iters, secs, (double) train.size * iters / secs);
+
+        EvalParams.of(tuned).save(Paths.get(out), String.format(
+                "Gerado por tools.Tuner a partir de %s%n%d posições, K = %.4f%n"
+                        + "erro %.6f -> %.6f, validação %.6f -> %.6f%n"
+                        + "Uso: java -Dxadrez.evalParams=%s ...",
+                input.getFileName(), train.size + validation.size, tuner.k, before, after, beforeVal, afterVal, out));
+        System.out.println("Parâmetros gravados em " + out);
+        tuner.pool.shutdown();
+    }
+
+    // --------- Leitura (também usada por NnueTrainer) ----------
+
+    /** Recebe cada posição lida com o resultado da partida em meios pontos das brancas (0, 1, 2). */
+    interface PositionSink {
+        void accept(Game game, int halfPoints);
+    }
+
+    /**
+     * Lê posições com resultado de um arquivo FEN/EPD ou extrai as quietas de um PGN (.pgn),
+     * a partir do lance "skip"; com "dump", grava as extraídas do PGN como EPD com c9.
+     */
+    static void read(Path input, int skip, String dump, PositionSink sink) throws IOException {
+        try (Writer dumpOut = dump != null ? Files.newBufferedWriter(Paths.get(dump), StandardCharsets.UTF_8) : null) {
+            if (input.toString().toLowerCase().endsWith(".pgn")) loadPgn(input, skip, sink, dumpOut);
+            else loadPositions(input, sink);
+        }
+    }
+
+    private static void loadPositions(Path file, PositionSink sink) throws IOException {
+        long bad = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line; (line = in.readLine()) != null; ) {
+                if (Epd.isBlank(line)) continue;
+                Matcher m = RESULT.matcher(line);
+                try {
+                    if (!m.find()) throw new IllegalArgumentException("sem resultado");
+                    int half = halfPoints(m.group(1) != null ? m.group(1) : m.group(2));
+                    Game game = Epd.parse(line).toGame();
+                    sink.accept(game, half);
+                } catch (IllegalArgumentException e) {
+                    if (bad++ < 5) System.err.println("Linha ignorada (" + e.getMessage() + "): " + line);
+                }
+            }
+        }
+        if (bad > 0) System.err.println(bad + " linhas ignoradas");
+    }
+
+    private static void loadPgn(Path file, int skip, PositionSink sink, Writer dump) throws IOException {
+        long games = 0, errors = 0;
+        try (PgnReader reader = new PgnReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            for (PgnGame pg; (pg = reader.next()) != null; ) {
+                int half;
+                try {
+                    half = halfPoints(pg.result());
+                } catch (IllegalArgumentException e) {
+                    continue; // partida sem resultado
+                }
+                games++;
+                String fen = pg.tag("FEN");
+                Game game = fen != null ? Fen.load(fen) : new Game();
+                List<String> moves = pg.moves();
+                try {
+                    for (int i = 0; i < moves.size(); i++) {
+                        Move m = San.resolve(game, moves.get(i));
+                        game.move(m.getFrom(), m.getTo(), m.getPromotion());
+                        if (i + 1 < skip || IAUtils.isTactical(m) || !quiet(game)) continue;
+                        sink.accept(game, half);
+                        if (dump != null) dump.write(Fen.toFen(game) + " c9 \"" + pg.result() + "\";\n");
+                    }
+                } catch (IllegalArgumentException e) {
+                    errors++; // posições já extraídas da partida ficam
+                }
+            }
+        }
+        System.out.printf("%d partidas com resultado (%d com lance inválido)%n", games, errors);
+    }
+
+    /** Sem xeque e sem captura de peça de valor igual ou maior que a do atacante. */
+    private static boolean quiet(Game game) {
+        if (game.inCheck(game.whiteToMove()) || game.isGameOver()) return false;
+        for (Move m : IAUtils.legalMoves(game)) {
+            if (m.getCaptured() != null
+                    && IAUtils.getPieceValue(m.getCaptured()) >= IAUtils.getPieceValue(m.getMoved())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int halfPoints(String result) {
+        switch (result) {
+            case "1-0": case "1": case "1.0": return 2;
+            case "0-1": case "0": case "0.0": return 0;
+            case "1/2-1/2": case "0.5": return 1;
+            default: throw new IllegalArgumentException("Resultado inválido: " + result);
+        }
+    }
+}
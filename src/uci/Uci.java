@@ -0,0 +1,421 @@
+package uci;
+
+import ai.IAUtils;
+import ai.OpeningBook;
+import ai.SearchControl;
+import ai.SearchEngine;
+import ai.SearchInfo;
+import ai.SearchLimits;
+import ai.Tablebase;
+import controller.Fen;
+import controller.Game;
+import controller.TranspositionTable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import model.board.Move;
+import model.board.Position;
+
+/**
+ * Front-end UCI (Universal Chess Interface) sem interface gráfica: lê comandos
+ * do stdin e responde no stdout, para uso em gerenciadores de torneio e análise em lote.
+ *
+ * Comandos suportados: uci, isready, ucinewgame, setoption (Hash, Threads, OwnBook, BookFile,
+ * TablebasePath),
+ * position [startpos | fen ...] [moves ...], go (depth, movetime, wtime, btime,
+ * winc, binc, movestogo, nodes, infinite, ponder), ponderhit, stop, quit.
+ *
+ * Threads > 1 usa "Lazy SMP": threads auxiliares buscam a mesma raiz compartilhando
+ * a tabela de transposição; o lance devolvido é sempre o da thread principal. As auxiliares
+ * variam a profundidade inicial e a ordem da raiz (SearchEngine.setHelperIndex) para não
+ * repetirem a árvore da principal.
+ */
+public class Uci {
+
+    private static final String NAME = "RoyalChess";
+    private static final String AUTHOR = "João Felipe e colaboradores";
+    private static final int MAX_DEPTH = 64;
+    private static final int MAX_THREADS = 64;
+    private static final int MAX_HASH_MB = 4096;
+    private static final long MOVE_OVERHEAD_MS = 30;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    private final Game game = new Game();
+    private final TranspositionTable tt = new TranspositionTable();
+    private final SearchEngine engine = new SearchEngine(SearchLimits.dificil(), tt);
+    private int threads = 1;
+    private boolean ownBook = false;
+    private String bookFile = "book.bin";
+    private String tablebasePath = "";
+
+    // Busca em andamento
+    private Thread searchThread = null;
+    private final List<SearchControl> controls = new ArrayList<>();
+    private SearchControl mainControl = null;
+    private final Object stopLock = new Object();
+    private boolean holdBestMove = false; // "go infinite"/"go ponder": bestmove só após stop/ponderhit
+
+    public Uci(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        new Uci(in, out).loop();
+    }
+
+    /** Lê e executa comandos até "quit" ou fim da entrada. */
+    public void loop() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!handle(line.trim())) break;
+        }
+        stopSearch();
+    }
+
+    /** Executa um comando; retorna false para encerrar. */
+    public boolean handle(String line) {
+        if (line.isEmpty()) return true;
+        String[] tok = line.split("\\s+");
+        switch (tok[0]) {
+            case "uci":
+                send("id name " + NAME);
+                send("id author " + AUTHOR);
+                send("option name Hash type spin default " + TranspositionTable.DEFAULT_MB
+                        + " min 1 max " + MAX_HASH_MB);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name Ponder type check default false");
+                send("option name OwnBook type check default false");
+                send("option name BookFile type string default " + bookFile);
+                send("option name TablebasePath type string default <empty>");
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "ucinewgame":
+                stopSearch();
+                tt.clear();
+                game.newGame();
+                break;
+            case "setoption":
+                setOption(tok);
+                break;
+            case "position":
+                stopSearch();
+                position(tok);
+                break;
+            case "go":
+                go(tok);
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "quit":
+                return false;
+            default:
+                send("info string comando desconhecido: " + tok[0]);
+        }
+        return true;
+    }
+
+    // --------- setoption name <id> [value <x>] ----------
+
+    private void setOption(String[] tok) {
+        // Nome e valor podem conter espaços (ex.: caminho do livro)
+        StringBuilder name = new StringBuilder(), value = null;
+        for (int i = 1; i < tok.length; i++) {
+            if (tok[i].equals("name") && value == null && name.length() == 0) continue;
+            if (tok[i].equals("value") && value == null) { value = new StringBuilder(); continue; }
+            StringBuilder sb = value != null ? value : name;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(tok[i]);
+        }
+        String n = name.toString();
+        if (n.isEmpty() || value == null) return;
+        String v = value.toString();
+
+        if (n.equalsIgnoreCase("OwnBook")) {
+            ownBook = v.equalsIgnoreCase("true");
+            loadBook();
+        } else if (n.equalsIgnoreCase("BookFile")) {
+            bookFile = v;
+            loadBook();
+        } else if (n.equalsIgnoreCase("TablebasePath")) {
+            tablebasePath = v;
+            loadTablebases();
+        } else if (n.equalsIgnoreCase("Hash") || n.equalsIgnoreCase("Threads")) {
+            try {
+                int x = Integer.parseInt(v);
+                if (n.equalsIgnoreCase("Hash")) {
+                    stopSearch();
+                    tt.resize(clamp(x, 1, MAX_HASH_MB));
+                } else {
+                    threads = clamp(x, 1, MAX_THREADS);
+                }
+            } catch (NumberFormatException e) {
+                send("info string valor inválido para " + n + ": " + v);
+            }
+        }
+        // "Ponder" (true/false) e opções desconhecidas não precisam de tratamento
+    }
+
+    /** (Re)abre o livro conforme OwnBook/BookFile; o anterior é fechado. */
+    private void loadBook() {
+        stopSearch();
+        OpeningBook old = engine.getBook();
+        engine.setBook(null);
+        if (old != null) {
+            try { old.close(); } catch (IOException ignored) {}
+        }
+        if (!ownBook || bookFile.isEmpty() || bookFile.equals("<empty>")) return;
+        try {
+            OpeningBook book = OpeningBook.open(Paths.get(bookFile));
+            engine.setBook(book);
+            send("info string livro " + bookFile + " (" + book.size() + " registros)");
+        } catch (IOException | RuntimeException e) {
+            send("info string livro não carregado: " + e.getMessage());
+        }
+    }
+
+    /** (Re)abre as tablebases do diretório configurado; o conjunto anterior é fechado. */
+    private void loadTablebases() {
+        stopSearch();
+        Tablebase old = engine.getTablebase();
+        engine.setTablebase(null);
+        if (old != null) {
+            try { old.close(); } catch (IOException ignored) {}
+        }
+        if (tablebasePath.isEmpty() || tablebasePath.equals("<empty>")) return;
+        try {
+            Tablebase tb = Tablebase.open(Paths.get(tablebasePath));
+            engine.setTablebase(tb);
+            send("info string tablebases " + tablebasePath + " (" + tb.size() + " tabelas)");
+        } catch (IOException | RuntimeException e) {
+            send("info string tablebases não carregadas: " + e.getMessage());
+        }
+    }
+
+    // --------- position [startpos | fen <fen>] [moves ...] ----------
+
+    private void position(String[] tok) {
+        int i = 1;
+        try {
+            if (i < tok.length && tok[i].equals("startpos")) {
+                game.newGame();
+                i++;
+            } else if (i < tok.length && tok[i].equals("fen")) {
+                StringBuilder fen = new StringBuilder();
+                for (i = i + 1; i < tok.length && !tok[i].equals("moves"); i++) {
+                    fen.append(tok[i]).append(' ');
+                }
+                Fen.apply(game, fen.toString());
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+            game.newGame();
+            return;
+        }
+        if (i < tok.length && tok[i].equals("moves")) {
+            for (i = i + 1; i < tok.length; i++) {
+                if (!applyUciMove(game, tok[i])) {
+                    send("info string lance ilegal: " + tok[i]);
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Aplica um lance em notação UCI ("e2e4", "e7e8q"); false se inválido. */
+    public static boolean applyUciMove(Game g, String s) {
+        if (s.length() < 4) return false;
+        Position from, to;
+        try {
+            from = Fen.square(s.substring(0, 2));
+            to = Fen.square(s.substring(2, 4));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        Character promo = s.length() > 4 ? Character.toUpperCase(s.charAt(4)) : null;
+        boolean before = g.whiteToMove();
+        g.move(from, to, promo);
+        return g.whiteToMove() != before;
+    }
+
+    /** Lance em notação UCI. */
+    public static String toUci(Move m) {
+        String s = m.getFrom().toString() + m.getTo();
+        return m.getPromotion() != null ? s + Character.toLowerCase(m.getPromotion()) : s;
+    }
+
+    // --------- go ----------
+
+    private void go(String[] tok) {
+        stopSearch();
+
+        int depth = MAX_DEPTH;
+        long nodes = 0, movetime = 0, wtime = 0, btime = 0, winc = 0, binc = 0;
+        int movestogo = 0;
+        boolean infinite = false, ponder = false;
+        for (int i = 1; i < tok.length; i++) {
+            String k = tok[i];
+            if (k.equals("infinite")) { infinite = true; continue; }
+            if (k.equals("ponder")) { ponder = true; continue; }
+            if (i + 1 >= tok.length) break;
+            long v;
+            try { v = Long.parseLong(tok[i + 1]); } catch (NumberFormatException e) { continue; }
+            switch (k) {
+                case "depth": depth = (int) clamp(v, 1, MAX_DEPTH); break;
+                case "nodes": nodes = v; break;
+                case "movetime": movetime = v; break;
+                case "wtime": wtime = v; break;
+                case "btime": btime = v; break;
+                case "winc": winc = v; break;
+                case "binc": binc = v; break;
+                case "movestogo": movestogo = (int) v; break;
+                default: continue;
+            }
+            i++;
+        }
+
+        long budget = 0;
+        if (movetime > 0) {
+            budget = Math.max(1, movetime - MOVE_OVERHEAD_MS);
+        } else if (!infinite) {
+            long time = game.whiteToMove() ? wtime : btime;
+            long inc = game.whiteToMove() ? winc : binc;
+            if (time > 0) {
+                long mtg = movestogo > 0 ? movestogo : 30;
+                budget = time / mtg + inc * 3 / 4;
+                budget = Math.max(1, Math.min(budget, time - MOVE_OVERHEAD_MS));
+            }
+        }
+
+        final SearchLimits limits = new SearchLimits(depth, nodes, infinite ? 0 : budget, 0, true);
+        final Game root = game.snapshotShallow();
+        final boolean pondering = ponder;
+        engine.setLimits(limits);
+
+        synchronized (stopLock) {
+            controls.clear();
+            mainControl = new SearchControl(this::sendInfo);
+            controls.add(mainControl);
+            holdBestMove = infinite || ponder;
+        }
+        final SearchControl control = mainControl;
+
+        // Threads auxiliares (Lazy SMP): sem prazo próprio, paradas quando a principal termina
+        final List<Thread> helpers = new ArrayList<>();
+        for (int t = 1; t < threads; t++) {
+            final SearchEngine helper = new SearchEngine(limits.withTime(0), tt);
+            helper.setTablebase(engine.getTablebase());
+            helper.setHelperIndex(t);
+            final SearchControl hc = new SearchControl();
+            final Game hroot = root.snapshotShallow();
+            synchronized (stopLock) { controls.add(hc); }
+            helpers.add(new Thread(() -> helper.ponder(hroot, hc), "uci-helper-" + t));
+        }
+
+        searchThread = new Thread(() -> {
+            for (Thread h : helpers) h.start();
+            Move best = pondering ? engine.ponder(root, control) : engine.makeMove(root, control);
+            for (SearchControl c : snapshotControls()) if (c != control) c.stop();
+            for (Thread h : helpers) joinQuietly(h);
+            waitForRelease(control);
+            sendBestMove(root, best);
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    private void ponderHit() {
+        synchronized (stopLock) {
+            if (mainControl == null) return;
+            engine.ponderHit(mainControl);
+            holdBestMove = false;
+            stopLock.notifyAll();
+        }
+    }
+
+    /** Para a busca em curso (se houver) e espera o "bestmove" ser enviado. */
+    private void stopSearch() {
+        Thread t = searchThread;
+        if (t == null) return;
+        synchronized (stopLock) {
+            for (SearchControl c : controls) c.stop();
+            holdBestMove = false;
+            stopLock.notifyAll();
+        }
+        joinQuietly(t);
+        searchThread = null;
+    }
+
+    private void waitForRelease(SearchControl control) {
+        synchronized (stopLock) {
+            while (holdBestMove && !control.isStopped()) {
+                try {
+                    stopLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<SearchControl> snapshotControls() {
+        synchronized (stopLock) {
+            return new ArrayList<>(controls);
+        }
+    }
+
+    private void sendBestMove(Game root, Move best) {
+        if (best == null) {
+            send("bestmove 0000");
+            return;
+        }
+        Game after = IAUtils.play(root, best);
+        Move reply = engine.predictReply(after);
+        if (reply != null && !after.isLegal(reply.getFrom(), reply.getTo())) reply = null;
+        send("bestmove " + toUci(best) + (reply != null ? " ponder " + toUci(reply) : ""));
+    }
+
+    private void sendInfo(SearchInfo info) {
+        String score = info.isMate() ? "mate " + info.mateIn() : "cp " + info.score;
+        send("info depth " + info.depth + " score " + score + " nodes " + info.nodes
+                + " nps " + info.nps() + " time " + info.timeMillis
+                + (info.pv.isEmpty() ? "" : " pv " + info.pvString()));
+    }
+
+    private synchronized void send(String s) {
+        out.println(s);
+        out.flush();
+    }
+
+    private static void joinQuietly(Thread t) {
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int clamp(int v, int lo, int hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+
+    private static long clamp(long v, long lo, long hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+}
@@ -0,0 +1,215 @@
+package view;
+
+import ai.IAUtils;
+import ai.SearchControl;
+import ai.SearchEngine;
+import ai.SearchInfo;
+import ai.SearchLimits;
+import controller.Game;
+import controller.GameState;
+import controller.San;
+import controller.TranspositionTable;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.*;
+import model.board.Move;
+
+/**
+ * Painel de análise contínua: o motor busca a posição atual em segundo plano e mostra as
+ * N melhores variantes (multi-PV) com nota, profundidade, nós e nós/s.
+ *
+ * A busca roda numa única thread própria; mudar de posição (setPosition) só para a busca em
+ * curso e enfileira a nova, sem esperar no EDT. O motor da análise usa a mesma tabela de
+ * transposição da IA, então a posição seguinte da partida já começa com boa parte da árvore
+ * conhecida. Os resultados não vão direto para o EDT: a thread de busca deixa o último
+ * quadro numa referência atômica e um Timer do Swing o desenha no máximo a cada
+ * REFRESH_MILLIS, descartando os intermediários.
+ */
+public class AnalysisPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_LINES = 5;
+    private static final int REFRESH_MILLIS = 250;
+    private static final int MAX_DEPTH = 32;
+    private static final int PV_MOVES = 8;
+
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "analysis");
+        t.setDaemon(true);
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    /** O que a thread de busca entrega para o EDT desenhar. */
+    private static final class Frame {
+        final SearchControl owner;   // busca que gerou o quadro (quadros de buscas paradas são ignorados)
+        final String header;
+        final String[] lines;
+
+        Frame(SearchControl owner, String header, String... lines) {
+            this.owner = owner;
+            this.header = header;
+            this.lines = lines;
+        }
+    }
+
+    private final SearchEngine engine;
+    private final JCheckBox enabled = new JCheckBox("Análise");
+    private final JSpinner linesSpinner = new JSpinner(new SpinnerNumberModel(3, 1, MAX_LINES, 1));
+    private final JLabel header = new JLabel(" ");
+    private final JLabel[] lineLabels = new JLabel[MAX_LINES];
+    private final AtomicReference<Frame> pending = new AtomicReference<>();
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> drawPending());
+
+    private GameState position;          // posição pedida (EDT)
+    private boolean paused;              // ex.: a IA está pensando
+    private SearchControl control;       // busca em curso
+
+    /** @param table tabela de transposição compartilhada com a IA */
+    public AnalysisPanel(TranspositionTable table) {
+        super(new BorderLayout(4, 4));
+        engine = new SearchEngine(new SearchLimits(MAX_DEPTH, 0, 0, 0, true), table);
+
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 0));
+        top.setOpaque(false);
+        top.add(enabled);
+        top.add(new JLabel("Linhas:"));
+        top.add(linesSpinner);
+        add(top, BorderLayout.NORTH);
+
+        JPanel body = new JPanel(new GridLayout(MAX_LINES + 1, 1));
+        body.setOpaque(false);
+        Font mono = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+        header.setFont(mono);
+        body.add(header);
+        for (int i = 0; i < MAX_LINES; i++) {
+            lineLabels[i] = new JLabel(" ");
+            lineLabels[i].setFont(mono);
+            body.add(lineLabels[i]);
+        }
+        add(body, BorderLayout.CENTER);
+
+        timer.setCoalesce(true);
+        enabled.addActionListener(e -> {
+            if (enabled.isSelected()) {
+                timer.start();
+                restart();
+            } else {
+                stop();
+                timer.stop();
+                clear();
+            }
+        });
+        linesSpinner.addChangeListener(e -> restart());
+    }
+
+    /**
+     * Informa a posição atual da partida (chame no EDT a cada refresh). A busca só recomeça
+     * se a posição mudou. Com paused = true a análise fica parada (ex.: enquanto a IA joga).
+     */
+    public void setPosition(Game game, boolean paused) {
+        GameState now = GameState.of(game);
+        boolean changed = !now.equals(position) || paused != this.paused;
+        position = now;
+        this.paused = paused;
+        if (changed) restart();
+    }
+
+    /** Para a busca em curso (ex.: fechar a janela, novo jogo). */
+    public void stop() {
+        if (control != null) control.stop();
+        control = null;
+    }
+
+    // --------- Busca ----------
+
+    private void restart() {
+        stop();
+        if (!enabled.isSelected() || position == null) return;
+        if (paused) {
+            pending.set(new Frame(null, "Análise pausada (PC pensando)"));
+            return;
+        }
+        final GameState root = position;
+        final int lines = (Integer) linesSpinner.getValue();
+        final List<SearchInfo> current = new ArrayList<>(lines);
+        final int[] shown = { lines };            // menos se a posição tiver menos lances legais
+        final SearchControl[] self = new SearchControl[1];
+        final SearchControl c = new SearchControl(info -> {
+            // Thread de busca: junta as variantes da profundidade e publica o quadro completo
+            if (info.multiPv == 1) current.clear();
+            current.add(info);
+            if (info.multiPv == shown[0]) publish(self[0], root, current);
+        });
+        self[0] = c;
+        control = c;
+        pending.set(new Frame(c, "Analisando..."));
+        // A busca anterior já foi parada; a fila de uma thread garante que não rodam juntas
+        WORKER.execute(() -> {
+            if (c.isStopped()) return;
+            Game game = root.toGame();
+            if (game.isGameOver()) {
+                pending.set(new Frame(c, "Fim de jogo"));
+                return;
+            }
+            shown[0] = Math.min(lines, IAUtils.legalMoves(game).size());
+            engine.analyze(game, lines, c);
+        });
+    }
+
+    /** Formata as variantes (na thread de busca) e deixa o quadro para o próximo tick do Timer. */
+    private void publish(SearchControl owner, GameState root, List<SearchInfo> infos) {
+        if (owner.isStopped()) return;
+        SearchInfo best = infos.get(0);
+        String head = String.format("prof. %d  %,d nós  %,d nós/s", best.depth, best.nodes, best.nps());
+        String[] text = new String[infos.size()];
+        int sign = root.whiteToMove() ? 1 : -1; // notas do ponto de vista das brancas
+        for (int i = 0; i < infos.size(); i++) {
+            SearchInfo info = infos.get(i);
+            String score = info.isMate()
+                    ? "#" + sign * info.mateIn()
+                    : String.format("%+.2f", sign * info.score / 100.0);
+            text[i] = String.format("%d. %7s  %s", i + 1, score, sanLine(root, info.pv));
+        }
+        pending.set(new Frame(owner, head, text));
+    }
+
+    private static String sanLine(GameState root, List<Move> pv) {
+        StringBuilder sb = new StringBuilder();
+        Game g = root.toGame();
+        int number = root.fullmoveNumber();
+        boolean white = root.whiteToMove();
+        for (int i = 0; i < pv.size() && i < PV_MOVES; i++) {
+            Move m = pv.get(i);
+            if (white) sb.append(number).append(". ");
+            else if (i == 0) sb.append(number).append("... ");
+            sb.append(San.toSan(g, m.getFrom(), m.getTo(), m.getPromotion()));
+            g = IAUtils.play(g, m);
+            sb.append(San.checkSuffix(g)).append(' ');
+            if (!white) number++;
+            white = !white;
+        }
+        return sb.toString().trim();
+    }
+
+    // --------- EDT ----------
+
+    private void drawPending() {
+        Frame f = pending.getAndSet(null);
+        if (f == null || f.owner != control) return;
+        header.setText(f.header);
+        for (int i = 0; i < MAX_LINES; i++) {
+            lineLabels[i].setText(i < f.lines.length ? f.lines[i] : " ");
+        }
+    }
+
+    private void clear() {
+        pending.set(null);
+        header.setText(" ");
+        for (JLabel l : lineLabels) l.setText(" ");
+    }
+}
@@ -0,0 +1,177 @@
+package view;
+
+import controller.Game;
+import controller.Zobrist;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.function.Consumer;
+import javax.swing.*;
+import model.board.Board;
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Tabuleiro desenhado num único componente: casas, realces e peças num só paintComponent.
+ *
+ * Substitui os 64 JButtons: cada botão tinha borda, fundo, ícone e layout próprios, e cada
+ * refresh() mexia em todos eles. Aqui update() compara o estado novo de cada casa (peça e
+ * realce) com o último desenhado e pede repaint só do retângulo das casas que mudaram; o
+ * paintComponent desenha apenas as casas que cruzam o clip. Um lance comum repinta 2 a 4
+ * casas em vez do tabuleiro inteiro. Redimensionar não recalcula nada: o Swing repinta o
+ * componente e as casas são reposicionadas a partir do tamanho atual; as peças vêm de um
+ * SpriteAtlas por faixa de tamanho, sem reescalar imagens a cada pixel do arrasto.
+ *
+ * Cliques são convertidos em casa pela coordenada do mouse (squareAt).
+ */
+public class BoardComponent extends JComponent {
+    private static final long serialVersionUID = 1L;
+
+    // Cores fixas: cinza claro e azul
+    private static final Color LIGHT_SQUARE = new Color(192, 192, 192); // Cinza claro
+    private static final Color DARK_SQUARE = new Color(30, 144, 255);   // Azul
+    private static final Color BACKGROUND = new Color(210, 210, 210);
+
+    private static final Color HILITE_SELECTED = new Color(255, 237, 41);
+    private static final Color HILITE_LEGAL = new Color(26, 20, 196);
+    private static final Color HILITE_LASTMOVE = new Color(220, 170, 30);
+
+    private static final int MARGIN = 6;
+    private static final int HILITE_WIDTH = 3;
+
+    // Estado de cada casa: bits 0..3 = peça (índice Zobrist + 1, 0 = vazia), bits 4..5 = realce
+    private static final int NONE = 0, LASTMOVE = 1, SELECTED = 2, LEGAL = 3;
+    private final int[] state = new int[64];
+    private final SpriteAtlas sprites = new SpriteAtlas(this);
+    private boolean painted;
+
+    public BoardComponent(Consumer<Position> onClick) {
+        setOpaque(true);
+        setPreferredSize(new Dimension(8 * 80 + 2 * MARGIN, 8 * 80 + 2 * MARGIN));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (!SwingUtilities.isLeftMouseButton(e)) return;
+                Position p = squareAt(e.getX(), e.getY());
+                if (p != null) onClick.accept(p);
+            }
+        });
+    }
+
+    /**
+     * Registra o estado a desenhar e repinta só as casas alteradas. Chame no EDT.
+     * @param legalTargets destinos da peça selecionada, bit row*8+col (Game.legalTargets)
+     */
+    public void update(Game game, Position selected, long legalTargets, Position lastFrom, Position lastTo) {
+        int[] hilite = new int[64];
+        if (lastFrom != null) hilite[index(lastFrom)] = LASTMOVE;
+        if (lastTo != null) hilite[index(lastTo)] = LASTMOVE;
+        if (selected != null) {
+            hilite[index(selected)] = SELECTED;
+            for (long bits = legalTargets; bits != 0; bits &= bits - 1) {
+                hilite[Long.numberOfTrailingZeros(bits)] = LEGAL;
+            }
+        }
+
+        Board board = game.board();
+        for (int i = 0; i < 64; i++) {
+            Piece p = board.get(Position.of(i >>> 3, i & 7));
+            int s = (p == null ? 0 : Zobrist.pieceIndex(p) + 1) | hilite[i] << 4;
+            if (s == state[i]) continue;
+            state[i] = s;
+            Rectangle r = squareBounds(i >>> 3, i & 7);
+            repaint(r.x, r.y, r.width, r.height);
+        }
+    }
+
+    /** Começa a montar os sprites no tamanho preferido, antes de a janela aparecer. */
+    public void preloadSprites() {
+        sprites.preload(iconSize(getPreferredSize().height / 8));
+    }
+
+    /** Casa sob o ponto (coordenadas do componente), ou null fora do tabuleiro. */
+    public Position squareAt(int x, int y) {
+        int side = squareSide();
+        int x0 = originX(side), y0 = originY(side);
+        if (x < x0 || y < y0) return null;
+        int col = (x - x0) / side, row = (y - y0) / side;
+        return row < 8 && col < 8 ? Position.of(row, col) : null;
+    }
+
+    // --------- Desenho ----------
+
+    @Override
+    protected void paintComponent(Graphics g0) {
+        Graphics2D g = (Graphics2D) g0;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+        int side = squareSide();
+        int x0 = originX(side), y0 = originY(side);
+        Rectangle boardRect = new Rectangle(x0, y0, 8 * side, 8 * side);
+        if (!boardRect.contains(clip)) {
+            g.setColor(BACKGROUND);
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        }
+
+        int iconSize = iconSize(side);
+        int c0 = Math.max(0, (clip.x - x0) / side), c1 = Math.min(7, (clip.x + clip.width - 1 - x0) / side);
+        int r0 = Math.max(0, (clip.y - y0) / side), r1 = Math.min(7, (clip.y + clip.height - 1 - y0) / side);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                paintSquare(g, r, c, x0 + c * side, y0 + r * side, side, iconSize);
+            }
+        }
+        if (!painted) {
+            painted = true;
+            StartupTimer.mark("primeiro quadro do tabuleiro");
+        }
+    }
+
+    private void paintSquare(Graphics2D g, int row, int col, int x, int y, int side, int iconSize) {
+        int s = state[row * 8 + col];
+        g.setColor((row + col) % 2 == 0 ? LIGHT_SQUARE : DARK_SQUARE);
+        g.fillRect(x, y, side, side);
+
+        int hilite = s >>> 4;
+        if (hilite != NONE) {
+            g.setColor(hilite == SELECTED ? HILITE_SELECTED : hilite == LEGAL ? HILITE_LEGAL : HILITE_LASTMOVE);
+            int w = HILITE_WIDTH;
+            g.fillRect(x, y, side, w);
+            g.fillRect(x, y + side - w, side, w);
+            g.fillRect(x, y + w, w, side - 2 * w);
+            g.fillRect(x + side - w, y + w, w, side - 2 * w);
+        }
+
+        int code = (s & 15) - 1;
+        if (code >= 0) sprites.draw(g, code, x, y, side, iconSize);
+    }
+
+    // --------- Geometria ----------
+
+    private static int iconSize(int side) {
+        return Math.max(24, side - 8);
+    }
+
+    private int squareSide() {
+        int w = getWidth() - 2 * MARGIN, h = getHeight() - 2 * MARGIN;
+        return Math.max(1, Math.min(w, h) / 8);
+    }
+
+    private int originX(int side) {
+        return (getWidth() - 8 * side) / 2;
+    }
+
+    private int originY(int side) {
+        return (getHeight() - 8 * side) / 2;
+    }
+
+    private Rectangle squareBounds(int row, int col) {
+        int side = squareSide();
+        return new Rectangle(originX(side) + col * side, originY(side) + row * side, side, side);
+    }
+
+    private static int index(Position p) {
+        return p.getRow() * 8 + p.getColumn();
+    }
+}
@@ -1,15 +1,25 @@
 package view;
 
-import ai.IANivel3;
+import ai.OpeningBook;
+import ai.Tablebase;
+import ai.SearchControl;
+import ai.SearchEngine;
+import ai.SearchInfo;
+import ai.SearchLimits;
 import controller.Game;
+import controller.GameCodec;
+import controller.GameState;
+import controller.Zobrist;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import javax.swing.*;
-import javax.swing.border.Border;
-import javax.swing.border.MatteBorder;
+import model.board.Move;
 import model.board.Position;
 import model.pieces.Pawn;
 import model.pieces.Piece;
@@ -17,30 +27,21 @@ import model.pieces.Piece;
 public class ChessGUI extends JFrame {
     private static final long serialVersionUID = 1L;
 
-    // Cores fixas: cinza claro e azul
-    private static final Color LIGHT_SQUARE = new Color(192, 192, 192); // Cinza claro
-    private static final Color DARK_SQUARE = new Color(30, 144, 255);   // Azul
+    private Game game;
 
-    private static final Color HILITE_SELECTED = new Color(255, 237, 41);
-    private static final Color HILITE_LEGAL = new Color(26, 20, 196);
-    private static final Color HILITE_LASTMOVE = new Color(220, 170, 30);
-
-    private static final Border BORDER_SELECTED = new MatteBorder(3, 3, 3, 3, HILITE_SELECTED);
-    private static final Border BORDER_LEGAL = new MatteBorder(3, 3, 3, 3, HILITE_LEGAL);
-    private static final Border BORDER_LASTMOVE = new MatteBorder(3, 3, 3, 3, HILITE_LASTMOVE);
-
-    private final Game game;
-
-    private final JPanel boardPanel;
-    private final JButton[][] squares = new JButton[8][8];
+    private final BoardComponent board;
+    private final AnalysisPanel analysis;
 
     private final JLabel status;
-    private final JTextArea history;
+    // Histórico: uma linha por lance completo; só a última linha muda e as novas são acrescentadas
+    private final DefaultListModel<String> historyModel = new DefaultListModel<>();
+    private final JList<String> history;
     private final JScrollPane historyScroll;
+    private int historyPlies = 0;
 
     // Menu e controles
     private JCheckBoxMenuItem pcAsBlack;
-    private JMenuItem newGameItem, quitItem;
+    private JMenuItem newGameItem, saveItem, openItem, quitItem;
 
     // Placar de peças capturadas
     private final List<Piece> capturedWhite = new ArrayList<>();
@@ -50,15 +51,31 @@ public class ChessGUI extends JFrame {
 
     // Controle de seleção e movimentos legais
     private Position selected = null;
-    private List<Position> legalForSelected = new ArrayList<>();
+    private long legalForSelected = 0L; // destinos da peça selecionada (bit row*8+col)
 
     // Realce do último lance
     private Position lastFrom = null, lastTo = null;
 
     // IA
     private boolean aiThinking = false;
-    private final Random rnd = new Random();
     private int aiLevel = 0;
+    private final SearchEngine engine = new SearchEngine(SearchLimits.forLevel(aiLevel));
+    private SearchControl aiControl = null;       // busca do lance da IA em curso
+    private SwingWorker<?, ?> lastAiWorker = null; // a próxima busca espera esta terminar
+    private String aiProgress = "";
+
+    // Livro de aberturas opcional, aberto se existir no diretório de trabalho
+    private static final String BOOK_FILE = "book.bin";
+    // Tablebases de finais opcionais (geradas por tools.TablebaseGenerator)
+    private static final String TABLEBASE_DIR = "tablebases";
+    // Partidas salvas pelo menu (GameCodec)
+    private static final String SAVE_EXTENSION = ".rcg";
+
+    // Ponder: busca da resposta prevista enquanto o humano pensa (só no nível Difícil)
+    private static final int PONDER_LEVEL = 2;
+    private SwingWorker<Move, Void> ponderWorker = null;
+    private SearchControl ponderControl = null;
+    private long ponderKey = 0L; // hash da posição prevista; 0 = nenhum ponder válido
 
     public ChessGUI() {
         super("RoyalChess");
@@ -69,33 +86,17 @@ public class ChessGUI extends JFrame {
         } catch (Exception ignored) {}
 
         this.game = new Game();
+        openBook();
+        openTablebases();
 
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         setLayout(new BorderLayout(8, 8));
 
         setJMenuBar(buildMenuBar());
 
-        // Painel do tabuleiro (8x8)
-        boardPanel = new JPanel(new GridLayout(8, 8, 0, 0));
-        boardPanel.setBackground(new Color(210, 210, 210));
-        boardPanel.setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
-
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                final int rr = r;
-                final int cc = c;
-                JButton b = new JButton();
-                b.setMargin(new Insets(0, 0, 0, 0));
-                b.setFocusPainted(false);
-                b.setOpaque(true);
-                b.setBorderPainted(true);
-                b.setContentAreaFilled(true);
-                b.setFont(b.getFont().deriveFont(Font.BOLD, 24f));
-                b.addActionListener(e -> handleClick(new Position(rr, cc)));
-                squares[r][c] = b;
-                boardPanel.add(b);
-            }
-        }
+        // Tabuleiro (8x8) desenhado num só componente
+        board = new BoardComponent(this::handleClick);
+        board.preloadSprites();
 
         // Barra inferior de status
         status = new JLabel("Jogada: Brancas");
@@ -104,11 +105,14 @@ public class ChessGUI extends JFrame {
         status.setForeground(Color.WHITE);
 
         // Histórico de jogadas
-        history = new JTextArea(14, 22);
-        history.setEditable(false);
+        history = new JList<>(historyModel);
         history.setFont(new Font(Font.MONOSPACED, Font.BOLD, 14));
         history.setForeground(Color.WHITE);
         history.setBackground(new Color(30, 144, 255)); // Azul claro
+        history.setFocusable(false);
+        history.setVisibleRowCount(14);
+        // Altura e largura fixas: o JList não mede as linhas e só desenha as visíveis
+        history.setPrototypeCellValue(historyRow(999, "Qxe8=Q+#", "Qxe8=Q+#"));
         historyScroll = new JScrollPane(history);
 
         // Painel lateral direito (histórico + controles)
@@ -120,7 +124,14 @@ public class ChessGUI extends JFrame {
         histLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 4, 0));
         rightPanel.add(histLabel, BorderLayout.NORTH);
         rightPanel.add(historyScroll, BorderLayout.CENTER);
-        rightPanel.add(buildSideControls(), BorderLayout.SOUTH);
+        // Análise contínua (multi-PV), com a mesma tabela de transposição da IA
+        analysis = new AnalysisPanel(engine.getTable());
+        analysis.setOpaque(false);
+        JPanel southPanel = new JPanel(new BorderLayout(6, 6));
+        southPanel.setOpaque(false);
+        southPanel.add(analysis, BorderLayout.CENTER);
+        southPanel.add(buildSideControls(), BorderLayout.SOUTH);
+        rightPanel.add(southPanel, BorderLayout.SOUTH);
 
         // Placar de peças capturadas
         capturedWhiteLabel = new JLabel("Brancas capturadas: ");
@@ -130,17 +141,10 @@ public class ChessGUI extends JFrame {
         capturedPanel.add(capturedBlackLabel);
 
         add(capturedPanel, BorderLayout.NORTH);
-        add(boardPanel, BorderLayout.CENTER);
+        add(board, BorderLayout.CENTER);
         add(status, BorderLayout.SOUTH);
         add(rightPanel, BorderLayout.EAST);
 
-        boardPanel.addComponentListener(new ComponentAdapter() {
-            @Override
-            public void componentResized(ComponentEvent e) {
-                refresh();
-            }
-        });
-
         getContentPane().setBackground(Color.DARK_GRAY);
         setMinimumSize(new Dimension(1100, 780));
         setLocationRelativeTo(null);
@@ -148,10 +152,34 @@ public class ChessGUI extends JFrame {
         setupAccelerators();
 
         setVisible(true);
+        StartupTimer.mark("janela visível");
         refresh();
         maybeTriggerAI();
     }
 
+    /** Mapeia o livro de aberturas (instantâneo: nada é lido para o heap). Sem livro, a IA só busca. */
+    private void openBook() {
+        Path path = Paths.get(BOOK_FILE);
+        if (!Files.isRegularFile(path)) return;
+        try {
+            engine.setBook(OpeningBook.open(path));
+        } catch (IOException e) {
+            System.err.println("Livro de aberturas ignorado: " + e.getMessage());
+        }
+    }
+
+    /** Mapeia as tablebases, se o diretório existir. */
+    private void openTablebases() {
+        Path dir = Paths.get(TABLEBASE_DIR);
+        if (!Files.isDirectory(dir)) return;
+        try {
+            Tablebase tb = Tablebase.open(dir);
+            if (tb.size() > 0) engine.setTablebase(tb);
+        } catch (IOException e) {
+            System.err.println("Tablebases ignoradas: " + e.getMessage());
+        }
+    }
+
     private JMenuBar buildMenuBar() {
         JMenuBar mb = new JMenuBar();
 
@@ -162,6 +190,16 @@ public class ChessGUI extends JFrame {
                 KeyStroke.getKeyStroke(KeyEvent.VK_N, Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
         newGameItem.addActionListener(e -> doNewGame());
 
+        saveItem = new JMenuItem("Salvar Partida...");
+        saveItem.setAccelerator(
+                KeyStroke.getKeyStroke(KeyEvent.VK_S, Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
+        saveItem.addActionListener(e -> doSaveGame());
+
+        openItem = new JMenuItem("Abrir Partida...");
+        openItem.setAccelerator(
+                KeyStroke.getKeyStroke(KeyEvent.VK_O, Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
+        openItem.addActionListener(e -> doOpenGame());
+
         pcAsBlack = new JCheckBoxMenuItem("PC joga com as Pretas");
         pcAsBlack.setSelected(false);
 
@@ -171,6 +209,8 @@ public class ChessGUI extends JFrame {
         quitItem.addActionListener(e -> dispatchEvent(new WindowEvent(this, WindowEvent.WINDOW_CLOSING)));
 
         gameMenu.add(newGameItem);
+        gameMenu.add(saveItem);
+        gameMenu.add(openItem);
         gameMenu.addSeparator();
         gameMenu.add(pcAsBlack);
         gameMenu.addSeparator();
@@ -244,12 +284,69 @@ public class ChessGUI extends JFrame {
 
     private void doNewGame() {
         selected = null;
-        legalForSelected.clear();
+        legalForSelected = 0L;
         lastFrom = lastTo = null;
         aiThinking = false;
         capturedWhite.clear();
         capturedBlack.clear();
+        // Cancela a busca em curso em vez de deixá-la rodar até o fim
+        if (aiControl != null) aiControl.stop();
+        aiControl = null;
+        stopPondering();
+        engine.clearHash();
         game.newGame();
+        resetHistoryViews();
+        refresh();
+        maybeTriggerAI();
+    }
+
+    private void doSaveGame() {
+        JFileChooser fc = new JFileChooser();
+        fc.setSelectedFile(new java.io.File("partida" + SAVE_EXTENSION));
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = fc.getSelectedFile().toPath();
+        if (!file.getFileName().toString().endsWith(SAVE_EXTENSION)) {
+            file = file.resolveSibling(file.getFileName() + SAVE_EXTENSION);
+        }
+        try {
+            GameCodec.save(game, file);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Não foi possível salvar: " + e.getMessage(),
+                    "Salvar Partida", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void doOpenGame() {
+        JFileChooser fc = new JFileChooser();
+        if (fc.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        // Decodifica num Game novo: arquivo truncado ou corrompido não estraga a partida atual
+        Game loaded;
+        try {
+            loaded = GameCodec.load(fc.getSelectedFile().toPath());
+        } catch (IOException | IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, "Não foi possível abrir: " + e.getMessage(),
+                    "Abrir Partida", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (aiControl != null) aiControl.stop();
+        aiControl = null;
+        aiThinking = false;
+        stopPondering();
+        game = loaded;
+        selected = null;
+        legalForSelected = 0L;
+        engine.clearHash();
+        // Placar e último lance reconstruídos a partir do registro de lances
+        capturedWhite.clear();
+        capturedBlack.clear();
+        lastFrom = lastTo = null;
+        for (Move m : game.moveLog()) {
+            Piece c = m.getCaptured();
+            if (c != null) (c.isWhite() ? capturedWhite : capturedBlack).add(c);
+            lastFrom = m.getFrom();
+            lastTo = m.getTo();
+        }
+        resetHistoryViews();
         refresh();
         maybeTriggerAI();
     }
@@ -266,11 +363,11 @@ public class ChessGUI extends JFrame {
         if (selected == null) {
             if (p != null && p.isWhite() == game.whiteToMove()) {
                 selected = clicked;
-                legalForSelected = game.legalMovesFrom(selected);
+                legalForSelected = game.legalTargets(selected);
             }
         } else {
-            List<Position> legals = game.legalMovesFrom(selected);
-            if (legals.contains(clicked)) {
+            // Segunda consulta na mesma posição: sai do cache de lances legais do Game
+            if (game.isLegal(selected, clicked)) {
                 Character promo = null;
                 Piece moving = game.board().get(selected);
                 Piece captured = game.board().get(clicked);
@@ -289,7 +386,7 @@ public class ChessGUI extends JFrame {
                 }
 
                 selected = null;
-                legalForSelected.clear();
+                legalForSelected = 0L;
 
                 refresh();
                 maybeAnnounceEnd();
@@ -297,10 +394,10 @@ public class ChessGUI extends JFrame {
                 return;
             } else if (p != null && p.isWhite() == game.whiteToMove()) {
                 selected = clicked;
-                legalForSelected = game.legalMovesFrom(selected);
+                legalForSelected = game.legalTargets(selected);
             } else {
                 selected = null;
-                legalForSelected.clear();
+                legalForSelected = 0L;
             }
         }
         refresh();
@@ -326,74 +423,84 @@ public class ChessGUI extends JFrame {
     }
 
     private void maybeTriggerAI() {
-        if (game.isGameOver())
-            return;
-        if (!pcAsBlack.isSelected())
-            return;
-        if (game.whiteToMove())
+        if (game.isGameOver() || !pcAsBlack.isSelected() || game.whiteToMove()) {
+            stopPondering();
             return;
+        }
 
         aiThinking = true;
         status.setText("Vez: Pretas — PC pensando...");
-
-        new SwingWorker<Void, Void>() {
+        analysis.setPosition(game, true);
+
+        // Ponder hit: o humano jogou o lance previsto; a busca em curso só ganha prazo.
+        // Ponder miss: a busca é abortada e aguardada antes da nova começar.
+        final SwingWorker<Move, Void> ponder = ponderWorker;
+        final boolean ponderHit = ponder != null && aiLevel == PONDER_LEVEL
+                && ponderKey != 0L && ponderKey == Zobrist.hash(game);
+        if (ponderHit) engine.ponderHit(ponderControl);
+        else stopPondering();
+        ponderWorker = null;
+        ponderControl = null;
+
+        engine.setLimits(SearchLimits.forLevel(aiLevel));
+        // A busca recebe uma posição imutável e monta o próprio Game: o EDT continua dono do jogo real
+        final GameState position = GameState.of(game);
+        final SwingWorker<?, ?> previous = lastAiWorker;
+        aiProgress = "";
+
+        SwingWorker<Void, SearchInfo> worker = new SwingWorker<>() {
+            final SearchControl control = new SearchControl(this::publish);
             Position aiFrom, aiTo;
+            Character aiPromo;
+
+            {
+                aiControl = control;
+            }
 
             @Override
             protected Void doInBackground() {
+                // O motor não aceita duas buscas simultâneas: espera a anterior (já parada)
                 Move chosen = null;
-                if (aiLevel == 0) {
-                    var allMoves = collectAllLegalMovesForSide(false);
-                    if (allMoves.isEmpty())
-                        return null;
-                    chosen = allMoves.get(rnd.nextInt(allMoves.size()));
-                } else if (aiLevel == 1) {
-                    var allMoves = collectAllLegalMovesForSide(false);
-                    if (allMoves.isEmpty())
-                        return null;
-                    int bestScore = Integer.MIN_VALUE;
-                    List<Move> bestList = new ArrayList<>();
-                    for (Move mv : allMoves) {
-                        int score = 0;
-                        Piece target = game.board().get(mv.to);
-                        if (target != null) score += pieceValue(target);
-                        score += centerBonus(mv.to);
-                        if (score > bestScore) {
-                            bestScore = score;
-                            bestList.clear();
-                            bestList.add(mv);
-                        } else if (score == bestScore) {
-                            bestList.add(mv);
-                        }
-                    }
-                    chosen = bestList.get(rnd.nextInt(bestList.size()));
-                } else if (aiLevel == 2) {
-                    IANivel3 iaNivel3 = new IANivel3();
-                    model.board.Move move = iaNivel3.makeMove(game);
-                    if (move != null) {
-                        aiFrom = move.getFrom();
-                        aiTo = move.getTo();
-                        return null;
-                    }
+                if (ponder != null) {
+                    try {
+                        Move pondered = ponder.get();
+                        if (ponderHit) chosen = pondered;
+                    } catch (Exception ignored) {}
+                } else if (previous != null) {
+                    try { previous.get(); } catch (Exception ignored) {}
                 }
-                if (chosen != null) {
-                    aiFrom = chosen.from;
-                    aiTo = chosen.to;
+                if (control.isStopped()) return null;
+                if (chosen == null) chosen = engine.makeMove(position.toGame(), control);
+                if (chosen != null && !control.isStopped()) {
+                    aiFrom = chosen.getFrom();
+                    aiTo = chosen.getTo();
+                    aiPromo = chosen.getPromotion();
                 }
                 return null;
             }
 
+            @Override
+            protected void process(List<SearchInfo> chunks) {
+                if (control.isStopped() || chunks.isEmpty()) return;
+                SearchInfo info = chunks.get(chunks.size() - 1);
+                aiProgress = String.format(" prof. %d, nota %+.2f, %d nós (%d nós/s)",
+                        info.depth, -info.score / 100.0, info.nodes, info.nps());
+                status.setText("Vez: Pretas — PC pensando..." + aiProgress);
+            }
+
             @Override
             protected void done() {
                 try { get(); } catch (Exception ignored) {}
-                if (aiFrom != null && aiTo != null && !game.isGameOver() && !game.whiteToMove()) {
+                // Busca cancelada (ex.: Novo Jogo): o resultado é descartado
+                if (!control.isStopped() && aiFrom != null && aiTo != null
+                        && !game.isGameOver() && !game.whiteToMove()) {
                     lastFrom = aiFrom;
                     lastTo = aiTo;
                     Character promo = null;
                     Piece moving = game.board().get(aiFrom);
                     Piece captured = game.board().get(aiTo);
                     if (moving instanceof Pawn && game.isPromotion(aiFrom, aiTo)) {
-                        promo = 'Q';
+                        promo = aiPromo != null ? aiPromo : 'Q';
                     }
                     game.move(aiFrom, aiTo, promo);
 
@@ -402,142 +509,131 @@ public class ChessGUI extends JFrame {
                         if (captured.isWhite()) capturedWhite.add(captured);
                         else capturedBlack.add(captured);
                     }
+                    startPondering();
+                }
+                if (aiControl == control) {
+                    aiControl = null;
+                    aiThinking = false;
                 }
-                aiThinking = false;
                 refresh();
                 maybeAnnounceEnd();
             }
-        }.execute();
+        };
+        lastAiWorker = worker;
+        worker.execute();
     }
 
-    private static class Move {
-        final Position from, to;
-        Move(Position f, Position t) {
-            this.from = f;
-            this.to = t;
-        }
-    }
+    /** Após o lance da IA, busca a posição resultante da resposta mais provável do humano. */
+    private void startPondering() {
+        if (aiLevel != PONDER_LEVEL || game.isGameOver() || !game.whiteToMove())
+            return;
+        Move predicted = engine.predictReply(game);
+        if (predicted == null || !game.isLegal(predicted.getFrom(), predicted.getTo()))
+            return;
+        final GameState predictedPosition = GameState.of(game).play(predicted);
 
-    private List<Move> collectAllLegalMovesForSide(boolean whiteSide) {
-        List<Move> moves = new ArrayList<>();
-        if (whiteSide != game.whiteToMove())
-            return moves;
-
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Position from = new Position(r, c);
-                Piece piece = game.board().get(from);
-                if (piece != null && piece.isWhite() == whiteSide) {
-                    for (Position to : game.legalMovesFrom(from)) {
-                        moves.add(new Move(from, to));
-                    }
+        ponderKey = predictedPosition.hash();
+        final SearchControl control = new SearchControl();
+        final SwingWorker<?, ?> previous = lastAiWorker;
+        ponderControl = control;
+        ponderWorker = new SwingWorker<>() {
+            @Override
+            protected Move doInBackground() {
+                if (previous != null) {
+                    try { previous.get(); } catch (Exception ignored) {}
                 }
+                Game predictedGame = predictedPosition.toGame();
+                if (predictedGame.isGameOver()) return null;
+                return engine.ponder(predictedGame, control);
             }
-        }
-        return moves;
-    }
-
-    private int pieceValue(Piece p) {
-        if (p == null)
-            return 0;
-        switch (p.getSymbol()) {
-            case "P": return 100;
-            case "N":
-            case "B": return 300;
-            case "R": return 500;
-            case "Q": return 900;
-            case "K": return 20000;
-        }
-        return 0;
+        };
+        lastAiWorker = ponderWorker;
+        ponderWorker.execute();
     }
 
-    private int centerBonus(Position pos) {
-        int r = pos.getRow(), c = pos.getColumn();
-        if ((r == 3 || r == 4) && (c == 3 || c == 4))
-            return 10;
-        if ((r >= 2 && r <= 5) && (c >= 2 && c <= 5))
-            return 4;
-        return 0;
+    /**
+     * Aborta o ponder em curso. O worker é mantido para que a próxima busca
+     * espere o seu término (o aborto é cooperativo, leva alguns milissegundos).
+     */
+    private void stopPondering() {
+        if (ponderControl == null)
+            return;
+        ponderKey = 0L;
+        ponderControl.stop();
     }
 
     private void refresh() {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                boolean light = (r + c) % 2 == 0;
-                Color base = light ? LIGHT_SQUARE : DARK_SQUARE;
-                JButton b = squares[r][c];
-                b.setBackground(base);
-                b.setBorder(null);
-                b.setToolTipText(null);
-            }
-        }
-
-        if (lastFrom != null)
-            squares[lastFrom.getRow()][lastFrom.getColumn()].setBorder(BORDER_LASTMOVE);
-        if (lastTo != null)
-            squares[lastTo.getRow()][lastTo.getColumn()].setBorder(BORDER_LASTMOVE);
-
-        if (selected != null) {
-            squares[selected.getRow()][selected.getColumn()].setBorder(BORDER_SELECTED);
-            for (Position d : legalForSelected) {
-                squares[d.getRow()][d.getColumn()].setBorder(BORDER_LEGAL);
-            }
-        }
-
-        int iconSize = computeSquareIconSize();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = game.board().get(new Position(r, c));
-                JButton b = squares[r][c];
-
-                if (p == null) {
-                    b.setIcon(null);
-                    b.setText("");
-                    continue;
-                }
-
-                char sym = p.getSymbol().charAt(0);
-                ImageIcon icon = ImageUtil.getPieceIcon(p.isWhite(), sym, iconSize);
-                if (icon != null) {
-                    b.setIcon(icon);
-                    b.setText("");
-                } else {
-                    b.setIcon(null);
-                    b.setText(toUnicode(p.getSymbol(), p.isWhite()));
-                }
-            }
-        }
+        // Só as casas que mudaram são repintadas
+        board.update(game, selected, legalForSelected, lastFrom, lastTo);
+        // A análise só recomeça se a posição mudou; fica parada enquanto a IA pensa
+        analysis.setPosition(game, aiThinking);
 
         String side = game.whiteToMove() ? "Brancas" : "Pretas";
         String chk = game.inCheck(game.whiteToMove()) ? " — Xeque!" : "";
         if (aiThinking)
-            chk = " — PC pensando...";
+            chk = " — PC pensando..." + aiProgress;
         status.setText("Jogada: " + side + chk);
 
-        history.setBackground(new Color(30, 144, 255)); // Azul claro
+        updateHistory();
+        updateCapturedLabels();
+    }
 
-        StringBuilder sb = new StringBuilder();
-        var hist = game.history();
-        for (int i = 0; i < hist.size(); i++) {
-            if (i % 2 == 0)
-                sb.append((i / 2) + 1).append('.').append(' ');
-            sb.append(hist.get(i)).append(' ');
-            if (i % 2 == 1)
-                sb.append('\n');
+    /**
+     * Acrescenta ao histórico só os meios-lances novos. A última linha já exibida é refeita
+     * (recebe o lance das pretas, ou o "+" que virou "#"); as anteriores não mudam mais.
+     */
+    private void updateHistory() {
+        List<String> hist = game.history();
+        int n = hist.size();
+        if (n < historyPlies) resetHistoryViews();
+        int rows = (n + 1) / 2;
+        for (int row = historyPlies > 0 ? (historyPlies - 1) / 2 : 0; row < rows; row++) {
+            String text = historyRow(hist, row);
+            if (row < historyModel.size()) {
+                if (!text.equals(historyModel.get(row))) historyModel.set(row, text);
+            } else {
+                historyModel.addElement(text);
+            }
         }
-        history.setText(sb.toString());
-        history.setCaretPosition(history.getDocument().getLength());
+        if (n > historyPlies && rows > 0) history.ensureIndexIsVisible(rows - 1);
+        historyPlies = n;
+    }
 
-        updateCapturedLabels();
+    private static String historyRow(List<String> hist, int row) {
+        int i = 2 * row;
+        return historyRow(row + 1, hist.get(i), i + 1 < hist.size() ? hist.get(i + 1) : "");
+    }
+
+    private static String historyRow(int number, String white, String black) {
+        return String.format("%3d. %-9s%s", number, white, black);
     }
 
+    // Placar: o texto de cada lado cresce só com as capturas novas
+    private int capturedWhiteShown = 0, capturedBlackShown = 0;
+
     private void updateCapturedLabels() {
-        StringBuilder sbWhite = new StringBuilder("Brancas capturadas: ");
-        for (Piece p : capturedWhite) sbWhite.append(toUnicode(p.getSymbol(), true)).append(" ");
-        StringBuilder sbBlack = new StringBuilder("Pretas capturadas: ");
-        for (Piece p : capturedBlack) sbBlack.append(toUnicode(p.getSymbol(), false)).append(" ");
-        capturedWhiteLabel.setText(sbWhite.toString());
-        capturedBlackLabel.setText(sbBlack.toString());
+        capturedWhiteShown = appendCaptured(capturedWhiteLabel, "Brancas capturadas: ", capturedWhite,
+                capturedWhiteShown, true);
+        capturedBlackShown = appendCaptured(capturedBlackLabel, "Pretas capturadas: ", capturedBlack,
+                capturedBlackShown, false);
+    }
+
+    private int appendCaptured(JLabel label, String title, List<Piece> pieces, int shown, boolean white) {
+        if (pieces.size() == shown) return shown;
+        int from = pieces.size() < shown ? 0 : shown;
+        StringBuilder sb = new StringBuilder(from == 0 ? title : label.getText());
+        for (int i = from; i < pieces.size(); i++) sb.append(toUnicode(pieces.get(i).getSymbol(), white)).append(" ");
+        label.setText(sb.toString());
+        return pieces.size();
+    }
+
+    /** Esvazia histórico e placar exibidos (nova partida ou partida aberta de arquivo). */
+    private void resetHistoryViews() {
+        historyModel.clear();
+        historyPlies = 0;
+        capturedWhiteShown = capturedBlackShown = 0;
+        capturedWhiteLabel.setText("Brancas capturadas: ");
+        capturedBlackLabel.setText("Pretas capturadas: ");
     }
 
     private void maybeAnnounceEnd() {
@@ -564,17 +660,10 @@ public class ChessGUI extends JFrame {
         };
     }
 
-    private int computeSquareIconSize() {
-        JButton b = squares[0][0];
-        int w = Math.max(1, b.getWidth());
-        int h = Math.max(1, b.getHeight());
-        int side = Math.min(w, h);
-        if (side <= 1)
-            return 64;
-        return Math.max(24, side - 8);
-    }
-
     public static void main(String[] args) {
+        StartupTimer.mark("main");
+        // Decodifica as imagens das peças em paralelo enquanto o EDT monta a janela
+        ImageUtil.preloadPieces();
         SwingUtilities.invokeLater(ChessGUI::new);
     }
 }
\ No newline at end of file
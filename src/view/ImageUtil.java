@@ -4,9 +4,14 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.imageio.ImageIO;
 import javax.swing.*;
 
@@ -81,6 +86,74 @@ public final class ImageUtil {
         return getPieceIcon(isWhite, ch, size);
     }
 
+    /** Ordem das peças nos sprites: índice Zobrist (0..5 brancas, 6..11 pretas). */
+    public static final String SPRITE_ORDER = "PNBRQK";
+    private static final int PLACEHOLDER_SOURCE_SIZE = 128;
+    private static CompletableFuture<BufferedImage[]> pieceSources;
+
+    /**
+     * Inicia (uma única vez) a decodificação das 12 imagens das peças em paralelo, fora do EDT.
+     * Chamadas seguintes devolvem o mesmo futuro.
+     */
+    public static synchronized CompletableFuture<BufferedImage[]> preloadPieces() {
+        if (pieceSources != null) return pieceSources;
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "image-preload");
+            t.setDaemon(true);
+            return t;
+        });
+        List<CompletableFuture<BufferedImage>> parts = new ArrayList<>(12);
+        for (int i = 0; i < 12; i++) {
+            final int index = i;
+            parts.add(CompletableFuture.supplyAsync(() -> loadPieceSource(index), pool));
+        }
+        pieceSources = CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            pool.shutdown();
+            BufferedImage[] src = new BufferedImage[12];
+            for (int i = 0; i < 12; i++) src[i] = parts.get(i).join();
+            return src;
+        });
+        return pieceSources;
+    }
+
+    /** true quando as imagens das peças já foram decodificadas (pieceSources não bloqueia). */
+    public static boolean piecesReady() {
+        CompletableFuture<BufferedImage[]> f;
+        synchronized (ImageUtil.class) {
+            f = pieceSources;
+        }
+        return f != null && f.isDone();
+    }
+
+    /**
+     * As 12 imagens originais das peças, decodificadas uma única vez (índice Zobrist: 0..5
+     * brancas P,N,B,R,Q,K; 6..11 pretas). Peças sem PNG recebem o placeholder em 128 px.
+     * Bloqueia até a decodificação terminar: no EDT, consulte piecesReady() antes.
+     * O array é compartilhado: não altere.
+     */
+    public static BufferedImage[] pieceSources() {
+        return preloadPieces().join();
+    }
+
+    private static BufferedImage loadPieceSource(int index) {
+        boolean white = index < 6;
+        char p = SPRITE_ORDER.charAt(index % 6);
+        BufferedImage img = loadBuffered((white ? "w" : "b") + p + ".png");
+        if (img == null) {
+            img = (BufferedImage) placeholderIcon(p, white, PLACEHOLDER_SOURCE_SIZE).getImage();
+        }
+        // Converte uma vez para ARGB: PNGs indexados/cinza são lentos de escalar
+        if (img.getType() != BufferedImage.TYPE_INT_ARGB) {
+            BufferedImage argb = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = argb.createGraphics();
+            g.drawImage(img, 0, 0, null);
+            g.dispose();
+            img = argb;
+        }
+        return img;
+    }
+
     /**
      * Carrega um ImageIcon do resources, redimensionando para size x size com alta qualidade.
      * Usa cache LRU para evitar reprocessamento.
@@ -191,7 +264,7 @@ public final class ImageUtil {
     }
 
     /** Escala com Graphics2D e hints de alta qualidade (melhor que getScaledInstance). */
-    private static BufferedImage scaleImageHQ(BufferedImage src, int w, int h) {
+    static BufferedImage scaleImageHQ(BufferedImage src, int w, int h) {
         BufferedImage dst = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g = dst.createGraphics();
         try {
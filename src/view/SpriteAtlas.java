@@ -0,0 +1,191 @@
+package view;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+/**
+ * Sprites das 12 peças pré-renderizados numa única imagem por faixa de tamanho.
+ *
+ * Antes cada tamanho em pixels era uma falta no cache de ImageUtil.getIcon e um redimensionamento
+ * bicúbico por peça; arrastando a borda da janela isso acontecia a cada pixel. Agora o tamanho
+ * pedido é arredondado para baixo a um múltiplo de BUCKET_STEP e cada faixa vira um atlas
+ * (12 peças lado a lado) compatível com a GraphicsConfiguration da tela, desenhado por
+ * sub-retângulos sem escala. Atlas novos são montados numa thread de fundo; até ficarem
+ * prontos, a peça sai do atlas pronto mais próximo com escala bilinear (rápida) e o componente
+ * é repintado quando o atlas certo chega. Só a última faixa pedida é montada: tamanhos
+ * atravessados durante um arrasto são descartados.
+ *
+ * Enquanto as imagens das peças ainda estão sendo decodificadas (ImageUtil.preloadPieces, na
+ * inicialização) são desenhados os placeholders de ImageUtil.placeholderIcon, trocados pelos
+ * sprites assim que o primeiro atlas fica pronto.
+ *
+ * Índices das peças: os de Zobrist (0..5 brancas P,N,B,R,Q,K; 6..11 pretas). Use no EDT.
+ */
+public final class SpriteAtlas {
+
+    public static final int BUCKET_STEP = 8;
+    private static final int MIN_SIZE = 16, MAX_SIZE = 512;
+    private static final int MAX_ATLASES = 6;
+
+    private static final ExecutorService BUILDER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sprite-atlas");
+        t.setDaemon(true);
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    private final Component owner;
+    private final Map<Integer, Image> atlases = new ConcurrentHashMap<>();
+    private volatile int wanted = -1;      // faixa que a thread de fundo deve montar
+    private int pending = -1;              // faixa já enviada para a thread de fundo (EDT)
+    private Image placeholders;            // atlas provisório de letras, até as imagens chegarem
+    private int placeholderBucket = -1;
+
+    /** @param owner componente onde os sprites são desenhados (repintado quando um atlas fica pronto) */
+    public SpriteAtlas(Component owner) {
+        this.owner = owner;
+    }
+
+    /** Faixa de tamanho usada para "size" pixels. */
+    public static int bucket(int size) {
+        return Math.max(MIN_SIZE, Math.min(MAX_SIZE, size - size % BUCKET_STEP));
+    }
+
+    /**
+     * Desenha a peça centrada no quadrado (x, y, side, side), com até "size" pixels.
+     * Nunca bloqueia: sem atlas na faixa certa usa um provisório e agenda a montagem.
+     */
+    public void draw(Graphics2D g, int piece, int x, int y, int side, int size) {
+        int b = bucket(size);
+        int dx = x + (side - b) / 2, dy = y + (side - b) / 2;
+        Image atlas = atlases.get(b);
+        if (atlas != null) {
+            g.drawImage(atlas, dx, dy, dx + b, dy + b, piece * b, 0, piece * b + b, b, null);
+            return;
+        }
+        request(b);
+
+        int nearest = nearestReady(b);
+        if (nearest < 0 && !ImageUtil.piecesReady()) {
+            Image glyphs = placeholderAtlas(b);
+            g.drawImage(glyphs, dx, dy, dx + b, dy + b, piece * b, 0, piece * b + b, b, null);
+            return;
+        }
+        Object hint = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        if (nearest > 0) {
+            g.drawImage(atlases.get(nearest), dx, dy, dx + b, dy + b,
+                    piece * nearest, 0, piece * nearest + nearest, nearest, null);
+        } else {
+            // Primeiro uso: direto da imagem original (decodificada uma vez por ImageUtil)
+            g.drawImage(ImageUtil.pieceSources()[piece], dx, dy, b, b, null);
+        }
+        if (hint != null) g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, hint);
+    }
+
+    /** Agenda a montagem do atlas para "size" pixels antes do primeiro desenho. Chame no EDT. */
+    public void preload(int size) {
+        int b = bucket(size);
+        if (!atlases.containsKey(b)) request(b);
+    }
+
+    // --------- Montagem ----------
+
+    private void request(int b) {
+        wanted = b;
+        if (pending == b) return;
+        pending = b;
+        GraphicsConfiguration gc = config();
+        BUILDER.execute(() -> {
+            if (wanted != b || atlases.containsKey(b)) return; // faixa abandonada durante o arrasto
+            Image atlas = build(b, gc);
+            EventQueue.invokeLater(() -> {
+                store(b, atlas);
+                placeholders = null;
+                if (pending == b) pending = -1;
+                owner.repaint();
+                StartupTimer.finished();
+            });
+        });
+    }
+
+    private void store(int b, Image atlas) {
+        if (atlases.size() >= MAX_ATLASES) {
+            // Descarta a faixa mais distante da pedida agora
+            int far = -1;
+            for (int k : atlases.keySet()) {
+                if (far < 0 || Math.abs(k - wanted) > Math.abs(far - wanted)) far = k;
+            }
+            atlases.remove(far);
+        }
+        atlases.put(b, atlas);
+    }
+
+    /** Configuração da tela do componente; antes de ele ser exibido, a da tela principal. */
+    private GraphicsConfiguration config() {
+        GraphicsConfiguration gc = owner.getGraphicsConfiguration();
+        if (gc == null && !GraphicsEnvironment.isHeadless()) {
+            gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        }
+        return gc;
+    }
+
+    private int nearestReady(int b) {
+        int best = -1;
+        for (int k : atlases.keySet()) {
+            if (best < 0 || Math.abs(k - b) < Math.abs(best - b)) best = k;
+        }
+        return best;
+    }
+
+    private Image placeholderAtlas(int b) {
+        if (placeholders == null || placeholderBucket != b) {
+            BufferedImage[] glyphs = new BufferedImage[12];
+            for (int i = 0; i < 12; i++) {
+                glyphs[i] = (BufferedImage) ImageUtil.placeholderIcon(
+                        ImageUtil.SPRITE_ORDER.charAt(i % 6), i < 6, b).getImage();
+            }
+            placeholders = compose(b, glyphs, config());
+            placeholderBucket = b;
+        }
+        return placeholders;
+    }
+
+    /** 12 sprites de b x b lado a lado, reduzidos em paralelo a partir das imagens originais. */
+    private static Image build(int b, GraphicsConfiguration gc) {
+        BufferedImage[] sources = ImageUtil.pieceSources();
+        BufferedImage[] scaled = IntStream.range(0, 12).parallel()
+                .mapToObj(i -> downscale(sources[i], b))
+                .toArray(BufferedImage[]::new);
+        return compose(b, scaled, gc);
+    }
+
+    /** Imagem translúcida compatível com a tela com os 12 sprites (já em b x b) lado a lado. */
+    private static Image compose(int b, BufferedImage[] sprites, GraphicsConfiguration gc) {
+        BufferedImage atlas = gc != null
+                ? gc.createCompatibleImage(12 * b, b, Transparency.TRANSLUCENT)
+                : new BufferedImage(12 * b, b, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = atlas.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            for (int i = 0; i < 12; i++) g.drawImage(sprites[i], i * b, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return atlas;
+    }
+
+    /** Reduções sucessivas pela metade e um passo bicúbico final: evita serrilhado em reduções grandes. */
+    private static BufferedImage downscale(BufferedImage src, int size) {
+        BufferedImage img = src;
+        while (img.getWidth() / 2 >= size && img.getHeight() / 2 >= size) {
+            img = ImageUtil.scaleImageHQ(img, img.getWidth() / 2, img.getHeight() / 2);
+        }
+        return ImageUtil.scaleImageHQ(img, size, size);
+    }
+}
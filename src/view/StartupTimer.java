@@ -0,0 +1,34 @@
+package view;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Marcos de tempo da inicialização da GUI, contados desde o início da JVM.
+ *
+ * -Dxadrez.startupTiming=true imprime cada marco em System.err (só a primeira vez de cada um).
+ * -Dxadrez.exitAfterStartup=true encerra o processo quando os sprites definitivos ficam prontos:
+ * é a execução de treino usada para gerar o arquivo de AppCDS (cds/appcds.sh).
+ */
+final class StartupTimer {
+
+    static final boolean ENABLED = Boolean.getBoolean("xadrez.startupTiming");
+    static final boolean EXIT_AFTER_STARTUP = Boolean.getBoolean("xadrez.exitAfterStartup");
+
+    private static final Set<String> MARKED = ConcurrentHashMap.newKeySet();
+
+    private StartupTimer() { }
+
+    static void mark(String label) {
+        if (!ENABLED || !MARKED.add(label)) return;
+        long ms = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.err.println("[startup] " + label + ": " + ms + " ms");
+    }
+
+    /** Último marco: a janela está completa, com as imagens definitivas. */
+    static void finished() {
+        mark("sprites prontos");
+        if (EXIT_AFTER_STARTUP) System.exit(0);
+    }
+}